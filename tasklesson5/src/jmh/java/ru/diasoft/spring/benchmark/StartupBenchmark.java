@@ -0,0 +1,110 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Время от запуска процесса java до приглашения shell:> в выводе.
+// Нужны артефакты профиля fast-start: mvn -Pfast-start package, затем mvn -Pjmh test-compile exec:exec -Djmh.args=StartupBenchmark
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path CDS_DIR = TARGET.resolve("cds");
+    private static final Path ARCHIVE = CDS_DIR.resolve("application.jsa");
+    private static final byte[] PROMPT = "shell:>".getBytes(StandardCharsets.UTF_8);
+
+    // jar - обычный fat jar; aot, cds и их сочетания - распакованный jar из target/cds;
+    // c1 - вдобавок только C1-компилятор: короткой CLI-сессии пиковая производительность C2 не нужна
+    @Param({"jar", "aot", "cds", "aot-cds", "aot-cds-c1"})
+    public String mode;
+
+    // Имя jar берётся из сборки: профиль jmh передаёт его в -Dstartup.jar, а форки JMH наследуют аргументы JVM
+    private Path fatJar;
+    private Path extractedJar;
+    private List<String> command;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String jarName = System.getProperty("startup.jar");
+        if (jarName == null || jarName.isBlank()) {
+            throw new IllegalStateException("System property startup.jar is not set, run through: mvn -Pjmh test-compile exec:exec");
+        }
+        fatJar = TARGET.resolve(jarName);
+        extractedJar = CDS_DIR.resolve(jarName);
+        if (!Files.exists(fatJar) || !Files.exists(extractedJar) || !Files.exists(ARCHIVE)) {
+            throw new IllegalStateException("Build artifacts not found, run: mvn -Pfast-start package");
+        }
+        // Архив CDS привязан к конкретной JDK, поэтому приложение запускается той же java, что и JMH
+        command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        if (mode.contains("cds")) {
+            command.add("-XX:SharedArchiveFile=" + ARCHIVE);
+        }
+        if (mode.endsWith("c1")) {
+            command.add("-XX:TieredStopAtLevel=1");
+        }
+        if (mode.contains("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-jar");
+        command.add((mode.equals("jar") ? fatJar : extractedJar).toString());
+    }
+
+    @Benchmark
+    public void timeToFirstPrompt() throws IOException {
+        process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (InputStream output = process.getInputStream()) {
+            int matched = 0;
+            int next;
+            while ((next = output.read()) != -1) {
+                matched = next == PROMPT[matched] ? matched + 1 : (next == PROMPT[0] ? 1 : 0);
+                if (matched == PROMPT.length) {
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("Application exited before showing the prompt, exit code " + exitCode());
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroyForcibly().waitFor();
+            process = null;
+        }
+    }
+
+    private int exitCode() {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.search.TitleTrigramIndex;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 64 потока создают книги для пересекающегося набора новых авторов: каждая итерация начинает с незнакомых имён.
+// merge - BookService.createBook (поиск, при промахе MERGE по уникальному ключу);
+// two-step - прежняя логика "найти, затем вставить" на схеме без уникального ограничения, как до его появления.
+// mvn -Pjmh test-compile exec:exec -Djmh.threads=64 -Djmh.args="AuthorUpsert -p books=1000"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorUpsertBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class UpsertState {
+
+        @Param({"merge", "two-step"})
+        public String mode;
+
+        @Param({"500"})
+        public int newAuthors;
+
+        volatile int round;
+        AuthorDao authorDao;
+        GenreDao genreDao;
+        BookDao bookDao;
+        TitleTrigramIndex titleIndex;
+        TransactionTemplate transactionTemplate;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryState library) {
+            authorDao = library.bean(AuthorDao.class);
+            genreDao = library.bean(GenreDao.class);
+            bookDao = library.bean(BookDao.class);
+            titleIndex = library.bean(TitleTrigramIndex.class);
+            transactionTemplate = library.bean(TransactionTemplate.class);
+            if ("two-step".equals(mode)) {
+                library.bean(NamedParameterJdbcTemplate.class).getJdbcOperations()
+                        .execute("ALTER TABLE author DROP CONSTRAINT uq_author_first_last_name");
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void nextRound() {
+            round++;
+        }
+    }
+
+    @Benchmark
+    public Book createBook(LibraryState library, UpsertState upsert) {
+        String firstName = "Upsert" + upsert.round;
+        String lastName = "Author" + ThreadLocalRandom.current().nextInt(upsert.newAuthors);
+        String genreName = library.randomGenreName();
+        if ("merge".equals(upsert.mode)) {
+            return library.bookService.createBook("Upsert Book", firstName, lastName, genreName);
+        }
+        return upsert.transactionTemplate.execute(status -> {
+            Author author = upsert.authorDao.findByFullName(firstName, lastName)
+                    .orElseGet(() -> upsert.authorDao.save(new Author(null, lastName, firstName, null)));
+            Genre genre = upsert.genreDao.findByName(genreName)
+                    .orElseGet(() -> upsert.genreDao.save(new Genre(null, genreName)));
+            Book saved = upsert.bookDao.save(new Book(null, "Upsert Book", author, genre));
+            upsert.titleIndex.put(saved.getId(), saved.getTitle());
+            return saved;
+        });
+    }
+}
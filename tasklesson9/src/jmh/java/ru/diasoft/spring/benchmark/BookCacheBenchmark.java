@@ -0,0 +1,64 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.diasoft.spring.dao.cache.BookAggregateCache;
+import ru.diasoft.spring.dao.impl.BookDaoJdbc;
+import ru.diasoft.spring.domain.Book;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// findById через кэш книг (попадание: копия книги с автором и жанром) против JOIN-а трёх таблиц в H2.
+// Горячий набор из hotBooks книг меньше кэша, поэтому после разогрева cachedFindById - только попадания.
+// mvn -Pjmh test-compile exec:exec -Djmh.args="BookCache -p books=100000 -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookCacheBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class HotSet {
+
+        @Param({"1000"})
+        public int hotBooks;
+
+        BookDaoJdbc bookDaoJdbc;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryState state) {
+            bookDaoJdbc = state.bean(BookDaoJdbc.class);
+            state.bean(BookAggregateCache.class).invalidateAll();
+            for (long id = 1; id <= Math.min(hotBooks, state.books); id++) {
+                state.bookDao.findById(id);
+            }
+        }
+
+        long randomHotId(LibraryState state) {
+            return ThreadLocalRandom.current().nextLong(1, Math.min(hotBooks, state.books) + 1);
+        }
+    }
+
+    @Benchmark
+    public Optional<Book> cachedFindById(LibraryState state, HotSet hotSet) {
+        return state.bookDao.findById(hotSet.randomHotId(state));
+    }
+
+    @Benchmark
+    public Optional<Book> joinFindById(LibraryState state, HotSet hotSet) {
+        return hotSet.bookDaoJdbc.findById(hotSet.randomHotId(state));
+    }
+}
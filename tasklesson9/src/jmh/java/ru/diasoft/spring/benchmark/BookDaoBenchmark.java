@@ -0,0 +1,44 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.diasoft.spring.domain.Book;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Горячие выборки BookDao. Число потоков задаётся при запуске (-t), размер каталога - параметром books
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookDaoBenchmark {
+
+    @Benchmark
+    public List<Book> findAll(LibraryState state) {
+        return state.bookDao.findAll();
+    }
+
+    @Benchmark
+    public Optional<Book> findById(LibraryState state) {
+        return state.bookDao.findById(state.randomBookId());
+    }
+
+    // 'Title 123' совпадает с 'Title 123', 'Title 1230'... - выборка из нескольких книг
+    @Benchmark
+    public List<Book> findByTitle(LibraryState state) {
+        return state.bookDao.findByTitle("Title " + state.randomBookId());
+    }
+
+    @Benchmark
+    public List<Book> findByAuthorId(LibraryState state) {
+        return state.bookDao.findByAuthorId(state.randomAuthorId());
+    }
+}
@@ -0,0 +1,37 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.diasoft.spring.domain.Book;
+
+import java.util.concurrent.TimeUnit;
+
+// Запись через сервис: поиск автора и жанра, транзакция, сохранение, обновление индекса названий.
+// Авторы и жанры берутся из уже засеянных, так что каталог растёт только книгами
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Benchmark
+    public Book createBook(LibraryState state) {
+        long author = state.randomAuthorId();
+        return state.bookService.createBook("Benchmark Book " + author, "First" + author, "Last" + author,
+                state.randomGenreName());
+    }
+
+    @Benchmark
+    public Book updateBook(LibraryState state) {
+        long id = state.randomBookId();
+        long author = state.randomAuthorId();
+        return state.bookService.updateBook(id, "Title " + id, "First" + author, "Last" + author,
+                state.randomGenreName());
+    }
+}
@@ -0,0 +1,53 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Полный граф Book/Author/Genre против плоской проекции BookSummary на выводе всего каталога и страницы списка.
+// Аллокации - профилировщиком gc (gc.alloc.rate.norm, байт на операцию):
+// mvn -Pjmh test-compile exec:exec -Djmh.args="BookSummary -p books=100000 -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookSummaryBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Benchmark
+    public void streamAllBooks(LibraryState state, Blackhole blackhole) {
+        try (Stream<Book> books = state.bookService.streamAllBooks()) {
+            books.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void streamAllSummaries(LibraryState state, Blackhole blackhole) {
+        try (Stream<BookSummary> books = state.bookService.streamAllBookSummaries()) {
+            books.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public List<Book> booksPage(LibraryState state) {
+        return state.bookService.getBooksPage(state.randomBookId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookSummary> summariesPage(LibraryState state) {
+        return state.bookService.getBookSummariesPage(state.randomBookId(), PAGE_SIZE);
+    }
+}
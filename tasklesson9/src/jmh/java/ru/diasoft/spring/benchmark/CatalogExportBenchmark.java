@@ -0,0 +1,71 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import ru.diasoft.spring.export.CatalogFormat;
+import ru.diasoft.spring.service.CatalogExportResult;
+import ru.diasoft.spring.service.CatalogExportService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Выгрузка всего каталога в файл: формат, gzip и режим "файл на жанр".
+// Аллокации не растут с размером каталога - проверяется профилировщиком gc (gc.alloc.rate.norm / books):
+// mvn -Pjmh test-compile exec:exec -Djmh.args="CatalogExport -p books=100000 -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CatalogExportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ExportState {
+
+        @Param({"csv", "jsonl"})
+        public String format;
+
+        @Param({"false", "true"})
+        public boolean gzip;
+
+        CatalogFormat catalogFormat;
+        CatalogExportService exportService;
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryState library) throws IOException {
+            catalogFormat = CatalogFormat.fromName(format);
+            exportService = library.bean(CatalogExportService.class);
+            directory = Files.createTempDirectory("catalog-export");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    public CatalogExportResult singleFile(ExportState state) {
+        return state.exportService.export(state.catalogFormat, state.directory.resolve("catalog"), state.gzip);
+    }
+
+    @Benchmark
+    public CatalogExportResult byGenre(ExportState state) {
+        return state.exportService.exportByGenre(state.catalogFormat, state.directory.resolve("by-genre"), state.gzip);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.impl.BookDaoJdbc;
+import ru.diasoft.spring.dao.impl.BookDaoJpa;
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+import ru.diasoft.spring.domain.Genre;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// JDBC против JPA на одном синтетическом каталоге: -p engine=jdbc,jpa.
+// Вызывается DAO самого движка, мимо кэшей, и каждый вызов идёт в транзакции, как из сервиса.
+// Пишущие сценарии откатываются, чтобы каталог не рос от итерации к итерации
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoEngineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class EngineState {
+
+        @Param({"100"})
+        public int batchSize;
+
+        BookDao bookDao;
+        TransactionTemplate readOnly;
+        TransactionTemplate readWrite;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryState library) {
+            bookDao = "jpa".equals(library.engine) ? library.bean(BookDaoJpa.class) : library.bean(BookDaoJdbc.class);
+            PlatformTransactionManager transactionManager = library.bean(PlatformTransactionManager.class);
+            readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readWrite = new TransactionTemplate(transactionManager);
+        }
+    }
+
+    @Benchmark
+    public Optional<Book> findById(LibraryState library, EngineState state) {
+        return state.readOnly.execute(status -> state.bookDao.findById(library.randomBookId()));
+    }
+
+    @Benchmark
+    public List<Book> findByAuthorId(LibraryState library, EngineState state) {
+        return state.readOnly.execute(status -> state.bookDao.findByAuthorId(library.randomAuthorId()));
+    }
+
+    // Страница из 50 книг с произвольного места каталога
+    @Benchmark
+    public List<Book> findPage(LibraryState library, EngineState state) {
+        long afterId = library.randomBookId();
+        return state.readOnly.execute(status -> state.bookDao.findPage("Title " + afterId, afterId, 50));
+    }
+
+    @Benchmark
+    public List<BookSummary> findSummaryPage(LibraryState library, EngineState state) {
+        long afterId = library.randomBookId();
+        return state.readOnly.execute(status -> state.bookDao.findSummaryPage("Title " + afterId, afterId, 50));
+    }
+
+    // Чтение и запись одной книги: так её меняет BookService.updateBook
+    @Benchmark
+    public Book update(LibraryState library, EngineState state) {
+        return state.readWrite.execute(status -> {
+            Book book = state.bookDao.findById(library.randomBookId()).orElseThrow();
+            book.setTitle(book.getTitle() + "*");
+            state.bookDao.update(book);
+            status.setRollbackOnly();
+            return book;
+        });
+    }
+
+    @Benchmark
+    public List<Book> saveAll(LibraryState library, EngineState state) {
+        List<Book> books = new ArrayList<>(state.batchSize);
+        for (int i = 0; i < state.batchSize; i++) {
+            books.add(new Book(null, "New Title " + i, new Author(library.randomAuthorId(), null, null, null),
+                    new Genre(1L, null), null));
+        }
+        return state.readWrite.execute(status -> {
+            List<Book> saved = state.bookDao.saveAll(books);
+            status.setRollbackOnly();
+            return saved;
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.diasoft.spring.Tasklesson9Application;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.search.TitleTrigramIndex;
+import ru.diasoft.spring.service.BookService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Полный контекст приложения на H2 в памяти: схема из Liquibase, синтетический каталог заданного размера.
+// Один контекст на форк и набор параметров, потоки бенчмарка делят его между собой
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    @Param({"1000", "100000"})
+    public int books;
+
+    @Param({"100"})
+    public int booksPerAuthor;
+
+    @Param({"50"})
+    public int genres;
+
+    // -p metrics=true,false сравнивает накладные расходы таймеров DAO/сервисов
+    @Param({"true"})
+    public boolean metrics;
+
+    // -p engine=jdbc,jpa сравнивает реализации DAO на одном и том же каталоге
+    @Param({"jdbc"})
+    public String engine;
+
+    int authors;
+    BookDao bookDao;
+    BookService bookService;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        authors = Math.max(1, books / booksPerAuthor);
+        // Аргументами командной строки, а не properties(): те лишь значения по умолчанию и проигрывают application.yml
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                "--spring.liquibase.contexts=benchmark",
+                "--spring.shell.interactive.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--library.metrics.enabled=" + metrics,
+                "--logging.level.root=WARN"));
+        if ("jpa".equals(engine)) {
+            args.add("--spring.profiles.active=jpa");
+        }
+        context = new SpringApplicationBuilder(Tasklesson9Application.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        bookDao = context.getBean(BookDao.class);
+        bookService = context.getBean(BookService.class);
+        seed(context.getBean(NamedParameterJdbcTemplate.class), authors, genres, books);
+
+        context.getBean(TitleTrigramIndex.class).rebuild(bookDao::streamAll);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Данные тестового и боевого контекста Liquibase не грузятся, поэтому id идут с 1
+    static void seed(NamedParameterJdbcTemplate jdbcTemplate, int authors, int genres, int books) {
+        Map<String, Object> params = Map.of("books", books, "authors", authors, "genres", genres);
+        jdbcTemplate.update("""
+            INSERT INTO genre (name) SELECT 'Genre ' || X FROM SYSTEM_RANGE(1, :genres)
+            """, params);
+        jdbcTemplate.update("""
+            INSERT INTO author (first_name, last_name, age)
+            SELECT 'First' || X, 'Last' || X, 20 + MOD(X, 60) FROM SYSTEM_RANGE(1, :authors)
+            """, params);
+        jdbcTemplate.update("""
+            INSERT INTO book (title, author_id, genre_id)
+            SELECT 'Title ' || X, 1 + MOD(X, :authors), 1 + MOD(X, :genres) FROM SYSTEM_RANGE(1, :books)
+            """, params);
+        jdbcTemplate.getJdbcOperations().execute("ANALYZE");
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    long randomBookId() {
+        return ThreadLocalRandom.current().nextLong(1, books + 1);
+    }
+
+    long randomAuthorId() {
+        return ThreadLocalRandom.current().nextLong(1, authors + 1);
+    }
+
+    String randomGenreName() {
+        return "Genre " + ThreadLocalRandom.current().nextInt(1, genres + 1);
+    }
+}
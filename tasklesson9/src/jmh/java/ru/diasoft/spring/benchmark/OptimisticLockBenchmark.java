@@ -0,0 +1,76 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.diasoft.spring.config.RetryProperties;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.retry.OptimisticLockRetry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Правка небольшого набора "горячих" книг многими потоками.
+// optimistic - BookService.updateBook с условием по версии и повтором при конфликте;
+// pessimistic - та же правка после SELECT ... FOR UPDATE, конфликтов нет, потоки ждут блокировку строки.
+// mvn -Pjmh test-compile exec:exec -Djmh.threads=64 -Djmh.args="OptimisticLock -p books=1000"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptimisticLockBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LockState {
+
+        @Param({"optimistic", "pessimistic"})
+        public String mode;
+
+        @Param({"4", "64"})
+        public int hotBooks;
+
+        OptimisticLockRetry retry;
+        TransactionTemplate transactionTemplate;
+        NamedParameterJdbcTemplate jdbcTemplate;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryState library) {
+            transactionTemplate = library.bean(TransactionTemplate.class);
+            jdbcTemplate = library.bean(NamedParameterJdbcTemplate.class);
+            // Попыток с запасом: под таким давлением пяти по умолчанию может не хватить, а сравнивается пропускная способность
+            RetryProperties properties = new RetryProperties();
+            properties.setMaxAttempts(1000);
+            properties.setInitialBackoff(Duration.ofMillis(1));
+            retry = new OptimisticLockRetry(transactionTemplate, properties);
+        }
+    }
+
+    @Benchmark
+    public Book updateBook(LibraryState library, LockState lock) {
+        long id = ThreadLocalRandom.current().nextLong(1, lock.hotBooks + 1);
+        long author = library.randomAuthorId();
+        String genre = library.randomGenreName();
+        if ("optimistic".equals(lock.mode)) {
+            return lock.retry.execute(() -> library.bookService.updateBook(id, "Title " + id,
+                    "First" + author, "Last" + author, genre));
+        }
+        return lock.transactionTemplate.execute(status -> {
+            lock.jdbcTemplate.queryForList("SELECT id FROM book WHERE id = :id FOR UPDATE", Map.of("id", id));
+            return library.bookService.updateBook(id, "Title " + id, "First" + author, "Last" + author, genre);
+        });
+    }
+}
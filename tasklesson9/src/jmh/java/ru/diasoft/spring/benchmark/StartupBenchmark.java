@@ -0,0 +1,114 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import ru.diasoft.spring.Tasklesson9Application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Время старта приложения в профиле persistent при каталоге заданного размера.
+// cold - пустой файл: Liquibase создаёт схему, каталог загружается заново (так же на каждом старте с базой в памяти);
+// warm - файл с уже загруженным каталогом: Liquibase ничего не выполняет.
+// В обоих случаях в замер входит построение индекса триграмм по всем названиям
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Path STORAGE = Path.of("target", "jmh-startup");
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"1000000"})
+        public int books;
+
+        @Param({"100"})
+        public int booksPerAuthor;
+
+        @Param({"50"})
+        public int genres;
+
+        ConfigurableApplicationContext context;
+
+        int authors() {
+            return Math.max(1, books / booksPerAuthor);
+        }
+
+        @TearDown(Level.Invocation)
+        public void stop() {
+            if (context != null) {
+                context.close();
+                context = null;
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class WarmDatabase {
+        final Path path = STORAGE.resolve("warm").resolve("library");
+
+        @Setup(Level.Trial)
+        public void prepare(Catalog catalog) throws IOException {
+            FileSystemUtils.deleteRecursively(path.getParent());
+            try (ConfigurableApplicationContext context = start(path)) {
+                LibraryState.seed(context.getBean(NamedParameterJdbcTemplate.class),
+                        catalog.authors(), catalog.genres, catalog.books);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ColdDatabase {
+        final Path path = STORAGE.resolve("cold").resolve("library");
+
+        @Setup(Level.Invocation)
+        public void clean() throws IOException {
+            FileSystemUtils.deleteRecursively(path.getParent());
+        }
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext coldStart(Catalog catalog, ColdDatabase database) {
+        catalog.context = start(database.path);
+        LibraryState.seed(catalog.context.getBean(NamedParameterJdbcTemplate.class),
+                catalog.authors(), catalog.genres, catalog.books);
+        return catalog.context;
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext warmStart(Catalog catalog, WarmDatabase database) {
+        catalog.context = start(database.path);
+        return catalog.context;
+    }
+
+    private static ConfigurableApplicationContext start(Path path) {
+        return new SpringApplicationBuilder(Tasklesson9Application.class)
+                .web(WebApplicationType.NONE)
+                .profiles("persistent")
+                .run("--library.storage.path=" + path.toAbsolutePath(),
+                        "--spring.liquibase.contexts=benchmark",
+                        "--spring.shell.interactive.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+    }
+}
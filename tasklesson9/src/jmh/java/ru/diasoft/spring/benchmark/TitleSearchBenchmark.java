@@ -0,0 +1,100 @@
+package ru.diasoft.spring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.diasoft.spring.dao.impl.BookDaoJdbc;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.search.TitleTrigramIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Поиск по названию: LIKE '%x%' против индекса триграмм + выборки по id, на схеме из Liquibase.
+// Названия каталога LibraryState заменяются на случайные фразы из словаря, чтобы подстроки встречались как в жизни.
+// DAO - JDBC напрямую, мимо кэшей. Для 1M названий нужна куча около 2 ГБ:
+// mvn -Pjmh test-compile exec:exec -Djmh.args="TitleSearch -p books=10000,100000,1000000 -jvmArgs -Xmx2g"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TitleSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "war", "peace", "river", "night", "garden", "secret", "winter", "shadow", "empire", "stone",
+            "silver", "journey", "ocean", "forest", "crown", "letters", "mirror", "storm", "island", "city",
+            "память", "сад", "зима", "дорога", "тень", "море", "город", "сердце", "ветер", "звезда"
+    };
+    private static final int BATCH_SIZE = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class TitleState {
+
+        @Param({"war", "secret garden", "mirror", "звезда", "ocean stor", "zzz"})
+        public String query;
+
+        BookDaoJdbc bookDao;
+        TitleTrigramIndex index;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryState library) {
+            bookDao = library.bean(BookDaoJdbc.class);
+            index = library.bean(TitleTrigramIndex.class);
+            retitle(library.bean(NamedParameterJdbcTemplate.class), library.books);
+            index.rebuild(bookDao::streamAll);
+        }
+    }
+
+    @Benchmark
+    public List<Book> like(TitleState state) {
+        return state.bookDao.findByTitle(state.query);
+    }
+
+    @Benchmark
+    public List<Book> trigram(TitleState state) {
+        return state.bookDao.findAllByIds(state.index.search(state.query));
+    }
+
+    // LibraryState.seed нумерует книги с 1, фиксированное зерно даёт один и тот же каталог в каждом прогоне
+    private static void retitle(NamedParameterJdbcTemplate jdbcTemplate, int books) {
+        Random random = new Random(42);
+        String sql = "UPDATE book SET title = :title WHERE id = :id";
+        for (int from = 1; from <= books; from += BATCH_SIZE) {
+            int count = Math.min(BATCH_SIZE, books - from + 1);
+            MapSqlParameterSource[] batch = new MapSqlParameterSource[count];
+            for (int i = 0; i < count; i++) {
+                batch[i] = new MapSqlParameterSource()
+                        .addValue("id", from + i)
+                        .addValue("title", randomTitle(random));
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        jdbcTemplate.getJdbcOperations().execute("ANALYZE");
+    }
+
+    private static String randomTitle(Random random) {
+        int words = 2 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        }
+        return title.append(' ').append(random.nextInt(10_000)).toString();
+    }
+}
@@ -0,0 +1,57 @@
+package ru.diasoft.spring.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Slf4j
+@Configuration
+public class AsyncConfig {
+
+    private static final String THREAD_NAME_PREFIX = "book-async-";
+    private static final String EXPORT_THREAD_NAME_PREFIX = "catalog-export-";
+
+    // Проект собирается под Java 17, поэтому виртуальные потоки включаются по версии JVM, на которой запущено приложение.
+    // На 17 - пул платформенных потоков без очереди: задача сразу получает поток и ждёт слот БД в ConnectionSlots
+    // с acquire-timeout. Лимит ожидающих (max-waiting) держит сам ConnectionSlots, пул лишь не заводит потоков сверх него
+    @Bean
+    public AsyncTaskExecutor bookTaskExecutor(AsyncProperties properties) {
+        if (Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        log.info("Virtual threads need Java 21+, async book operations use a pool of up to {} platform threads",
+                properties.getMaxConcurrentQueries() + properties.getMaxWaiting());
+        return platformThreadExecutor(properties);
+    }
+
+    public static ThreadPoolTaskExecutor platformThreadExecutor(AsyncProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.setCorePoolSize(properties.getMaxConcurrentQueries());
+        executor.setMaxPoolSize(properties.getMaxConcurrentQueries() + properties.getMaxWaiting());
+        // Без очереди: в ней задача не дошла бы до семафора, и acquire-timeout бы не срабатывал
+        executor.setQueueCapacity(0);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Свой пул для выгрузки "файл на жанр": долгие курсоры не занимают потоки асинхронных операций с книгами.
+    // Потоков ровно parallelism, остальные жанры ждут в очереди, а соединения берутся из общего ConnectionSlots
+    @Bean
+    public AsyncTaskExecutor exportTaskExecutor(ExportProperties properties) {
+        if (properties.getParallelism() <= 0) {
+            throw new IllegalArgumentException("Export parallelism must be positive: " + properties.getParallelism());
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(EXPORT_THREAD_NAME_PREFIX);
+        executor.setCorePoolSize(properties.getParallelism());
+        executor.setMaxPoolSize(properties.getParallelism());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.diasoft.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.async")
+public class AsyncProperties {
+    // Одновременных обращений к БД из фоновых задач (асинхронные операции и выгрузка каталога вместе);
+    // больше размера пула соединений ставить нет смысла
+    private int maxConcurrentQueries = 10;
+    // Сколько операция ждёт свободного слота, прежде чем завершиться ошибкой
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+    // Сколько операций может ждать слота сверх занятых, на любой JVM; остальным сразу отказ.
+    // На Java 17 каждая ожидающая держит платформенный поток
+    private int maxWaiting = 100;
+}
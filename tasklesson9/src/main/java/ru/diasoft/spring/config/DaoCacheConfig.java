@@ -0,0 +1,77 @@
+package ru.diasoft.spring.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.dao.StorageDao;
+import ru.diasoft.spring.dao.cache.BookAggregateCache;
+import ru.diasoft.spring.dao.cache.CachingAuthorDao;
+import ru.diasoft.spring.dao.cache.CachingBookDao;
+import ru.diasoft.spring.dao.cache.CachingGenreDao;
+import ru.diasoft.spring.dao.cache.EntityCache;
+import ru.diasoft.spring.dao.cache.WriteGeneration;
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.search.TitleSearchCache;
+
+@Configuration
+@ConditionalOnProperty(prefix = "library.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DaoCacheConfig {
+
+    @Bean
+    public EntityCache<Author> authorCache(DaoCacheProperties properties) {
+        DaoCacheProperties.Spec spec = properties.getAuthors();
+        return new EntityCache<>("authors", spec.getMaximumSize(), spec.getTtl(),
+                Author::getId, CachingAuthorDao::fullNameKey, CachingAuthorDao::copy);
+    }
+
+    @Bean
+    public EntityCache<Genre> genreCache(DaoCacheProperties properties) {
+        DaoCacheProperties.Spec spec = properties.getGenres();
+        return new EntityCache<>("genres", spec.getMaximumSize(), spec.getTtl(),
+                Genre::getId, Genre::getName, CachingGenreDao::copy);
+    }
+
+    @Bean
+    public BookAggregateCache bookCache(DaoCacheProperties properties) {
+        DaoCacheProperties.Spec spec = properties.getBooks();
+        return new BookAggregateCache("books", spec.getMaximumSize(), spec.getTtl());
+    }
+
+    @Bean
+    public WriteGeneration writeGeneration() {
+        return new WriteGeneration();
+    }
+
+    @Bean
+    public TitleSearchCache titleSearchCache(DaoCacheProperties properties, WriteGeneration writeGeneration) {
+        DaoCacheProperties.TitleSearch spec = properties.getTitleSearch();
+        return new TitleSearchCache("title-search", spec.getMaximumSize(), spec.getTtl(), spec.getMaxResultSize(),
+                writeGeneration);
+    }
+
+    @Bean
+    @Primary
+    public AuthorDao cachingAuthorDao(@StorageDao AuthorDao authorDao, EntityCache<Author> authorCache,
+                                      BookAggregateCache bookCache, WriteGeneration writeGeneration) {
+        return new CachingAuthorDao(authorDao, authorCache, bookCache, writeGeneration);
+    }
+
+    @Bean
+    @Primary
+    public GenreDao cachingGenreDao(@StorageDao GenreDao genreDao, EntityCache<Genre> genreCache,
+                                    BookAggregateCache bookCache, WriteGeneration writeGeneration) {
+        return new CachingGenreDao(genreDao, genreCache, bookCache, writeGeneration);
+    }
+
+    @Bean
+    @Primary
+    public BookDao cachingBookDao(@StorageDao BookDao bookDao, BookAggregateCache bookCache,
+                                  WriteGeneration writeGeneration) {
+        return new CachingBookDao(bookDao, bookCache, writeGeneration);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.diasoft.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.cache")
+public class DaoCacheProperties {
+    private boolean enabled = true;
+    private Spec authors = new Spec();
+    private Spec genres = new Spec();
+    // Книги целиком (с автором и жанром) для findById
+    private Spec books = new Spec();
+    // Результаты search-books по фрагменту названия; maximum-size - число фрагментов
+    private TitleSearch titleSearch = new TitleSearch();
+
+    @Getter
+    @Setter
+    public static class Spec {
+        private long maximumSize = 10_000;
+        // Пусто - записи живут до вытеснения по размеру или до изменения
+        private Duration ttl;
+    }
+
+    @Getter
+    @Setter
+    public static class TitleSearch extends Spec {
+        // Результаты длиннее (обычно от коротких фрагментов) не кэшируются, чтобы не держать в памяти пол-каталога
+        private int maxResultSize = 1000;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.diasoft.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.export")
+public class ExportProperties {
+    // Буфер между кодировщиком строк и FileChannel (и буфер gzip, если он включён)
+    private DataSize bufferSize = DataSize.ofMegabytes(1);
+    // Сколько жанров выгружается одновременно в режиме "файл на жанр" (потоков пула выгрузки), каждый держит
+    // своё соединение из общего бюджета library.async.max-concurrent-queries
+    private int parallelism = 4;
+}
@@ -0,0 +1,40 @@
+package ru.diasoft.spring.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.diasoft.spring.dao.cache.DaoCache;
+import ru.diasoft.spring.metrics.DaoCacheMetrics;
+import ru.diasoft.spring.metrics.LibraryMetrics;
+import ru.diasoft.spring.metrics.LibraryMetricsAspect;
+
+// Метрики хранятся в памяти процесса (SimpleMeterRegistry) и читаются командой stats - внешний backend не нужен
+@Configuration
+@ConditionalOnProperty(prefix = "library.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public LibraryMetrics libraryMetrics(MeterRegistry meterRegistry, MetricsProperties properties) {
+        return new LibraryMetrics(meterRegistry, properties.getPercentileWindow());
+    }
+
+    @Bean
+    public LibraryMetricsAspect libraryMetricsAspect(LibraryMetrics libraryMetrics) {
+        return new LibraryMetricsAspect(libraryMetrics);
+    }
+
+    @Bean
+    public DaoCacheMetrics daoCacheMetrics(MeterRegistry meterRegistry, ObjectProvider<DaoCache> daoCaches) {
+        return new DaoCacheMetrics(meterRegistry, daoCaches);
+    }
+}
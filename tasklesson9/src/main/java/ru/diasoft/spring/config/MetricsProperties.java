@@ -0,0 +1,16 @@
+package ru.diasoft.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.metrics")
+public class MetricsProperties {
+    private boolean enabled = true;
+    // Перцентили считаются по скользящему окну: старые замеры перестают влиять через это время
+    private Duration percentileWindow = Duration.ofMinutes(5);
+}
@@ -0,0 +1,62 @@
+package ru.diasoft.spring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import ru.diasoft.spring.replica.ReplicaFallbackDataSource;
+import ru.diasoft.spring.replica.SnapshotReplication;
+
+import javax.sql.DataSource;
+
+// Чтение с реплики: LazyConnectionDataSourceProxy берёт настоящее соединение только на первом запросе,
+// когда флаг readOnly транзакции уже известен, и для @Transactional(readOnly = true) отдаёт соединение реплики.
+// Пишущие транзакции, Liquibase и запросы вне транзакции идут в основную базу
+@Configuration
+@ConditionalOnProperty(prefix = "library.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Недоступная при старте реплика не мешает запуску (initializationFailTimeout = -1)
+    @Bean
+    public HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        if (!StringUtils.hasText(properties.getUrl())) {
+            throw new IllegalStateException("library.replica.url must be set when library.replica.enabled is true");
+        }
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaFallbackDataSource(replica, primary));
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "library.replica", name = "replication-hook", havingValue = "true")
+    public SnapshotReplication snapshotReplication(@Qualifier("primaryDataSource") DataSource primary,
+                                                   @Qualifier("replicaDataSource") DataSource replica) {
+        return new SnapshotReplication(primary, replica);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.diasoft.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.replica")
+public class ReplicaProperties {
+    // Транзакции readOnly читают с реплики, остальные запросы идут в основную базу
+    private boolean enabled = false;
+    private String url;
+    private String username = "sa";
+    private String password = "";
+    // Сколько ждать соединения с реплики, прежде чем читать из основной базы
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    // Для локальной проверки без настоящей репликации: после каждой пишущей транзакции
+    // данные основной базы копируются в реплику
+    private boolean replicationHook = false;
+}
@@ -0,0 +1,17 @@
+package ru.diasoft.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.retry")
+public class RetryProperties {
+    // Попыток на операцию, включая первую
+    private int maxAttempts = 5;
+    // Пауза перед второй попыткой, дальше удваивается; фактическая пауза - случайная в пределах этого значения
+    private Duration initialBackoff = Duration.ofMillis(5);
+}
@@ -0,0 +1,19 @@
+package ru.diasoft.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.search")
+public class SearchProperties {
+    private Trigram trigram = new Trigram();
+
+    @Getter
+    @Setter
+    public static class Trigram {
+        // Строить ли индекс триграмм названий при старте; без него search-books идёт через LIKE
+        private boolean enabled = true;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.diasoft.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "library.streaming")
+public class StreamingProperties {
+    // Сколько строк драйвер забирает за один round trip при потоковом чтении
+    private int fetchSize = 1000;
+}
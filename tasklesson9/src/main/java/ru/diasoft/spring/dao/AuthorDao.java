@@ -3,6 +3,7 @@ package ru.diasoft.spring.dao;
 
 import ru.diasoft.spring.domain.Author;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +14,10 @@ public interface AuthorDao {
     void update(Author author);
     void deleteById(Long id);
     Optional<Author> findByFullName(String firstName, String lastName);
+    List<Author> findPage(String afterLastName, String afterFirstName, Long afterId, int limit);
+    long estimateCount();
+    List<Author> findByFullNames(Collection<Author> authors);
+    List<Author> saveAll(List<Author> authors);
+    Author findOrCreate(String firstName, String lastName);
+    List<Author> findAllByIds(Collection<Long> ids);
 }
\ No newline at end of file
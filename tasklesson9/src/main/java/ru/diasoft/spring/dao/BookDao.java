@@ -2,9 +2,12 @@ package ru.diasoft.spring.dao;
 
 
 import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookDao {
     List<Book> findAll();
@@ -15,5 +18,20 @@ public interface BookDao {
     List<Book> findByTitle(String title);
     List<Book> findByAuthorId(Long authorId);
     List<Book> findByGenreId(Long genreId);
-
+    List<Book> findPage(String afterTitle, Long afterId, int limit);
+    long estimateCount();
+    // Поток держит соединение открытым - его обязательно закрывать (try-with-resources)
+    Stream<Book> streamAll();
+    List<Book> saveAll(List<Book> books);
+    List<Book> findAllByIds(Collection<Long> ids);
+    List<Book> searchFullText(String query, int limit);
+    // Проекции для списков: только id, название, имя автора и название жанра
+    List<BookSummary> findSummaryPage(String afterTitle, Long afterId, int limit);
+    List<BookSummary> findSummariesByTitle(String title);
+    List<BookSummary> findSummariesByIds(Collection<Long> ids);
+    List<BookSummary> searchFullTextSummaries(String query, int limit);
+    // Как и streamAll, держит соединение до закрытия
+    Stream<BookSummary> streamAllSummaries();
+    // genreId = null - книги без жанра
+    Stream<BookSummary> streamSummariesByGenreId(Long genreId);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package ru.diasoft.spring.dao;
 
 import ru.diasoft.spring.domain.Genre;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +12,10 @@ public interface GenreDao {
     void update(Genre genre);
     void deleteById(Long id);
     Optional<Genre> findByName(String name);
+    List<Genre> findPage(String afterName, Long afterId, int limit);
+    long estimateCount();
+    List<Genre> findByNames(Collection<String> names);
+    List<Genre> saveAll(List<Genre> genres);
+    Genre findOrCreate(String name);
+    List<Genre> findAllByIds(Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ru.diasoft.spring.dao;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// DAO, который ходит в базу сам: JDBC-реализация по умолчанию или JPA-реализация в профиле jpa.
+// Кэширующие DAO оборачивают именно его, не завися от того, какой из движков активен
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.PARAMETER, ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+@Qualifier
+public @interface StorageDao {
+}
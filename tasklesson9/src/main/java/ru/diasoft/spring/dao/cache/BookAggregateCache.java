@@ -0,0 +1,207 @@
+package ru.diasoft.spring.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.diasoft.spring.domain.Book;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Кэш книги целиком (книга + автор + жанр, как их собирает JOIN) по id книги.
+// Обратные индексы автор -> книги и жанр -> книги дают точный сброс: изменение автора или жанра
+// сбрасывает только закэшированные книги этого автора или жанра, а не весь кэш.
+// Как и в EntityCache, наружу и внутрь отдаются копии, а книги, затронутые текущей транзакцией, не кэшируются до её завершения
+public class BookAggregateCache implements DaoCache {
+
+    private final String name;
+    private final Cache<Long, Book> byId;
+    // Множества меняются только внутри compute по своему ключу; на сброс индекс забирается целиком через remove
+    private final ConcurrentMap<Long, Set<Long>> booksByAuthor = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> booksByGenre = new ConcurrentHashMap<>();
+    // Номер последнего сброса. Загрузка, которая шла во время сброса, могла прочитать старую версию:
+    // такая книга сразу выбрасывается из кэша
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public BookAggregateCache(String name, long maximumSize, Duration ttl) {
+        this.name = name;
+        Caffeine<Long, Book> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                // Слушатель вызывается в потоке, который вытеснил или заменил запись: индексы не отстают от кэша
+                .executor(Runnable::run)
+                .removalListener((Long id, Book book, RemovalCause cause) -> {
+                    if (id != null && book != null) {
+                        unindex(id, book);
+                    }
+                });
+        if (ttl != null && !ttl.isZero()) {
+            builder.expireAfterWrite(ttl);
+        }
+        this.byId = builder.build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public Optional<Book> findById(Long id, Supplier<Optional<Book>> loader) {
+        Book cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(CachingBookDao.copy(cached));
+        }
+        long stamp = invalidations.get();
+        Optional<Book> loaded = loader.get();
+        loaded.ifPresent(book -> put(book, stamp));
+        return loaded;
+    }
+
+    private void put(Book book, long stamp) {
+        Long authorId = book.getAuthor() == null ? null : book.getAuthor().getId();
+        Long genreId = book.getGenre() == null ? null : book.getGenre().getId();
+        Dirty dirty = dirtyInCurrentTransaction();
+        if (dirty != null && (dirty.books.contains(book.getId())
+                || dirty.authors.contains(authorId) || dirty.genres.contains(genreId))) {
+            return;
+        }
+        // Сначала запись, потом индекс: слушатель замены снимает из индекса старую версию раньше, чем добавится новая
+        byId.put(book.getId(), CachingBookDao.copy(book));
+        index(booksByAuthor, authorId, book.getId());
+        index(booksByGenre, genreId, book.getId());
+        if (invalidations.get() != stamp) {
+            byId.invalidate(book.getId());
+        }
+    }
+
+    // Вставка, изменение или удаление книги
+    public void bookChanged(Long bookId) {
+        markDirty(dirty -> dirty.books.add(bookId));
+        evictBooks(Set.of(bookId));
+    }
+
+    public void authorChanged(Long authorId) {
+        markDirty(dirty -> dirty.authors.add(authorId));
+        evictAuthors(Set.of(authorId));
+    }
+
+    public void genreChanged(Long genreId) {
+        markDirty(dirty -> dirty.genres.add(genreId));
+        evictGenres(Set.of(genreId));
+    }
+
+    private void evictBooks(Collection<Long> bookIds) {
+        invalidations.incrementAndGet();
+        byId.invalidateAll(bookIds);
+    }
+
+    private void evictAuthors(Collection<Long> authorIds) {
+        invalidations.incrementAndGet();
+        for (Long authorId : authorIds) {
+            Set<Long> books = booksByAuthor.remove(authorId);
+            if (books != null) {
+                byId.invalidateAll(books);
+            }
+        }
+    }
+
+    private void evictGenres(Collection<Long> genreIds) {
+        invalidations.incrementAndGet();
+        for (Long genreId : genreIds) {
+            Set<Long> books = booksByGenre.remove(genreId);
+            if (books != null) {
+                byId.invalidateAll(books);
+            }
+        }
+    }
+
+    private static void index(ConcurrentMap<Long, Set<Long>> index, Long key, Long bookId) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, books) -> {
+            Set<Long> updated = books == null ? new HashSet<>() : books;
+            updated.add(bookId);
+            return updated;
+        });
+    }
+
+    private void unindex(Long bookId, Book book) {
+        if (book.getAuthor() != null) {
+            unindex(booksByAuthor, book.getAuthor().getId(), bookId);
+        }
+        if (book.getGenre() != null) {
+            unindex(booksByGenre, book.getGenre().getId(), bookId);
+        }
+    }
+
+    private static void unindex(ConcurrentMap<Long, Set<Long>> index, Long key, Long bookId) {
+        index.computeIfPresent(key, (k, books) -> {
+            books.remove(bookId);
+            return books.isEmpty() ? null : books;
+        });
+    }
+
+    private void markDirty(Consumer<Dirty> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Dirty dirty = dirtyInCurrentTransaction();
+        if (dirty == null) {
+            Dirty newDirty = new Dirty();
+            dirty = newDirty;
+            TransactionSynchronizationManager.bindResource(this, newDirty);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BookAggregateCache.this);
+                    // Другие потоки могли успеть закэшировать старую версию, пока транзакция шла
+                    evictBooks(newDirty.books);
+                    evictAuthors(newDirty.authors);
+                    evictGenres(newDirty.genres);
+                }
+            });
+        }
+        change.accept(dirty);
+    }
+
+    private Dirty dirtyInCurrentTransaction() {
+        return (Dirty) TransactionSynchronizationManager.getResource(this);
+    }
+
+    // Книги, авторы и жанры, записанные текущей транзакцией
+    private static class Dirty {
+        private final Set<Long> books = new HashSet<>();
+        private final Set<Long> authors = new HashSet<>();
+        private final Set<Long> genres = new HashSet<>();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return byId.stats();
+    }
+
+    @Override
+    public long size() {
+        return byId.estimatedSize();
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        byId.invalidateAll();
+        booksByAuthor.clear();
+        booksByGenre.clear();
+    }
+}
@@ -0,0 +1,114 @@
+package ru.diasoft.spring.dao.cache;
+
+import lombok.RequiredArgsConstructor;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.domain.Author;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Read-through кэш поверх AuthorDao: findById, findAllByIds и findByFullName идут через кэш, записи его сбрасывают
+// вместе с закэшированными книгами этого автора. Изменение и удаление увеличивают поколение данных для кэша поиска;
+// новые авторы и жанры на результаты поиска не влияют
+@RequiredArgsConstructor
+public class CachingAuthorDao implements AuthorDao {
+
+    private final AuthorDao delegate;
+    private final EntityCache<Author> cache;
+    private final BookAggregateCache bookCache;
+    private final WriteGeneration writeGeneration;
+
+    public static String fullNameKey(String firstName, String lastName) {
+        return firstName + '\u0000' + lastName;
+    }
+
+    public static String fullNameKey(Author author) {
+        return fullNameKey(author.getFirstName(), author.getLastName());
+    }
+
+    public static Author copy(Author author) {
+        return new Author(author.getId(), author.getLastName(), author.getFirstName(), author.getAge(),
+                author.getVersion());
+    }
+
+    @Override
+    public List<Author> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<Author> findById(Long id) {
+        return cache.findById(id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Author save(Author author) {
+        boolean isNew = author.getId() == null;
+        Author saved = delegate.save(author);
+        if (isNew) {
+            cache.inserted(saved);
+        } else {
+            cache.changed(saved.getId(), fullNameKey(saved));
+            bookCache.authorChanged(saved.getId());
+            writeGeneration.bump();
+        }
+        return saved;
+    }
+
+    @Override
+    public void update(Author author) {
+        delegate.update(author);
+        cache.changed(author.getId(), fullNameKey(author));
+        bookCache.authorChanged(author.getId());
+        writeGeneration.bump();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        cache.changed(id, null);
+        bookCache.authorChanged(id);
+        writeGeneration.bump();
+    }
+
+    @Override
+    public Optional<Author> findByFullName(String firstName, String lastName) {
+        return cache.findByKey(fullNameKey(firstName, lastName), () -> delegate.findByFullName(firstName, lastName));
+    }
+
+    @Override
+    public List<Author> findPage(String afterLastName, String afterFirstName, Long afterId, int limit) {
+        return delegate.findPage(afterLastName, afterFirstName, afterId, limit);
+    }
+
+    @Override
+    public long estimateCount() {
+        return delegate.estimateCount();
+    }
+
+    @Override
+    public List<Author> findByFullNames(Collection<Author> authors) {
+        return delegate.findByFullNames(authors);
+    }
+
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        List<Author> saved = delegate.saveAll(authors);
+        saved.forEach(cache::inserted);
+        return saved;
+    }
+
+    // Строка могла быть вставлена этой транзакцией, поэтому кэшируется как вставленная (видна только после коммита)
+    @Override
+    public Author findOrCreate(String firstName, String lastName) {
+        Author author = delegate.findOrCreate(firstName, lastName);
+        cache.inserted(author);
+        return author;
+    }
+
+    @Override
+    public List<Author> findAllByIds(Collection<Long> ids) {
+        return cache.findAllByIds(ids, delegate::findAllByIds);
+    }
+}
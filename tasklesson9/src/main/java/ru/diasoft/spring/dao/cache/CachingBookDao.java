@@ -0,0 +1,140 @@
+package ru.diasoft.spring.dao.cache;
+
+import lombok.RequiredArgsConstructor;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Read-through кэш поверх BookDao: findById отдаёт книгу вместе с автором и жанром без JOIN-а,
+// записи книг её сбрасывают и увеличивают поколение данных для кэша поиска (WriteGeneration).
+// Изменения авторов и жанров сбрасывают их книги через CachingAuthorDao и CachingGenreDao. Списки и поиск идут мимо кэша
+@RequiredArgsConstructor
+public class CachingBookDao implements BookDao {
+
+    private final BookDao delegate;
+    private final BookAggregateCache cache;
+    private final WriteGeneration writeGeneration;
+
+    public static Book copy(Book book) {
+        return new Book(book.getId(), book.getTitle(),
+                book.getAuthor() == null ? null : CachingAuthorDao.copy(book.getAuthor()),
+                book.getGenre() == null ? null : CachingGenreDao.copy(book.getGenre()),
+                book.getVersion());
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        return cache.findById(id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Book save(Book book) {
+        Book saved = delegate.save(book);
+        cache.bookChanged(saved.getId());
+        writeGeneration.bump();
+        return saved;
+    }
+
+    @Override
+    public void update(Book book) {
+        delegate.update(book);
+        cache.bookChanged(book.getId());
+        writeGeneration.bump();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        cache.bookChanged(id);
+        writeGeneration.bump();
+    }
+
+    @Override
+    public List<Book> findByTitle(String title) {
+        return delegate.findByTitle(title);
+    }
+
+    @Override
+    public List<Book> findByAuthorId(Long authorId) {
+        return delegate.findByAuthorId(authorId);
+    }
+
+    @Override
+    public List<Book> findByGenreId(Long genreId) {
+        return delegate.findByGenreId(genreId);
+    }
+
+    @Override
+    public List<Book> findPage(String afterTitle, Long afterId, int limit) {
+        return delegate.findPage(afterTitle, afterId, limit);
+    }
+
+    @Override
+    public long estimateCount() {
+        return delegate.estimateCount();
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        return delegate.streamAll();
+    }
+
+    // Новые книги в кэше быть не может, но до конца транзакции их нельзя и закэшировать
+    @Override
+    public List<Book> saveAll(List<Book> books) {
+        List<Book> saved = delegate.saveAll(books);
+        saved.forEach(book -> cache.bookChanged(book.getId()));
+        writeGeneration.bump();
+        return saved;
+    }
+
+    @Override
+    public List<Book> findAllByIds(Collection<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<Book> searchFullText(String query, int limit) {
+        return delegate.searchFullText(query, limit);
+    }
+
+    @Override
+    public List<BookSummary> findSummaryPage(String afterTitle, Long afterId, int limit) {
+        return delegate.findSummaryPage(afterTitle, afterId, limit);
+    }
+
+    @Override
+    public List<BookSummary> findSummariesByTitle(String title) {
+        return delegate.findSummariesByTitle(title);
+    }
+
+    @Override
+    public List<BookSummary> findSummariesByIds(Collection<Long> ids) {
+        return delegate.findSummariesByIds(ids);
+    }
+
+    @Override
+    public List<BookSummary> searchFullTextSummaries(String query, int limit) {
+        return delegate.searchFullTextSummaries(query, limit);
+    }
+
+    @Override
+    public Stream<BookSummary> streamAllSummaries() {
+        return delegate.streamAllSummaries();
+    }
+
+    @Override
+    public Stream<BookSummary> streamSummariesByGenreId(Long genreId) {
+        return delegate.streamSummariesByGenreId(genreId);
+    }
+}
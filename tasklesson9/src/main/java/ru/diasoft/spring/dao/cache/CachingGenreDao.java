@@ -0,0 +1,104 @@
+package ru.diasoft.spring.dao.cache;
+
+import lombok.RequiredArgsConstructor;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.domain.Genre;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Read-through кэш поверх GenreDao: findById, findAllByIds и findByName идут через кэш, записи его сбрасывают
+// вместе с закэшированными книгами этого жанра. Изменение и удаление увеличивают поколение данных для кэша поиска;
+// новые авторы и жанры на результаты поиска не влияют
+@RequiredArgsConstructor
+public class CachingGenreDao implements GenreDao {
+
+    private final GenreDao delegate;
+    private final EntityCache<Genre> cache;
+    private final BookAggregateCache bookCache;
+    private final WriteGeneration writeGeneration;
+
+    public static Genre copy(Genre genre) {
+        return new Genre(genre.getId(), genre.getName(), genre.getVersion());
+    }
+
+    @Override
+    public List<Genre> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<Genre> findById(Long id) {
+        return cache.findById(id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Genre save(Genre genre) {
+        boolean isNew = genre.getId() == null;
+        Genre saved = delegate.save(genre);
+        if (isNew) {
+            cache.inserted(saved);
+        } else {
+            cache.changed(saved.getId(), saved.getName());
+            bookCache.genreChanged(saved.getId());
+            writeGeneration.bump();
+        }
+        return saved;
+    }
+
+    @Override
+    public void update(Genre genre) {
+        delegate.update(genre);
+        cache.changed(genre.getId(), genre.getName());
+        bookCache.genreChanged(genre.getId());
+        writeGeneration.bump();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        cache.changed(id, null);
+        bookCache.genreChanged(id);
+        writeGeneration.bump();
+    }
+
+    @Override
+    public Optional<Genre> findByName(String name) {
+        return cache.findByKey(name, () -> delegate.findByName(name));
+    }
+
+    @Override
+    public List<Genre> findPage(String afterName, Long afterId, int limit) {
+        return delegate.findPage(afterName, afterId, limit);
+    }
+
+    @Override
+    public long estimateCount() {
+        return delegate.estimateCount();
+    }
+
+    @Override
+    public List<Genre> findByNames(Collection<String> names) {
+        return delegate.findByNames(names);
+    }
+
+    @Override
+    public List<Genre> saveAll(List<Genre> genres) {
+        List<Genre> saved = delegate.saveAll(genres);
+        saved.forEach(cache::inserted);
+        return saved;
+    }
+
+    @Override
+    public Genre findOrCreate(String name) {
+        Genre genre = delegate.findOrCreate(name);
+        cache.inserted(genre);
+        return genre;
+    }
+
+    @Override
+    public List<Genre> findAllByIds(Collection<Long> ids) {
+        return cache.findAllByIds(ids, delegate::findAllByIds);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.diasoft.spring.dao.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+// Общее у кэшей DAO: статистика для cache-stats и метрик, полный сброс после restore
+public interface DaoCache {
+    String getName();
+    CacheStats stats();
+    long size();
+    void invalidateAll();
+}
@@ -0,0 +1,235 @@
+package ru.diasoft.spring.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Кэш сущностей по id и по естественному ключу (W-TinyLFU вытеснение Caffeine, опциональный TTL).
+// Доменные объекты изменяемые, поэтому наружу и внутрь кэша отдаются только копии.
+// Строки, записанные в текущей транзакции, в кэш не попадают до её завершения:
+// иначе после отката в кэше остались бы незакоммиченные данные.
+public class EntityCache<T> implements DaoCache {
+
+    private final String name;
+    private final Cache<Long, T> byId;
+    private final Cache<String, T> byKey;
+    // Обратный индекс id -> ключи в byKey: сброс по id не перебирает весь кэш ключей.
+    // Множества меняются только внутри compute по своему id; на сброс индекс забирается целиком через remove
+    private final ConcurrentMap<Long, Set<String>> keysById = new ConcurrentHashMap<>();
+    // Номер последнего сброса, как в BookAggregateCache: загрузка, которая шла во время сброса,
+    // могла прочитать старую версию, и такая запись сразу выбрасывается из кэша
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Function<T, Long> idOf;
+    private final Function<T, String> keyOf;
+    private final UnaryOperator<T> copier;
+
+    public EntityCache(String name, long maximumSize, Duration ttl,
+                       Function<T, Long> idOf, Function<T, String> keyOf, UnaryOperator<T> copier) {
+        this.name = name;
+        this.byId = newCache(maximumSize, ttl).build();
+        this.byKey = newCache(maximumSize, ttl)
+                // Слушатель вызывается в потоке, который вытеснил или заменил запись: индекс не отстаёт от кэша
+                .executor(Runnable::run)
+                .removalListener((String key, T value, RemovalCause cause) -> {
+                    if (key != null && value != null) {
+                        unindex(idOf.apply(value), key);
+                    }
+                })
+                .build();
+        this.idOf = idOf;
+        this.keyOf = keyOf;
+        this.copier = copier;
+    }
+
+    private static Caffeine<Object, Object> newCache(long maximumSize, Duration ttl) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (ttl != null && !ttl.isZero()) {
+            builder.expireAfterWrite(ttl);
+        }
+        return builder;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public Optional<T> findById(Long id, Supplier<Optional<T>> loader) {
+        T cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copier.apply(cached));
+        }
+        long stamp = invalidations.get();
+        Optional<T> loaded = loader.get();
+        loaded.ifPresent(value -> put(value, stamp));
+        return loaded;
+    }
+
+    public Optional<T> findByKey(String key, Supplier<Optional<T>> loader) {
+        T cached = byKey.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(copier.apply(cached));
+        }
+        long stamp = invalidations.get();
+        Optional<T> loaded = loader.get();
+        loaded.ifPresent(value -> put(value, stamp));
+        return loaded;
+    }
+
+    // Мульти-выборка: из кэша берутся найденные id, остальные загружаются одним вызовом loader-а.
+    // Порядок результата повторяет порядок ids, отсутствующие id пропускаются
+    public List<T> findAllByIds(Collection<Long> ids, Function<Collection<Long>, List<T>> loader) {
+        Map<Long, T> found = new HashMap<>();
+        byId.getAllPresent(ids).forEach((id, cached) -> found.put(id, copier.apply(cached)));
+        List<Long> missing = ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            long stamp = invalidations.get();
+            for (T loaded : loader.apply(missing)) {
+                put(loaded, stamp);
+                found.put(idOf.apply(loaded), loaded);
+            }
+        }
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void put(T value, long stamp) {
+        Long id = idOf.apply(value);
+        String key = keyOf.apply(value);
+        Dirty dirty = dirtyInCurrentTransaction();
+        if (dirty != null && (dirty.ids.contains(id) || dirty.keys.contains(key))) {
+            return;
+        }
+        // Сначала запись, потом индекс: слушатель замены снимает из индекса старую версию раньше, чем добавится новая
+        T copy = copier.apply(value);
+        byId.put(id, copy);
+        byKey.put(key, copy);
+        index(id, key);
+        if (invalidations.get() != stamp) {
+            remove(id, key);
+        }
+    }
+
+    // Вставка: старых записей с этим id быть не может, достаточно сбросить ключ
+    public void inserted(T value) {
+        markDirty(idOf.apply(value), keyOf.apply(value));
+        invalidations.incrementAndGet();
+        byKey.invalidate(keyOf.apply(value));
+    }
+
+    // Изменение или удаление: сбрасываем id, новый ключ и все ключи, которые указывали на этот id
+    public void changed(Long id, String newKey) {
+        markDirty(id, newKey);
+        evict(id, newKey);
+    }
+
+    private void evict(Long id, String key) {
+        invalidations.incrementAndGet();
+        remove(id, key);
+    }
+
+    private void remove(Long id, String key) {
+        byId.invalidate(id);
+        if (key != null) {
+            byKey.invalidate(key);
+        }
+        Set<String> keys = keysById.remove(id);
+        if (keys != null) {
+            byKey.invalidateAll(keys);
+        }
+    }
+
+    private void index(Long id, String key) {
+        keysById.compute(id, (k, keys) -> {
+            Set<String> updated = keys == null ? new HashSet<>() : keys;
+            updated.add(key);
+            return updated;
+        });
+    }
+
+    private void unindex(Long id, String key) {
+        keysById.computeIfPresent(id, (k, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private void markDirty(Long id, String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Dirty dirty = dirtyInCurrentTransaction();
+        if (dirty == null) {
+            Dirty newDirty = new Dirty();
+            dirty = newDirty;
+            TransactionSynchronizationManager.bindResource(this, newDirty);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityCache.this);
+                    // Другие потоки могли успеть закэшировать старую версию, пока транзакция шла
+                    newDirty.ids.forEach(id -> evict(id, null));
+                    byKey.invalidateAll(newDirty.keys);
+                }
+            });
+        }
+        dirty.ids.add(id);
+        if (key != null) {
+            dirty.keys.add(key);
+        }
+    }
+
+    private Dirty dirtyInCurrentTransaction() {
+        return (Dirty) TransactionSynchronizationManager.getResource(this);
+    }
+
+    // id и ключи, записанные текущей транзакцией
+    private static class Dirty {
+        private final Set<Long> ids = new HashSet<>();
+        private final Set<String> keys = new HashSet<>();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return byId.stats().plus(byKey.stats());
+    }
+
+    @Override
+    public long size() {
+        return byId.estimatedSize();
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        byId.invalidateAll();
+        byKey.invalidateAll();
+        keysById.clear();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.diasoft.spring.dao.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Глобальный номер поколения данных: любая запись книги, автора или жанра увеличивает его,
+// и все результаты, посчитанные в прошлом поколении, разом устаревают - без учёта по отдельным записям.
+// В транзакции номер растёт дважды: сразу при записи и после её завершения, когда запись стала видна другим
+// (или откатилась): поиск, прочитавший данные до коммита, не останется в кэше
+public class WriteGeneration {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public long current() {
+        return generation.get();
+    }
+
+    public void bump() {
+        generation.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || writtenInCurrentTransaction()) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WriteGeneration.this);
+                generation.incrementAndGet();
+            }
+        });
+    }
+
+    // Транзакция, которая уже что-то записала, видит свои незакоммиченные изменения - ей кэш не годится
+    public boolean writtenInCurrentTransaction() {
+        return TransactionSynchronizationManager.getResource(this) != null;
+    }
+}
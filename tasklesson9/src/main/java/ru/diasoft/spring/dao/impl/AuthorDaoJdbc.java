@@ -1,6 +1,9 @@
 package ru.diasoft.spring.dao.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -8,15 +11,19 @@ import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.StorageDao;
 import ru.diasoft.spring.domain.Author;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 @Repository
+@Profile("!jpa")
+@StorageDao
 @RequiredArgsConstructor
 public class AuthorDaoJdbc implements AuthorDao {
 
@@ -33,20 +40,21 @@ public class AuthorDaoJdbc implements AuthorDao {
                     rs.getLong("id"),
                     rs.getString("last_name"),
                     rs.getString("first_name"),
-                    age
+                    age,
+                    rs.getLong("version")
             );
         }
     }
 
     @Override
     public List<Author> findAll() {
-        String sql = "SELECT id, last_name, first_name, age FROM author ORDER BY last_name, first_name";
+        String sql = "SELECT id, last_name, first_name, age, version FROM author ORDER BY last_name, first_name";
         return jdbcTemplate.query(sql, new AuthorRowMapper());
     }
 
     @Override
     public Optional<Author> findById(Long id) {
-        String sql = "SELECT id, last_name, first_name, age FROM author WHERE id = :id";
+        String sql = "SELECT id, last_name, first_name, age, version FROM author WHERE id = :id";
         try {
             Author author = jdbcTemplate.queryForObject(
                     sql,
@@ -84,15 +92,20 @@ public class AuthorDaoJdbc implements AuthorDao {
         jdbcTemplate.update(sql, params, keyHolder, new String[]{"id"});
 
         author.setId(keyHolder.getKey().longValue());
+        author.setVersion(0L);
         return author;
     }
 
+    // Оптимистическая блокировка: запись проходит, только если строку никто не изменил после чтения
     @Override
     public void update(Author author) {
+        if (author.getVersion() == null) {
+            throw new IllegalArgumentException("Author must have a version to be updated");
+        }
         String sql = """
             UPDATE author 
-            SET last_name = :last_name, first_name = :first_name, age = :age 
-            WHERE id = :id
+            SET last_name = :last_name, first_name = :first_name, age = :age, version = version + 1 
+            WHERE id = :id AND version = :version
             """;
 
         MapSqlParameterSource params = new MapSqlParameterSource();
@@ -100,8 +113,13 @@ public class AuthorDaoJdbc implements AuthorDao {
         params.addValue("first_name", author.getFirstName());
         params.addValue("age", author.getAge());
         params.addValue("id", author.getId());
+        params.addValue("version", author.getVersion());
 
-        jdbcTemplate.update(sql, params);
+        if (jdbcTemplate.update(sql, params) == 0) {
+            throw new OptimisticLockingFailureException("Author " + author.getId()
+                    + " was changed or deleted by another transaction, version " + author.getVersion() + " is stale");
+        }
+        author.setVersion(author.getVersion() + 1);
     }
 
     @Override
@@ -113,7 +131,7 @@ public class AuthorDaoJdbc implements AuthorDao {
     @Override
     public Optional<Author> findByFullName(String firstName, String lastName) {
         String sql = """
-            SELECT id, last_name, first_name, age 
+            SELECT id, last_name, first_name, age, version 
             FROM author 
             WHERE first_name = :first_name AND last_name = :last_name
             """;
@@ -129,4 +147,126 @@ public class AuthorDaoJdbc implements AuthorDao {
             return Optional.empty();
         }
     }
-}
\ No newline at end of file
+
+    // Keyset-пагинация: страница начинается после последнего увиденного (last_name, first_name, id).
+    // Условие last_name >= :last_name даёт H2 диапазон по idx_author_last_first_name
+    @Override
+    public List<Author> findPage(String afterLastName, String afterFirstName, Long afterId, int limit) {
+        if (afterId == null) {
+            String sql = """
+                SELECT id, last_name, first_name, age, version 
+                FROM author 
+                ORDER BY last_name, first_name, id 
+                LIMIT :limit
+                """;
+            return jdbcTemplate.query(sql, Map.of("limit", limit), new AuthorRowMapper());
+        }
+
+        String sql = """
+            SELECT id, last_name, first_name, age, version 
+            FROM author 
+            WHERE last_name >= :last_name 
+              AND (last_name > :last_name 
+                   OR first_name > :first_name 
+                   OR (first_name = :first_name AND id > :id)) 
+            ORDER BY last_name, first_name, id 
+            LIMIT :limit
+            """;
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("last_name", afterLastName);
+        params.addValue("first_name", afterFirstName);
+        params.addValue("id", afterId);
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql, params, new AuthorRowMapper());
+    }
+
+    @Override
+    public long estimateCount() {
+        return TableStatistics.estimateRowCount(jdbcTemplate, "AUTHOR");
+    }
+
+    // Один запрос на все пары (first_name, last_name) вместо findByFullName на каждого автора
+    @Override
+    public List<Author> findByFullNames(Collection<Author> authors) {
+        if (authors.isEmpty()) {
+            return List.of();
+        }
+        String sql = """
+            SELECT id, last_name, first_name, age, version 
+            FROM author 
+            WHERE (first_name, last_name) IN (:names)
+            """;
+
+        List<Object[]> names = authors.stream()
+                .map(author -> new Object[]{author.getFirstName(), author.getLastName()})
+                .toList();
+
+        return jdbcTemplate.query(sql, Map.of("names", names), new AuthorRowMapper());
+    }
+
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        if (authors.isEmpty()) {
+            return authors;
+        }
+        String sql = """
+            INSERT INTO author (last_name, first_name, age) 
+            VALUES (:last_name, :first_name, :age)
+            """;
+
+        MapSqlParameterSource[] batch = authors.stream()
+                .map(author -> new MapSqlParameterSource()
+                        .addValue("last_name", author.getLastName())
+                        .addValue("first_name", author.getFirstName())
+                        .addValue("age", author.getAge()))
+                .toArray(MapSqlParameterSource[]::new);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(sql, batch, keyHolder, new String[]{"id"});
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < authors.size(); i++) {
+            authors.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+            authors.get(i).setVersion(0L);
+        }
+        return authors;
+    }
+
+    // Вставка, только если автора ещё нет, и чтение строки по уникальному ключу (first_name, last_name).
+    // Существующий автор только читается: без записи мимо версии и без блокировки строки.
+    // Если того же автора одновременно вставляет другая транзакция, уникальный индекс дожидается её фиксации
+    // и отвечает DuplicateKeyException - тогда остаётся прочитать её строку
+    @Override
+    public Author findOrCreate(String firstName, String lastName) {
+        String sql = """
+            INSERT INTO author (first_name, last_name) 
+            SELECT :first_name, :last_name 
+            WHERE NOT EXISTS (SELECT 1 FROM author WHERE first_name = :first_name AND last_name = :last_name)
+            """;
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("first_name", firstName);
+        params.addValue("last_name", lastName);
+
+        try {
+            jdbcTemplate.update(sql, params);
+        } catch (DuplicateKeyException e) {
+            // автора только что вставила параллельная транзакция
+        }
+        return findByFullName(firstName, lastName).orElseThrow(() -> new IllegalStateException(
+                "Author " + firstName + " " + lastName + " not found after insert"));
+    }
+
+    @Override
+    public List<Author> findAllByIds(Collection<Long> ids) {
+        String sql = """
+            SELECT a.id, a.last_name, a.first_name, a.age, a.version 
+            FROM UNNEST(:ids) AS ids(id)
+            JOIN author a ON a.id = ids.id
+            """;
+
+        return IdBatchQuery.query(jdbcTemplate, sql, ids, new AuthorRowMapper(), Author::getId);
+    }
+}
@@ -0,0 +1,207 @@
+package ru.diasoft.spring.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.StorageDao;
+import ru.diasoft.spring.dao.impl.entity.AuthorEntity;
+import ru.diasoft.spring.domain.Author;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// JPA-реализация AuthorDao для профиля jpa. Контракт тот же, что у AuthorDaoJdbc: доменные объекты на входе
+// и выходе, OptimisticLockingFailureException при устаревшей версии прямо в update, а не на commit
+@Repository
+@Profile("jpa")
+@StorageDao
+@RequiredArgsConstructor
+public class AuthorDaoJpa implements AuthorDao {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Author> findAll() {
+        return JpaSupport.readOnly(entityManager.createQuery(
+                "SELECT a FROM AuthorEntity a ORDER BY a.lastName, a.firstName", AuthorEntity.class))
+                .getResultList()
+                .stream()
+                .map(EntityMapper::toAuthor)
+                .toList();
+    }
+
+    @Override
+    public Optional<Author> findById(Long id) {
+        return Optional.ofNullable(entityManager.find(AuthorEntity.class, id)).map(EntityMapper::toAuthor);
+    }
+
+    @Override
+    public Author save(Author author) {
+        if (author.getId() == null) {
+            return insert(author);
+        } else {
+            update(author);
+            return author;
+        }
+    }
+
+    private Author insert(Author author) {
+        AuthorEntity entity = toEntity(author);
+        entityManager.persist(entity);
+        author.setId(entity.getId());
+        author.setVersion(entity.getVersion());
+        return author;
+    }
+
+    // Версия сверяется сразу, а flush отправляет UPDATE ... WHERE version = ? до выхода из метода:
+    // гонку с другой транзакцией Hibernate тоже превращает в OptimisticLockingFailureException.
+    // Если поля не изменились, Hibernate ничего не пишет и версия остаётся прежней
+    @Override
+    public void update(Author author) {
+        if (author.getVersion() == null) {
+            throw new IllegalArgumentException("Author must have a version to be updated");
+        }
+        AuthorEntity entity = entityManager.find(AuthorEntity.class, author.getId());
+        if (entity == null || !entity.getVersion().equals(author.getVersion())) {
+            throw new OptimisticLockingFailureException("Author " + author.getId()
+                    + " was changed or deleted by another transaction, version " + author.getVersion() + " is stale");
+        }
+        entity.setLastName(author.getLastName());
+        entity.setFirstName(author.getFirstName());
+        entity.setAge(author.getAge());
+        entityManager.flush();
+        author.setVersion(entity.getVersion());
+    }
+
+    // flush сразу: нарушение внешнего ключа (у автора есть книги) всплывает здесь, как у JDBC-реализации
+    @Override
+    public void deleteById(Long id) {
+        AuthorEntity entity = entityManager.find(AuthorEntity.class, id);
+        if (entity != null) {
+            entityManager.remove(entity);
+            entityManager.flush();
+        }
+    }
+
+    @Override
+    public Optional<Author> findByFullName(String firstName, String lastName) {
+        return entityManager.createQuery("""
+                SELECT a FROM AuthorEntity a 
+                WHERE a.firstName = :firstName AND a.lastName = :lastName
+                """, AuthorEntity.class)
+                .setParameter("firstName", firstName)
+                .setParameter("lastName", lastName)
+                .getResultList()
+                .stream()
+                .findFirst()
+                .map(EntityMapper::toAuthor);
+    }
+
+    // Та же keyset-пагинация, что и в AuthorDaoJdbc
+    @Override
+    public List<Author> findPage(String afterLastName, String afterFirstName, Long afterId, int limit) {
+        TypedQuery<AuthorEntity> query;
+        if (afterId == null) {
+            query = entityManager.createQuery(
+                    "SELECT a FROM AuthorEntity a ORDER BY a.lastName, a.firstName, a.id", AuthorEntity.class);
+        } else {
+            query = entityManager.createQuery("""
+                    SELECT a FROM AuthorEntity a 
+                    WHERE a.lastName >= :lastName 
+                      AND (a.lastName > :lastName 
+                           OR a.firstName > :firstName 
+                           OR (a.firstName = :firstName AND a.id > :id)) 
+                    ORDER BY a.lastName, a.firstName, a.id
+                    """, AuthorEntity.class)
+                    .setParameter("lastName", afterLastName)
+                    .setParameter("firstName", afterFirstName)
+                    .setParameter("id", afterId);
+        }
+        return JpaSupport.readOnly(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(EntityMapper::toAuthor)
+                .toList();
+    }
+
+    @Override
+    public long estimateCount() {
+        return TableStatistics.estimateRowCount(entityManager, "AUTHOR");
+    }
+
+    // JPQL не умеет IN по парам, поэтому выборка идёт по фамилиям (idx_author_last_first_name),
+    // а точные пары (имя, фамилия) отбираются здесь
+    @Override
+    public List<Author> findByFullNames(Collection<Author> authors) {
+        if (authors.isEmpty()) {
+            return List.of();
+        }
+        Set<String> fullNames = authors.stream()
+                .map(author -> fullName(author.getFirstName(), author.getLastName()))
+                .collect(Collectors.toSet());
+        List<String> lastNames = authors.stream().map(Author::getLastName).distinct().toList();
+
+        return JpaSupport.readOnly(entityManager.createQuery(
+                "SELECT a FROM AuthorEntity a WHERE a.lastName IN :lastNames", AuthorEntity.class))
+                .setParameter("lastNames", lastNames)
+                .getResultList()
+                .stream()
+                .filter(entity -> fullNames.contains(fullName(entity.getFirstName(), entity.getLastName())))
+                .map(EntityMapper::toAuthor)
+                .toList();
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        return firstName + '\u0000' + lastName;
+    }
+
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        return JpaSupport.persistAll(entityManager, authors, AuthorDaoJpa::toEntity, (author, entity) -> {
+            author.setId(entity.getId());
+            author.setVersion(entity.getVersion());
+        });
+    }
+
+    // Как в AuthorDaoJdbc: вставка, только если автора нет, затем чтение по уникальному ключу.
+    // В JPQL нет вставки-если-нет, поэтому INSERT нативный; контекст персистентности о нём не знает,
+    // и строка читается в сущность запросом
+    @Override
+    public Author findOrCreate(String firstName, String lastName) {
+        JpaSupport.insertIfAbsent(entityManager, """
+                INSERT INTO author (first_name, last_name) 
+                SELECT ?, ? 
+                WHERE NOT EXISTS (SELECT 1 FROM author WHERE first_name = ? AND last_name = ?)
+                """, firstName, lastName, firstName, lastName);
+        return findByFullName(firstName, lastName).orElseThrow(() -> new IllegalStateException(
+                "Author " + firstName + " " + lastName + " not found after insert"));
+    }
+
+    @Override
+    public List<Author> findAllByIds(Collection<Long> ids) {
+        return IdBatchQuery.query(ids, JpaSupport.ID_CHUNK_SIZE, chunk -> JpaSupport.readOnly(entityManager
+                        .createQuery("SELECT a FROM AuthorEntity a WHERE a.id IN :ids", AuthorEntity.class))
+                .setParameter("ids", Arrays.asList(chunk))
+                .getResultList()
+                .stream()
+                .map(EntityMapper::toAuthor)
+                .toList(), Author::getId);
+    }
+
+    private static AuthorEntity toEntity(Author author) {
+        AuthorEntity entity = new AuthorEntity();
+        entity.setLastName(author.getLastName());
+        entity.setFirstName(author.getFirstName());
+        entity.setAge(author.getAge());
+        return entity;
+    }
+}
@@ -1,58 +1,129 @@
 package ru.diasoft.spring.dao.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
-import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.config.StreamingProperties;
 import ru.diasoft.spring.dao.BookDao;
-import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.dao.StorageDao;
 import ru.diasoft.spring.domain.Author;
 import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
 import ru.diasoft.spring.domain.Genre;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@Profile("!jpa")
+@StorageDao
 @RequiredArgsConstructor
 public class BookDaoJdbc implements BookDao {
 
     private final NamedParameterJdbcTemplate jdbcTemplate;
-    private final AuthorDao authorDao;
-    private final GenreDao genreDao;
+    private final StreamingProperties streamingProperties;
 
-    private class BookRowMapper implements RowMapper<Book> {
-        @Override
-        public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Long authorId = rs.getLong("author_id");
-            Long genreId = rs.getLong("genre_id");
+    // Author и Genre собираются из колонок JOIN-а, без дополнительных запросов.
+    // Маппер создаётся на каждый запрос, поэтому одинаковые автор и жанр в выборке - один объект.
+    // Для потоков карты не ведутся: они росли бы вместе с курсором, и память зависела бы от числа авторов
+    static class BookRowMapper implements RowMapper<Book> {
+
+        static final BookRowMapper STREAMING = new BookRowMapper(false);
+
+        private final Map<Long, Author> authors;
+        private final Map<Long, Genre> genres;
+
+        BookRowMapper() {
+            this(true);
+        }
 
-            // Получаем Author и Genre через DAO
-            Author author = authorId != 0 ? authorDao.findById(authorId).orElse(null) : null;
-            Genre genre = genreId != 0 ? genreDao.findById(genreId).orElse(null) : null;
+        private BookRowMapper(boolean shareReferences) {
+            this.authors = shareReferences ? new HashMap<>() : null;
+            this.genres = shareReferences ? new HashMap<>() : null;
+        }
 
+        @Override
+        public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
             return new Book(
                     rs.getLong("id"),
                     rs.getString("title"),
-                    author,
-                    genre
+                    mapAuthor(rs),
+                    mapGenre(rs),
+                    rs.getLong("version")
             );
         }
+
+        private Author mapAuthor(ResultSet rs) throws SQLException {
+            long authorId = rs.getLong("author_id");
+            if (rs.wasNull()) {
+                return null;
+            }
+            Author author = authors != null ? authors.get(authorId) : null;
+            if (author == null) {
+                Integer age = rs.getInt("author_age");
+                if (rs.wasNull()) {
+                    age = null;
+                }
+                author = new Author(
+                        authorId,
+                        rs.getString("author_last_name"),
+                        rs.getString("author_first_name"),
+                        age,
+                        rs.getLong("author_version")
+                );
+                if (authors != null) {
+                    authors.put(authorId, author);
+                }
+            }
+            return author;
+        }
+
+        private Genre mapGenre(ResultSet rs) throws SQLException {
+            long genreId = rs.getLong("genre_id");
+            if (rs.wasNull()) {
+                return null;
+            }
+            Genre genre = genres != null ? genres.get(genreId) : null;
+            if (genre == null) {
+                genre = new Genre(genreId, rs.getString("genre_name"), rs.getLong("genre_version"));
+                if (genres != null) {
+                    genres.put(genreId, genre);
+                }
+            }
+            return genre;
+        }
     }
 
+    // Плоская строка без промежуточных объектов: маппер без состояния, один на все запросы
+    static final RowMapper<BookSummary> SUMMARY_ROW_MAPPER = (rs, rowNum) -> new BookSummary(
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("author_first_name"),
+            rs.getString("author_last_name"),
+            rs.getString("genre_name")
+    );
+
     @Override
     public List<Book> findAll() {
         String sql = """
-            SELECT b.id, b.title, b.author_id, b.genre_id, 
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
                    a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
-                   g.name as genre_name
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
             FROM book b
             LEFT JOIN author a ON b.author_id = a.id
             LEFT JOIN genre g ON b.genre_id = g.id
@@ -65,9 +136,10 @@ public class BookDaoJdbc implements BookDao {
     @Override
     public Optional<Book> findById(Long id) {
         String sql = """
-            SELECT b.id, b.title, b.author_id, b.genre_id, 
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
                    a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
-                   g.name as genre_name
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
             FROM book b
             LEFT JOIN author a ON b.author_id = a.id
             LEFT JOIN genre g ON b.genre_id = g.id
@@ -119,6 +191,7 @@ public class BookDaoJdbc implements BookDao {
         jdbcTemplate.update(sql, params, keyHolder, new String[]{"id"});
 
         book.setId(keyHolder.getKey().longValue());
+        book.setVersion(0L);
         return book;
     }
 
@@ -132,10 +205,15 @@ public class BookDaoJdbc implements BookDao {
             throw new IllegalArgumentException("Book must have a genre with ID");
         }
 
+        if (book.getVersion() == null) {
+            throw new IllegalArgumentException("Book must have a version to be updated");
+        }
+
+        // Оптимистическая блокировка: запись проходит, только если книгу никто не изменил после чтения
         String sql = """
             UPDATE book 
-            SET title = :title, author_id = :author_id, genre_id = :genre_id 
-            WHERE id = :id
+            SET title = :title, author_id = :author_id, genre_id = :genre_id, version = version + 1 
+            WHERE id = :id AND version = :version
             """;
 
         MapSqlParameterSource params = new MapSqlParameterSource();
@@ -143,8 +221,13 @@ public class BookDaoJdbc implements BookDao {
         params.addValue("author_id", book.getAuthor().getId());
         params.addValue("genre_id", book.getGenre().getId());
         params.addValue("id", book.getId());
+        params.addValue("version", book.getVersion());
 
-        jdbcTemplate.update(sql, params);
+        if (jdbcTemplate.update(sql, params) == 0) {
+            throw new OptimisticLockingFailureException("Book " + book.getId()
+                    + " was changed or deleted by another transaction, version " + book.getVersion() + " is stale");
+        }
+        book.setVersion(book.getVersion() + 1);
     }
 
     @Override
@@ -156,29 +239,47 @@ public class BookDaoJdbc implements BookDao {
     @Override
     public List<Book> findByTitle(String title) {
         String sql = """
-            SELECT b.id, b.title, b.author_id, b.genre_id, 
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
                    a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
-                   g.name as genre_name
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
             FROM book b
             LEFT JOIN author a ON b.author_id = a.id
             LEFT JOIN genre g ON b.genre_id = g.id
-            WHERE LOWER(b.title) LIKE LOWER(:title_pattern)
+            WHERE b.title_lower LIKE LOWER(:title_pattern) ESCAPE '\\'
             ORDER BY b.title
             """;
 
         return jdbcTemplate.query(
                 sql,
-                Map.of("title_pattern", "%" + title + "%"),
+                Map.of("title_pattern", LikePatterns.containing(title)),
                 new BookRowMapper()
         );
     }
 
+    @Override
+    public List<BookSummary> findSummariesByTitle(String title) {
+        String sql = """
+            SELECT b.id, b.title, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, 
+                   g.name as genre_name
+            FROM book b
+            LEFT JOIN author a ON b.author_id = a.id
+            LEFT JOIN genre g ON b.genre_id = g.id
+            WHERE b.title_lower LIKE LOWER(:title_pattern) ESCAPE '\\'
+            ORDER BY b.title
+            """;
+
+        return jdbcTemplate.query(sql, Map.of("title_pattern", LikePatterns.containing(title)), SUMMARY_ROW_MAPPER);
+    }
+
     @Override
     public List<Book> findByAuthorId(Long authorId) {
         String sql = """
-            SELECT b.id, b.title, b.author_id, b.genre_id, 
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
                    a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
-                   g.name as genre_name
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
             FROM book b
             LEFT JOIN author a ON b.author_id = a.id
             LEFT JOIN genre g ON b.genre_id = g.id
@@ -196,9 +297,10 @@ public class BookDaoJdbc implements BookDao {
     @Override
     public List<Book> findByGenreId(Long genreId) {
         String sql = """
-            SELECT b.id, b.title, b.author_id, b.genre_id, 
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
                    a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
-                   g.name as genre_name
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
             FROM book b
             LEFT JOIN author a ON b.author_id = a.id
             LEFT JOIN genre g ON b.genre_id = g.id
@@ -212,4 +314,287 @@ public class BookDaoJdbc implements BookDao {
                 new BookRowMapper()
         );
     }
-}
\ No newline at end of file
+
+    // Keyset-пагинация: страница начинается после последней увиденной пары (title, id).
+    // Условие title >= :after_title даёт H2 диапазон по idx_book_title, а не проход индекса с начала
+    @Override
+    public List<Book> findPage(String afterTitle, Long afterId, int limit) {
+        if (afterId == null) {
+            String sql = """
+                SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
+                       a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
+                       a.version as author_version,
+                       g.name as genre_name, g.version as genre_version
+                FROM book b
+                LEFT JOIN author a ON b.author_id = a.id
+                LEFT JOIN genre g ON b.genre_id = g.id
+                ORDER BY b.title, b.id
+                LIMIT :limit
+                """;
+
+            return jdbcTemplate.query(sql, Map.of("limit", limit), new BookRowMapper());
+        }
+
+        String sql = """
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
+            FROM book b
+            LEFT JOIN author a ON b.author_id = a.id
+            LEFT JOIN genre g ON b.genre_id = g.id
+            WHERE b.title >= :after_title
+              AND (b.title > :after_title OR b.id > :after_id)
+            ORDER BY b.title, b.id
+            LIMIT :limit
+            """;
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("after_title", afterTitle);
+        params.addValue("after_id", afterId);
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql, params, new BookRowMapper());
+    }
+
+    // Та же keyset-пагинация, что и findPage
+    @Override
+    public List<BookSummary> findSummaryPage(String afterTitle, Long afterId, int limit) {
+        if (afterId == null) {
+            String sql = """
+                SELECT b.id, b.title, 
+                       a.first_name as author_first_name, a.last_name as author_last_name, 
+                       g.name as genre_name
+                FROM book b
+                LEFT JOIN author a ON b.author_id = a.id
+                LEFT JOIN genre g ON b.genre_id = g.id
+                ORDER BY b.title, b.id
+                LIMIT :limit
+                """;
+
+            return jdbcTemplate.query(sql, Map.of("limit", limit), SUMMARY_ROW_MAPPER);
+        }
+
+        String sql = """
+            SELECT b.id, b.title, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, 
+                   g.name as genre_name
+            FROM book b
+            LEFT JOIN author a ON b.author_id = a.id
+            LEFT JOIN genre g ON b.genre_id = g.id
+            WHERE b.title >= :after_title
+              AND (b.title > :after_title OR b.id > :after_id)
+            ORDER BY b.title, b.id
+            LIMIT :limit
+            """;
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("after_title", afterTitle);
+        params.addValue("after_id", afterId);
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql, params, SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public long estimateCount() {
+        return TableStatistics.estimateRowCount(jdbcTemplate, "BOOK");
+    }
+
+    // Строки читаются курсором по мере потребления, без сборки всего каталога в памяти.
+    // Сортировка по первичному ключу не требует сортировки результата и позволяет H2 отдавать строки лениво.
+    @Override
+    public Stream<Book> streamAll() {
+        String sql = """
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
+            FROM book b
+            LEFT JOIN author a ON b.author_id = a.id
+            LEFT JOIN genre g ON b.genre_id = g.id
+            ORDER BY b.id
+            """;
+
+        return stream(sql, BookRowMapper.STREAMING);
+    }
+
+    @Override
+    public Stream<BookSummary> streamAllSummaries() {
+        String sql = """
+            SELECT b.id, b.title, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, 
+                   g.name as genre_name
+            FROM book b
+            LEFT JOIN author a ON b.author_id = a.id
+            LEFT JOIN genre g ON b.genre_id = g.id
+            ORDER BY b.id
+            """;
+
+        return stream(sql, SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public Stream<BookSummary> streamSummariesByGenreId(Long genreId) {
+        if (genreId == null) {
+            String sql = """
+                SELECT b.id, b.title, 
+                       a.first_name as author_first_name, a.last_name as author_last_name, 
+                       NULL as genre_name
+                FROM book b
+                LEFT JOIN author a ON b.author_id = a.id
+                WHERE b.genre_id IS NULL
+                ORDER BY b.id
+                """;
+
+            return stream(sql, SUMMARY_ROW_MAPPER);
+        }
+
+        String sql = """
+            SELECT b.id, b.title, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, 
+                   g.name as genre_name
+            FROM book b
+            LEFT JOIN author a ON b.author_id = a.id
+            JOIN genre g ON b.genre_id = g.id
+            WHERE b.genre_id = ?
+            ORDER BY b.id
+            """;
+
+        return stream(sql, SUMMARY_ROW_MAPPER, genreId);
+    }
+
+    private <T> Stream<T> stream(String sql, RowMapper<T> rowMapper, Object... args) {
+        PreparedStatementCreator statementCreator = connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamingProperties.getFetchSize());
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        };
+
+        return jdbcTemplate.getJdbcOperations().queryForStream(statementCreator, rowMapper);
+    }
+
+    // Все книги вставляются одним JDBC batch-ем, автор и жанр уже должны иметь id
+    @Override
+    public List<Book> saveAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return books;
+        }
+        for (Book book : books) {
+            if (book.getAuthor() == null || book.getAuthor().getId() == null) {
+                throw new IllegalArgumentException("Book must have an author with ID");
+            }
+            if (book.getGenre() == null || book.getGenre().getId() == null) {
+                throw new IllegalArgumentException("Book must have a genre with ID");
+            }
+        }
+
+        String sql = """
+            INSERT INTO book (title, author_id, genre_id) 
+            VALUES (:title, :author_id, :genre_id)
+            """;
+
+        MapSqlParameterSource[] batch = books.stream()
+                .map(book -> new MapSqlParameterSource()
+                        .addValue("title", book.getTitle())
+                        .addValue("author_id", book.getAuthor().getId())
+                        .addValue("genre_id", book.getGenre().getId()))
+                .toArray(MapSqlParameterSource[]::new);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(sql, batch, keyHolder, new String[]{"id"});
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < books.size(); i++) {
+            books.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+            books.get(i).setVersion(0L);
+        }
+        return books;
+    }
+
+    @Override
+    public List<Book> findAllByIds(Collection<Long> ids) {
+        String sql = """
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
+            FROM UNNEST(:ids) AS ids(id)
+            JOIN book b ON b.id = ids.id
+            LEFT JOIN author a ON b.author_id = a.id
+            LEFT JOIN genre g ON b.genre_id = g.id
+            """;
+
+        return IdBatchQuery.query(jdbcTemplate, sql, ids, new BookRowMapper(), Book::getId);
+    }
+
+    @Override
+    public List<BookSummary> findSummariesByIds(Collection<Long> ids) {
+        String sql = """
+            SELECT b.id, b.title, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, 
+                   g.name as genre_name
+            FROM UNNEST(:ids) AS ids(id)
+            JOIN book b ON b.id = ids.id
+            LEFT JOIN author a ON b.author_id = a.id
+            LEFT JOIN genre g ON b.genre_id = g.id
+            """;
+
+        return IdBatchQuery.query(jdbcTemplate, sql, ids, SUMMARY_ROW_MAPPER, BookSummary::id);
+    }
+
+    // Полнотекстовый индекс H2 (FT_SEARCH_DATA) находит книги по словам названия и по автору.
+    // Встроенный индекс не ранжирует (SCORE всегда 1), поэтому релевантность считается здесь:
+    // совпадение в названии весомее совпадения по автору, при равенстве выше более короткое название.
+    // Производные таблицы вместо WITH: H2 теряет параметр в CTE, на который ссылается другой CTE
+    static final String FULL_TEXT_RANKED = """
+            FROM (
+                SELECT book_id, SUM(score) AS score
+                FROM (
+                    SELECT CAST(f.KEYS[1] AS BIGINT) AS book_id, 2 AS score
+                    FROM FT_SEARCH_DATA(:query, 0, 0) f
+                    WHERE f."TABLE" = 'BOOK'
+                    UNION ALL
+                    SELECT ab.id AS book_id, 1 AS score
+                    FROM FT_SEARCH_DATA(:query, 0, 0) f
+                    JOIN book ab ON ab.author_id = CAST(f.KEYS[1] AS BIGINT)
+                    WHERE f."TABLE" = 'AUTHOR'
+                ) matched
+                GROUP BY book_id
+            ) r
+            JOIN book b ON b.id = r.book_id
+            LEFT JOIN author a ON b.author_id = a.id
+            LEFT JOIN genre g ON b.genre_id = g.id
+            ORDER BY r.score DESC, CHAR_LENGTH(b.title), b.title, b.id
+            LIMIT :limit
+            """;
+
+    @Override
+    public List<Book> searchFullText(String query, int limit) {
+        String sql = """
+            SELECT b.id, b.title, b.version, b.author_id, b.genre_id, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, a.age as author_age,
+                   a.version as author_version,
+                   g.name as genre_name, g.version as genre_version
+            """ + FULL_TEXT_RANKED;
+
+        Map<String, Object> params = Map.of("query", query, "limit", limit);
+        return jdbcTemplate.query(sql, params, new BookRowMapper());
+    }
+
+    @Override
+    public List<BookSummary> searchFullTextSummaries(String query, int limit) {
+        String sql = """
+            SELECT b.id, b.title, 
+                   a.first_name as author_first_name, a.last_name as author_last_name, 
+                   g.name as genre_name
+            """ + FULL_TEXT_RANKED;
+
+        Map<String, Object> params = Map.of("query", query, "limit", limit);
+        return jdbcTemplate.query(sql, params, SUMMARY_ROW_MAPPER);
+    }
+}
@@ -0,0 +1,299 @@
+package ru.diasoft.spring.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Repository;
+import ru.diasoft.spring.config.StreamingProperties;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.StorageDao;
+import ru.diasoft.spring.dao.impl.entity.AuthorEntity;
+import ru.diasoft.spring.dao.impl.entity.BookEntity;
+import ru.diasoft.spring.dao.impl.entity.GenreEntity;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// JPA-реализация BookDao для профиля jpa. Книга приходит одним запросом вместе с автором и жанром (JOIN FETCH),
+// проекции BookSummary и потоки читают колонки без сущностей
+@Repository
+@Profile("jpa")
+@StorageDao
+@RequiredArgsConstructor
+public class BookDaoJpa implements BookDao {
+
+    private static final String BOOKS = """
+            SELECT b FROM BookEntity b 
+            LEFT JOIN FETCH b.author 
+            LEFT JOIN FETCH b.genre 
+            """;
+
+    private static final String SUMMARIES = """
+            SELECT new ru.diasoft.spring.domain.BookSummary(b.id, b.title, a.firstName, a.lastName, g.name) 
+            FROM BookEntity b 
+            LEFT JOIN b.author a 
+            LEFT JOIN b.genre g 
+            """;
+
+    // Порядок колонок разбирает EntityMapper.book(Object[])
+    private static final String BOOK_COLUMNS = """
+            SELECT b.id, b.title, b.version, 
+                   a.id, a.lastName, a.firstName, a.age, a.version, 
+                   g.id, g.name, g.version 
+            FROM BookEntity b 
+            LEFT JOIN b.author a 
+            LEFT JOIN b.genre g 
+            """;
+
+    private final EntityManager entityManager;
+    private final StreamingProperties streamingProperties;
+
+    @Override
+    public List<Book> findAll() {
+        return books(entityManager.createQuery(BOOKS + "ORDER BY b.title", BookEntity.class));
+    }
+
+    // JOIN FETCH по id, а не find с графом сущности (fetchgraph): план JPQL-запроса Hibernate кэширует,
+    // а загрузку по графу собирает заново на каждый вызов - в DaoEngineBenchmark втрое медленнее и втрое больше памяти
+    @Override
+    public Optional<Book> findById(Long id) {
+        return books(entityManager.createQuery(BOOKS + "WHERE b.id = :id", BookEntity.class)
+                .setParameter("id", id))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public Book save(Book book) {
+        if (book.getId() == null) {
+            return insert(book);
+        } else {
+            update(book);
+            return book;
+        }
+    }
+
+    private Book insert(Book book) {
+        checkReferences(book);
+        BookEntity entity = toEntity(book);
+        entityManager.persist(entity);
+        book.setId(entity.getId());
+        book.setVersion(entity.getVersion());
+        return book;
+    }
+
+    // Автор и жанр ставятся ссылками getReference, без чтения их строк.
+    // Как в AuthorDaoJpa: версия сверяется сразу, flush отправляет UPDATE ... WHERE version = ? до выхода из метода
+    @Override
+    public void update(Book book) {
+        checkReferences(book);
+        if (book.getVersion() == null) {
+            throw new IllegalArgumentException("Book must have a version to be updated");
+        }
+        BookEntity entity = entityManager.find(BookEntity.class, book.getId());
+        if (entity == null || !entity.getVersion().equals(book.getVersion())) {
+            throw new OptimisticLockingFailureException("Book " + book.getId()
+                    + " was changed or deleted by another transaction, version " + book.getVersion() + " is stale");
+        }
+        entity.setTitle(book.getTitle());
+        entity.setAuthor(entityManager.getReference(AuthorEntity.class, book.getAuthor().getId()));
+        entity.setGenre(entityManager.getReference(GenreEntity.class, book.getGenre().getId()));
+        entityManager.flush();
+        book.setVersion(entity.getVersion());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        BookEntity entity = entityManager.find(BookEntity.class, id);
+        if (entity != null) {
+            entityManager.remove(entity);
+            entityManager.flush();
+        }
+    }
+
+    @Override
+    public List<Book> findByTitle(String title) {
+        return books(entityManager.createQuery(
+                        BOOKS + "WHERE b.titleLower LIKE LOWER(:pattern) ESCAPE '\\' ORDER BY b.title", BookEntity.class)
+                .setParameter("pattern", LikePatterns.containing(title)));
+    }
+
+    @Override
+    public List<BookSummary> findSummariesByTitle(String title) {
+        return JpaSupport.readOnly(entityManager.createQuery(
+                        SUMMARIES + "WHERE b.titleLower LIKE LOWER(:pattern) ESCAPE '\\' ORDER BY b.title", BookSummary.class))
+                .setParameter("pattern", LikePatterns.containing(title))
+                .getResultList();
+    }
+
+    // Фильтр по BookEntity.authorId, а не по b.author.id - см. комментарий в BookEntity
+    @Override
+    public List<Book> findByAuthorId(Long authorId) {
+        return books(entityManager.createQuery(BOOKS + "WHERE b.authorId = :authorId ORDER BY b.title",
+                        BookEntity.class)
+                .setParameter("authorId", authorId));
+    }
+
+    @Override
+    public List<Book> findByGenreId(Long genreId) {
+        return books(entityManager.createQuery(BOOKS + "WHERE b.genreId = :genreId ORDER BY b.title",
+                        BookEntity.class)
+                .setParameter("genreId", genreId));
+    }
+
+    // Та же keyset-пагинация, что и в BookDaoJdbc. JOIN FETCH здесь только по ссылкам "многие к одному",
+    // поэтому setMaxResults уходит в LIMIT запроса, а не применяется к результату в памяти
+    @Override
+    public List<Book> findPage(String afterTitle, Long afterId, int limit) {
+        return books(page(BOOKS, BookEntity.class, afterTitle, afterId, limit));
+    }
+
+    @Override
+    public List<BookSummary> findSummaryPage(String afterTitle, Long afterId, int limit) {
+        return JpaSupport.readOnly(page(SUMMARIES, BookSummary.class, afterTitle, afterId, limit)).getResultList();
+    }
+
+    private <T> TypedQuery<T> page(String select, Class<T> type, String afterTitle, Long afterId, int limit) {
+        TypedQuery<T> query;
+        if (afterId == null) {
+            query = entityManager.createQuery(select + "ORDER BY b.title, b.id", type);
+        } else {
+            query = entityManager.createQuery(select + """
+                    WHERE b.title >= :afterTitle 
+                      AND (b.title > :afterTitle OR b.id > :afterId) 
+                    ORDER BY b.title, b.id
+                    """, type)
+                    .setParameter("afterTitle", afterTitle)
+                    .setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit);
+    }
+
+    @Override
+    public long estimateCount() {
+        return TableStatistics.estimateRowCount(entityManager, "BOOK");
+    }
+
+    // Колонки вместо сущностей: контекст персистентности не копит прочитанные книги,
+    // а строки маппятся без карт авторов и жанров, так что память не зависит от размера каталога
+    @Override
+    public Stream<Book> streamAll() {
+        return stream(em -> em.createQuery(BOOK_COLUMNS + "ORDER BY b.id", Object[].class))
+                .map(EntityMapper::streamedBook);
+    }
+
+    @Override
+    public Stream<BookSummary> streamAllSummaries() {
+        return stream(em -> em.createQuery(SUMMARIES + "ORDER BY b.id", BookSummary.class));
+    }
+
+    @Override
+    public Stream<BookSummary> streamSummariesByGenreId(Long genreId) {
+        if (genreId == null) {
+            return stream(em -> em.createQuery(SUMMARIES + "WHERE b.genre IS NULL ORDER BY b.id", BookSummary.class));
+        }
+        return stream(em -> em.createQuery(SUMMARIES + "WHERE b.genreId = :genreId ORDER BY b.id", BookSummary.class)
+                .setParameter("genreId", genreId));
+    }
+
+    // Общий EntityManager вне транзакции закрывается сразу после getResultStream, и поток читал бы из закрытой сессии.
+    // Поэтому внутри транзакции поток идёт через её EntityManager, а вне её - через собственный,
+    // который закрывается вместе с потоком и до этого держит соединение, как и JDBC-реализация
+    private <T> Stream<T> stream(Function<EntityManager, TypedQuery<T>> query) {
+        EntityManagerFactory factory = entityManager.getEntityManagerFactory();
+        EntityManager transactional = EntityManagerFactoryUtils.getTransactionalEntityManager(factory);
+        if (transactional != null) {
+            return streamQuery(query.apply(transactional));
+        }
+        EntityManager own = factory.createEntityManager();
+        try {
+            return streamQuery(query.apply(own)).onClose(own::close);
+        } catch (RuntimeException e) {
+            own.close();
+            throw e;
+        }
+    }
+
+    private <T> Stream<T> streamQuery(TypedQuery<T> query) {
+        return JpaSupport.readOnly(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamingProperties.getFetchSize())
+                .getResultStream();
+    }
+
+    @Override
+    public List<Book> saveAll(List<Book> books) {
+        books.forEach(BookDaoJpa::checkReferences);
+        return JpaSupport.persistAll(entityManager, books, this::toEntity, (book, entity) -> {
+            book.setId(entity.getId());
+            book.setVersion(entity.getVersion());
+        });
+    }
+
+    @Override
+    public List<Book> findAllByIds(Collection<Long> ids) {
+        return IdBatchQuery.query(ids, JpaSupport.ID_CHUNK_SIZE, chunk -> books(entityManager.createQuery(
+                        BOOKS + "WHERE b.id IN :ids", BookEntity.class)
+                .setParameter("ids", Arrays.asList(chunk))), Book::getId);
+    }
+
+    @Override
+    public List<BookSummary> findSummariesByIds(Collection<Long> ids) {
+        return IdBatchQuery.query(ids, JpaSupport.ID_CHUNK_SIZE, chunk -> JpaSupport.readOnly(entityManager.createQuery(
+                        SUMMARIES + "WHERE b.id IN :ids", BookSummary.class))
+                .setParameter("ids", Arrays.asList(chunk))
+                .getResultList(), BookSummary::id);
+    }
+
+    // Ранжирование по FT_SEARCH_DATA в JPQL не выразить: нативный запрос BookDaoJdbc отдаёт id в порядке
+    // релевантности, книги по ним дочитываются вторым запросом
+    @Override
+    public List<Book> searchFullText(String query, int limit) {
+        return findAllByIds(searchFullTextIds(query, limit));
+    }
+
+    @Override
+    public List<BookSummary> searchFullTextSummaries(String query, int limit) {
+        return findSummariesByIds(searchFullTextIds(query, limit));
+    }
+
+    private List<Long> searchFullTextIds(String query, int limit) {
+        List<?> ids = entityManager.createNativeQuery("SELECT b.id " + BookDaoJdbc.FULL_TEXT_RANKED)
+                .setParameter("query", query)
+                .setParameter("limit", limit)
+                .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    private List<Book> books(TypedQuery<BookEntity> query) {
+        EntityMapper mapper = new EntityMapper();
+        return JpaSupport.readOnly(query).getResultList().stream().map(mapper::book).toList();
+    }
+
+    private BookEntity toEntity(Book book) {
+        BookEntity entity = new BookEntity();
+        entity.setTitle(book.getTitle());
+        entity.setAuthor(entityManager.getReference(AuthorEntity.class, book.getAuthor().getId()));
+        entity.setGenre(entityManager.getReference(GenreEntity.class, book.getGenre().getId()));
+        return entity;
+    }
+
+    private static void checkReferences(Book book) {
+        if (book.getAuthor() == null || book.getAuthor().getId() == null) {
+            throw new IllegalArgumentException("Book must have an author with ID");
+        }
+        if (book.getGenre() == null || book.getGenre().getId() == null) {
+            throw new IllegalArgumentException("Book must have a genre with ID");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.diasoft.spring.dao.impl;
+
+import ru.diasoft.spring.dao.impl.entity.AuthorEntity;
+import ru.diasoft.spring.dao.impl.entity.BookEntity;
+import ru.diasoft.spring.dao.impl.entity.GenreEntity;
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.Genre;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Сущности JPA не выходят за пределы DAO: наружу отдаются те же доменные объекты, что и у JDBC-реализаций.
+// Как и BookRowMapper, создаётся на каждый запрос: одинаковые автор и жанр в выборке - один объект
+final class EntityMapper {
+
+    private final Map<Long, Author> authors = new HashMap<>();
+    private final Map<Long, Genre> genres = new HashMap<>();
+
+    Book book(BookEntity entity) {
+        return new Book(entity.getId(), entity.getTitle(), author(entity.getAuthor()), genre(entity.getGenre()),
+                entity.getVersion());
+    }
+
+    // Строка проекции BookDaoJpa.BOOK_COLUMNS: книга, автор и жанр без сущностей в контексте персистентности
+    Book book(Object[] row) {
+        Author author = row[3] == null ? null : authors.computeIfAbsent((Long) row[3], id -> rowAuthor(row));
+        Genre genre = row[8] == null ? null : genres.computeIfAbsent((Long) row[8], id -> rowGenre(row));
+        return new Book((Long) row[0], (String) row[1], author, genre, (Long) row[2]);
+    }
+
+    // Для потоков: без карт, которые росли бы вместе с курсором на каждого нового автора и жанр
+    static Book streamedBook(Object[] row) {
+        return new Book((Long) row[0], (String) row[1], row[3] == null ? null : rowAuthor(row),
+                row[8] == null ? null : rowGenre(row), (Long) row[2]);
+    }
+
+    private static Author rowAuthor(Object[] row) {
+        return new Author((Long) row[3], (String) row[4], (String) row[5], (Integer) row[6], (Long) row[7]);
+    }
+
+    private static Genre rowGenre(Object[] row) {
+        return new Genre((Long) row[8], (String) row[9], (Long) row[10]);
+    }
+
+    Author author(AuthorEntity entity) {
+        return entity == null ? null : authors.computeIfAbsent(entity.getId(), id -> toAuthor(entity));
+    }
+
+    Genre genre(GenreEntity entity) {
+        return entity == null ? null : genres.computeIfAbsent(entity.getId(), id -> toGenre(entity));
+    }
+
+    static Author toAuthor(AuthorEntity entity) {
+        return new Author(entity.getId(), entity.getLastName(), entity.getFirstName(), entity.getAge(),
+                entity.getVersion());
+    }
+
+    static Genre toGenre(GenreEntity entity) {
+        return new Genre(entity.getId(), entity.getName(), entity.getVersion());
+    }
+}
@@ -1,6 +1,9 @@
 package ru.diasoft.spring.dao.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -8,15 +11,19 @@ import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.dao.StorageDao;
 import ru.diasoft.spring.domain.Genre;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 @Repository
+@Profile("!jpa")
+@StorageDao
 @RequiredArgsConstructor
 public class GenreDaoJdbc implements GenreDao {
     
@@ -27,20 +34,21 @@ public class GenreDaoJdbc implements GenreDao {
         public Genre mapRow(ResultSet rs, int rowNum) throws SQLException {
             return new Genre(
                 rs.getLong("id"),
-                rs.getString("name")
+                rs.getString("name"),
+                rs.getLong("version")
             );
         }
     }
     
     @Override
     public List<Genre> findAll() {
-        String sql = "SELECT id, name FROM genre ORDER BY name";
+        String sql = "SELECT id, name, version FROM genre ORDER BY name";
         return jdbcTemplate.query(sql, new GenreRowMapper());
     }
     
     @Override
     public Optional<Genre> findById(Long id) {
-        String sql = "SELECT id, name FROM genre WHERE id = :id";
+        String sql = "SELECT id, name, version FROM genre WHERE id = :id";
         try {
             Genre genre = jdbcTemplate.queryForObject(
                 sql,
@@ -73,18 +81,31 @@ public class GenreDaoJdbc implements GenreDao {
         jdbcTemplate.update(sql, params, keyHolder, new String[]{"id"});
         
         genre.setId(keyHolder.getKey().longValue());
+        genre.setVersion(0L);
         return genre;
     }
     
+    // Оптимистическая блокировка: запись проходит, только если строку никто не изменил после чтения
     @Override
     public void update(Genre genre) {
-        String sql = "UPDATE genre SET name = :name WHERE id = :id";
+        if (genre.getVersion() == null) {
+            throw new IllegalArgumentException("Genre must have a version to be updated");
+        }
+        String sql = """
+            UPDATE genre SET name = :name, version = version + 1 
+            WHERE id = :id AND version = :version
+            """;
         
         MapSqlParameterSource params = new MapSqlParameterSource();
         params.addValue("name", genre.getName());
         params.addValue("id", genre.getId());
+        params.addValue("version", genre.getVersion());
         
-        jdbcTemplate.update(sql, params);
+        if (jdbcTemplate.update(sql, params) == 0) {
+            throw new OptimisticLockingFailureException("Genre " + genre.getId()
+                    + " was changed or deleted by another transaction, version " + genre.getVersion() + " is stale");
+        }
+        genre.setVersion(genre.getVersion() + 1);
     }
     
     @Override
@@ -95,7 +116,7 @@ public class GenreDaoJdbc implements GenreDao {
     
     @Override
     public Optional<Genre> findByName(String name) {
-        String sql = "SELECT id, name FROM genre WHERE name = :name";
+        String sql = "SELECT id, name, version FROM genre WHERE name = :name";
         
         try {
             Genre genre = jdbcTemplate.queryForObject(
@@ -108,4 +129,92 @@ public class GenreDaoJdbc implements GenreDao {
             return Optional.empty();
         }
     }
-}
\ No newline at end of file
+
+    // Keyset-пагинация: страница начинается после последнего увиденного name.
+    // Имя жанра уникально, поэтому id для разрешения равенства не нужен, а сортировка и диапазон
+    // идут по индексу уникального ограничения
+    @Override
+    public List<Genre> findPage(String afterName, Long afterId, int limit) {
+        if (afterId == null) {
+            String sql = "SELECT id, name, version FROM genre ORDER BY name LIMIT :limit";
+            return jdbcTemplate.query(sql, Map.of("limit", limit), new GenreRowMapper());
+        }
+
+        String sql = """
+            SELECT id, name, version FROM genre 
+            WHERE name > :name 
+            ORDER BY name 
+            LIMIT :limit
+            """;
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("name", afterName);
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql, params, new GenreRowMapper());
+    }
+
+    @Override
+    public long estimateCount() {
+        return TableStatistics.estimateRowCount(jdbcTemplate, "GENRE");
+    }
+
+    @Override
+    public List<Genre> findByNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT id, name, version FROM genre WHERE name IN (:names)";
+        return jdbcTemplate.query(sql, Map.of("names", names), new GenreRowMapper());
+    }
+    
+    @Override
+    public List<Genre> saveAll(List<Genre> genres) {
+        if (genres.isEmpty()) {
+            return genres;
+        }
+        String sql = "INSERT INTO genre (name) VALUES (:name)";
+        
+        MapSqlParameterSource[] batch = genres.stream()
+            .map(genre -> new MapSqlParameterSource("name", genre.getName()))
+            .toArray(MapSqlParameterSource[]::new);
+        
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(sql, batch, keyHolder, new String[]{"id"});
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < genres.size(); i++) {
+            genres.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+            genres.get(i).setVersion(0L);
+        }
+        return genres;
+    }
+
+    // Как в AuthorDaoJdbc: вставка, только если жанра ещё нет, и чтение по уникальному имени.
+    // Существующий жанр не переписывается и не блокируется
+    @Override
+    public Genre findOrCreate(String name) {
+        String sql = """
+            INSERT INTO genre (name) 
+            SELECT :name 
+            WHERE NOT EXISTS (SELECT 1 FROM genre WHERE name = :name)
+            """;
+        try {
+            jdbcTemplate.update(sql, Map.of("name", name));
+        } catch (DuplicateKeyException e) {
+            // жанр только что вставила параллельная транзакция
+        }
+        return findByName(name).orElseThrow(() -> new IllegalStateException("Genre " + name + " not found after insert"));
+    }
+
+    @Override
+    public List<Genre> findAllByIds(Collection<Long> ids) {
+        String sql = """
+            SELECT g.id, g.name, g.version 
+            FROM UNNEST(:ids) AS ids(id)
+            JOIN genre g ON g.id = ids.id
+            """;
+
+        return IdBatchQuery.query(jdbcTemplate, sql, ids, new GenreRowMapper(), Genre::getId);
+    }
+}
@@ -0,0 +1,169 @@
+package ru.diasoft.spring.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.dao.StorageDao;
+import ru.diasoft.spring.dao.impl.entity.GenreEntity;
+import ru.diasoft.spring.domain.Genre;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// JPA-реализация GenreDao для профиля jpa, контракт тот же, что у GenreDaoJdbc
+@Repository
+@Profile("jpa")
+@StorageDao
+@RequiredArgsConstructor
+public class GenreDaoJpa implements GenreDao {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Genre> findAll() {
+        return JpaSupport.readOnly(entityManager.createQuery(
+                "SELECT g FROM GenreEntity g ORDER BY g.name", GenreEntity.class))
+                .getResultList()
+                .stream()
+                .map(EntityMapper::toGenre)
+                .toList();
+    }
+
+    @Override
+    public Optional<Genre> findById(Long id) {
+        return Optional.ofNullable(entityManager.find(GenreEntity.class, id)).map(EntityMapper::toGenre);
+    }
+
+    @Override
+    public Genre save(Genre genre) {
+        if (genre.getId() == null) {
+            return insert(genre);
+        } else {
+            update(genre);
+            return genre;
+        }
+    }
+
+    private Genre insert(Genre genre) {
+        GenreEntity entity = toEntity(genre);
+        entityManager.persist(entity);
+        genre.setId(entity.getId());
+        genre.setVersion(entity.getVersion());
+        return genre;
+    }
+
+    // Как в AuthorDaoJpa: версия сверяется сразу, flush отправляет UPDATE ... WHERE version = ? до выхода из метода
+    @Override
+    public void update(Genre genre) {
+        if (genre.getVersion() == null) {
+            throw new IllegalArgumentException("Genre must have a version to be updated");
+        }
+        GenreEntity entity = entityManager.find(GenreEntity.class, genre.getId());
+        if (entity == null || !entity.getVersion().equals(genre.getVersion())) {
+            throw new OptimisticLockingFailureException("Genre " + genre.getId()
+                    + " was changed or deleted by another transaction, version " + genre.getVersion() + " is stale");
+        }
+        entity.setName(genre.getName());
+        entityManager.flush();
+        genre.setVersion(entity.getVersion());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        GenreEntity entity = entityManager.find(GenreEntity.class, id);
+        if (entity != null) {
+            entityManager.remove(entity);
+            entityManager.flush();
+        }
+    }
+
+    @Override
+    public Optional<Genre> findByName(String name) {
+        return entityManager.createQuery("SELECT g FROM GenreEntity g WHERE g.name = :name", GenreEntity.class)
+                .setParameter("name", name)
+                .getResultList()
+                .stream()
+                .findFirst()
+                .map(EntityMapper::toGenre);
+    }
+
+    // Та же keyset-пагинация по уникальному имени, что и в GenreDaoJdbc
+    @Override
+    public List<Genre> findPage(String afterName, Long afterId, int limit) {
+        TypedQuery<GenreEntity> query;
+        if (afterId == null) {
+            query = entityManager.createQuery("SELECT g FROM GenreEntity g ORDER BY g.name", GenreEntity.class);
+        } else {
+            query = entityManager.createQuery(
+                    "SELECT g FROM GenreEntity g WHERE g.name > :name ORDER BY g.name", GenreEntity.class)
+                    .setParameter("name", afterName);
+        }
+        return JpaSupport.readOnly(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(EntityMapper::toGenre)
+                .toList();
+    }
+
+    @Override
+    public long estimateCount() {
+        return TableStatistics.estimateRowCount(entityManager, "GENRE");
+    }
+
+    @Override
+    public List<Genre> findByNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        return JpaSupport.readOnly(entityManager.createQuery(
+                "SELECT g FROM GenreEntity g WHERE g.name IN :names", GenreEntity.class))
+                .setParameter("names", names)
+                .getResultList()
+                .stream()
+                .map(EntityMapper::toGenre)
+                .toList();
+    }
+
+    @Override
+    public List<Genre> saveAll(List<Genre> genres) {
+        return JpaSupport.persistAll(entityManager, genres, GenreDaoJpa::toEntity, (genre, entity) -> {
+            genre.setId(entity.getId());
+            genre.setVersion(entity.getVersion());
+        });
+    }
+
+    // Как в AuthorDaoJpa: нативная вставка, только если жанра нет, и чтение по уникальному имени
+    @Override
+    public Genre findOrCreate(String name) {
+        JpaSupport.insertIfAbsent(entityManager, """
+                INSERT INTO genre (name) 
+                SELECT ? 
+                WHERE NOT EXISTS (SELECT 1 FROM genre WHERE name = ?)
+                """, name, name);
+        return findByName(name).orElseThrow(() -> new IllegalStateException("Genre " + name + " not found after insert"));
+    }
+
+    @Override
+    public List<Genre> findAllByIds(Collection<Long> ids) {
+        return IdBatchQuery.query(ids, JpaSupport.ID_CHUNK_SIZE, chunk -> JpaSupport.readOnly(
+                        entityManager.createQuery("SELECT g FROM GenreEntity g WHERE g.id IN :ids", GenreEntity.class))
+                .setParameter("ids", Arrays.asList(chunk))
+                .getResultList()
+                .stream()
+                .map(EntityMapper::toGenre)
+                .toList(), Genre::getId);
+    }
+
+    private static GenreEntity toEntity(Genre genre) {
+        GenreEntity entity = new GenreEntity();
+        entity.setName(genre.getName());
+        return entity;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.diasoft.spring.dao.impl;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+// Выборка по набору id: массив id передаётся одним параметром :ids и разворачивается через UNNEST
+// в соединение по первичному ключу - в отличие от IN (...) и = ANY(...) H2 не тратит время на разбор длинного списка.
+// По одному запросу на каждые CHUNK_SIZE id, чтобы не упереться в предельную длину массива H2.
+// Порядок результата повторяет порядок ids, отсутствующие id пропускаются, повторы возвращаются повторно
+final class IdBatchQuery {
+
+    static final int CHUNK_SIZE = 50_000;
+
+    private IdBatchQuery() {
+    }
+
+    static <T> List<T> query(NamedParameterJdbcTemplate jdbcTemplate, String sql, Collection<Long> ids,
+                             RowMapper<T> rowMapper, Function<T, Long> idOf) {
+        return query(ids, CHUNK_SIZE, chunk -> jdbcTemplate.query(sql, Map.of("ids", chunk), rowMapper), idOf);
+    }
+
+    // Та же разбивка и тот же порядок результата для запросов, которые не идут через JdbcTemplate (JPQL)
+    static <T> List<T> query(Collection<Long> ids, int chunkSize, Function<Long[], List<T>> chunkQuery,
+                             Function<T, Long> idOf) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Long[] allIds = ids.stream().distinct().toArray(Long[]::new);
+        Map<Long, T> byId = new HashMap<>();
+        for (int from = 0; from < allIds.length; from += chunkSize) {
+            Long[] chunk = Arrays.copyOfRange(allIds, from, Math.min(from + chunkSize, allIds.length));
+            for (T row : chunkQuery.apply(chunk)) {
+                byId.put(idOf.apply(row), row);
+            }
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
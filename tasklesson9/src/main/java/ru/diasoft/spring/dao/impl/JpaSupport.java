@@ -0,0 +1,69 @@
+package ru.diasoft.spring.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Общее для JPA-реализаций DAO
+final class JpaSupport {
+
+    // Выборка по id идёт IN-списком: длинные списки режутся на части, а hibernate.query.in_clause_parameter_padding
+    // округляет число параметров до степени двойки, чтобы H2 и Hibernate переиспользовали разобранные запросы
+    static final int ID_CHUNK_SIZE = 1000;
+
+    static final int CLEAR_EVERY = 1000;
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private JpaSupport() {
+    }
+
+    // Списки только читаются: без снимков для dirty checking сущности дешевле в памяти и не проверяются при flush
+    static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    // INSERT ... WHERE NOT EXISTS идёт прямо по JDBC-соединению сессии: ошибка нативного запроса через EntityManager
+    // пометила бы всю транзакцию rollback-only, а дубликат от параллельной вставки здесь ожидаем - строку затем перечитывают.
+    // Перед вставкой контекст сбрасывается, чтобы NOT EXISTS видел несохранённые изменения
+    static void insertIfAbsent(EntityManager entityManager, String sql, Object... params) {
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setObject(i + 1, params[i]);
+                }
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+            }
+        });
+    }
+
+    // Ключи у таблиц identity, поэтому Hibernate выполняет INSERT сразу на persist, чтобы узнать id,
+    // и JDBC batch для вставок не собирает (hibernate.jdbc.batch_size действует на UPDATE и DELETE).
+    // Пачкой здесь только сбрасывается и очищается контекст персистентности: импорт не держит в нём все сущности
+    static <T, E> List<T> persistAll(EntityManager entityManager, List<T> items, Function<T, E> toEntity,
+                                     BiConsumer<T, E> saved) {
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            E entity = toEntity.apply(item);
+            entityManager.persist(entity);
+            saved.accept(item, entity);
+            if ((i + 1) % CLEAR_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return items;
+    }
+}
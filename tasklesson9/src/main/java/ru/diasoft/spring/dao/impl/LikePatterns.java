@@ -0,0 +1,16 @@
+package ru.diasoft.spring.dao.impl;
+
+// Поиск подстроки через LIKE: % и _ из запроса экранируются, чтобы искались буквально - как в индексе триграмм.
+// Запросы указывают ESCAPE '\' явно, а не полагаются на умолчание H2
+final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    static String containing(String text) {
+        String escaped = text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,31 @@
+package ru.diasoft.spring.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Map;
+
+// Оценка числа строк по статистике H2 - без COUNT(*) и без сканирования таблицы
+final class TableStatistics {
+
+    private static final String ROW_COUNT_ESTIMATE = """
+            SELECT ROW_COUNT_ESTIMATE 
+            FROM INFORMATION_SCHEMA.TABLES 
+            WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND TABLE_NAME = :table_name
+            """;
+
+    private TableStatistics() {
+    }
+
+    static long estimateRowCount(NamedParameterJdbcTemplate jdbcTemplate, String tableName) {
+        Long estimate = jdbcTemplate.queryForObject(ROW_COUNT_ESTIMATE, Map.of("table_name", tableName), Long.class);
+        return estimate != null ? estimate : 0L;
+    }
+
+    static long estimateRowCount(EntityManager entityManager, String tableName) {
+        Object estimate = entityManager.createNativeQuery(ROW_COUNT_ESTIMATE)
+                .setParameter("table_name", tableName)
+                .getSingleResult();
+        return estimate != null ? ((Number) estimate).longValue() : 0L;
+    }
+}
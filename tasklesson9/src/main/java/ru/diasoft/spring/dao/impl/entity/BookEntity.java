@@ -0,0 +1,56 @@
+package ru.diasoft.spring.dao.impl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Автор и жанр ленивые: выборки BookDaoJpa забирают их тем же запросом через JOIN FETCH,
+// а без них книга загружается только при записи, где нужны лишь ссылки по id
+@Entity
+@Table(name = "book")
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    // Вычисляемая колонка LOWER(title) под поиск по подстроке, её пишет сама база
+    @Column(name = "title_lower", insertable = false, updatable = false)
+    private String titleLower;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "author_id", nullable = false)
+    private AuthorEntity author;
+
+    // Те же колонки внешних ключей только для чтения: фильтр по ним идёт по индексу book, а условие на id
+    // присоединённой через JOIN FETCH сущности H2 проверяет уже после соединения, просматривая все книги
+    @Column(name = "author_id", insertable = false, updatable = false)
+    private Long authorId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "genre_id", nullable = false)
+    private GenreEntity genre;
+
+    @Column(name = "genre_id", insertable = false, updatable = false)
+    private Long genreId;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
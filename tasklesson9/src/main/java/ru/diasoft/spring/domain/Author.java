@@ -12,5 +12,10 @@ public class Author {
     private String lastName;
     private String FirstName;
     private Integer age;
+    // Версия строки для оптимистической блокировки; null - автор ещё не сохранён
+    private Long version;
 
+    public Author(Long id, String lastName, String firstName, Integer age) {
+        this(id, lastName, firstName, age, null);
+    }
 }
\ No newline at end of file
@@ -12,4 +12,10 @@ public class Book {
     private String title;
     private Author author;
     private Genre genre;
+    // Версия строки для оптимистической блокировки; null - книга ещё не сохранена
+    private Long version;
+
+    public Book(Long id, String title, Author author, Genre genre) {
+        this(id, title, author, genre, null);
+    }
 }
@@ -0,0 +1,5 @@
+package ru.diasoft.spring.domain;
+
+// Книга, которую ещё предстоит сохранить: автор и жанр заданы именами, а не id
+public record BookDraft(String title, String authorFirstName, String authorLastName, String genreName) {
+}
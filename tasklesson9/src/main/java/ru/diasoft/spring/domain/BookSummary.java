@@ -0,0 +1,5 @@
+package ru.diasoft.spring.domain;
+
+// Строка списка книг: только то, что выводится в списках и результатах поиска, без графа Book/Author/Genre
+public record BookSummary(long id, String title, String authorFirstName, String authorLastName, String genreName) {
+}
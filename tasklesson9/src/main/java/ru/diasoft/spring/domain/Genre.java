@@ -10,4 +10,10 @@ import lombok.*;
 public class Genre {
     private Long id;
     private String name;
+    // Версия строки для оптимистической блокировки; null - жанр ещё не сохранён
+    private Long version;
+
+    public Genre(Long id, String name) {
+        this(id, name, null);
+    }
 }
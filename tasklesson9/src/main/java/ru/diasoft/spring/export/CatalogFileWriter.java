@@ -0,0 +1,79 @@
+package ru.diasoft.spring.export;
+
+import ru.diasoft.spring.domain.BookSummary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+// Файл выгрузки поверх FileChannel: строки кодируются в UTF-8 в буфер размера bufferSize
+// и уходят в канал крупными блоками. С gzip между буфером и каналом встаёт GZIPOutputStream с тем же буфером.
+// Память не зависит от размера каталога: держится одна строка и буферы
+public class CatalogFileWriter implements Closeable {
+
+    private final CatalogFormat format;
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private long rows;
+
+    private CatalogFileWriter(CatalogFormat format, Writer writer) {
+        this.format = format;
+        this.writer = writer;
+    }
+
+    public static CatalogFileWriter open(Path path, CatalogFormat format, boolean gzip, int bufferSize)
+            throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        FileChannel file = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        WritableByteChannel target = file;
+        try {
+            if (gzip) {
+                target = Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(file), bufferSize));
+            }
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CatalogFileWriter writer = new CatalogFileWriter(format, Channels.newWriter(target, encoder, bufferSize));
+            writer.writer.write(format.header());
+            return writer;
+        } catch (IOException | RuntimeException e) {
+            target.close();
+            throw e;
+        }
+    }
+
+    public void write(BookSummary book) throws IOException {
+        line.setLength(0);
+        format.appendRow(line, book);
+        int length = line.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        line.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+        rows++;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    // Сбрасывает буфер, дописывает хвост gzip и закрывает канал файла
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,126 @@
+package ru.diasoft.spring.export;
+
+import ru.diasoft.spring.domain.BookSummary;
+
+import java.util.Locale;
+
+// Формат строки выгрузки. Строка собирается в переиспользуемый StringBuilder, без промежуточных объектов на поле
+public enum CatalogFormat {
+
+    // Тот же формат, что читает import-books: title;author_first_name;author_last_name;genre с заголовком
+    CSV("csv") {
+        @Override
+        public String header() {
+            return "title;author_first_name;author_last_name;genre\n";
+        }
+
+        @Override
+        public void appendRow(StringBuilder line, BookSummary book) {
+            appendCsvField(line, book.title());
+            line.append(';');
+            appendCsvField(line, book.authorFirstName());
+            line.append(';');
+            appendCsvField(line, book.authorLastName());
+            line.append(';');
+            appendCsvField(line, book.genreName());
+            line.append('\n');
+        }
+    },
+
+    // Один JSON-объект на строку, отсутствующие автор и жанр - null
+    JSONL("jsonl") {
+        @Override
+        public String header() {
+            return "";
+        }
+
+        @Override
+        public void appendRow(StringBuilder line, BookSummary book) {
+            line.append("{\"id\":").append(book.id());
+            line.append(",\"title\":");
+            appendJsonString(line, book.title());
+            line.append(",\"authorFirstName\":");
+            appendJsonString(line, book.authorFirstName());
+            line.append(",\"authorLastName\":");
+            appendJsonString(line, book.authorLastName());
+            line.append(",\"genre\":");
+            appendJsonString(line, book.genreName());
+            line.append("}\n");
+        }
+    };
+
+    private final String extension;
+
+    CatalogFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public abstract String header();
+
+    public abstract void appendRow(StringBuilder line, BookSummary book);
+
+    public static CatalogFormat fromName(String name) {
+        for (CatalogFormat format : values()) {
+            if (format.extension.equals(name.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format '" + name + "', expected csv or jsonl");
+    }
+
+    // Поле в кавычках, только если без них CSV-парсер его разрежет или обрежет
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = !value.isEmpty()
+                && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ';' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,210 @@
+package ru.diasoft.spring.generator;
+
+import ru.diasoft.spring.domain.Author;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.UnaryOperator;
+
+// Словари для синтетического каталога: имена авторов, жанры и названия на нескольких языках.
+// Фразы подобраны так, чтобы сочетания были грамматически правильными без согласования по родам
+public final class CatalogVocabulary {
+
+    private record Language(
+            double weight,
+            String[] maleFirstNames,
+            String[] femaleFirstNames,
+            String[] lastNames,
+            UnaryOperator<String> feminineLastName,
+            String[] heads,
+            String[] complements,
+            String[] pairNouns,
+            String pairJoiner,
+            String volumeFormat
+    ) {
+    }
+
+    private static final Language[] LANGUAGES = {
+            new Language(0.40,
+                    new String[]{"James", "John", "Robert", "Michael", "William", "David", "Thomas", "Charles",
+                            "George", "Henry", "Arthur", "Edward", "Samuel", "Daniel", "Oliver", "Jack"},
+                    new String[]{"Mary", "Elizabeth", "Jane", "Emily", "Charlotte", "Margaret", "Alice", "Virginia",
+                            "Agatha", "Sarah", "Emma", "Harriet", "Louisa", "Edith", "Sylvia", "Zadie"},
+                    new String[]{"Smith", "Johnson", "Brown", "Taylor", "Miller", "Wilson", "Moore", "Clarke",
+                            "Walker", "Wright", "Green", "Hall", "Turner", "Parker", "Collins", "Stewart",
+                            "Morris", "Hughes", "Bennett", "Fletcher", "Harper", "Lawrence", "Austen", "Shelley"},
+                    UnaryOperator.identity(),
+                    new String[]{"The Song", "The Chronicle", "The Shadow", "The Secret", "The Last Days",
+                            "The Journey", "The House", "A Memory", "The Return", "The Garden", "The Silence",
+                            "The Keeper", "The Map", "Letters"},
+                    new String[]{"of the Night", "of the North Wind", "of the Sea", "of Forgotten Cities",
+                            "of the Old Garden", "of Winter", "of the Stone Bridge", "of Lost Summers",
+                            "of the Silver River", "of the Empire", "of the Lighthouse", "of Small Things"},
+                    new String[]{"War", "Peace", "Pride", "Prejudice", "Sense", "Sensibility", "Crime",
+                            "Punishment", "Fire", "Ice", "Salt", "Stone", "Bread", "Roses"},
+                    " and ",
+                    "%s: Book %d"),
+            new Language(0.30,
+                    new String[]{"Иван", "Алексей", "Дмитрий", "Сергей", "Николай", "Михаил", "Андрей", "Фёдор",
+                            "Лев", "Антон", "Борис", "Владимир", "Константин", "Павел", "Юрий", "Григорий"},
+                    new String[]{"Анна", "Мария", "Елена", "Ольга", "Татьяна", "Наталья", "Людмила", "Марина",
+                            "Вера", "Ирина", "Софья", "Дарья", "Ксения", "Евгения", "Зинаида", "Галина"},
+                    new String[]{"Иванов", "Петров", "Смирнов", "Кузнецов", "Соколов", "Попов", "Лебедев",
+                            "Новиков", "Морозов", "Волков", "Соловьёв", "Васильев", "Зайцев", "Павлов",
+                            "Тургенев", "Булгаков", "Гончаров", "Пастернак", "Шолохов", "Бунин", "Толстой",
+                            "Достоевский", "Ахматов", "Цветаев"},
+                    CatalogVocabulary::russianFeminineLastName,
+                    new String[]{"Тайна", "Песнь", "Хроники", "Повесть", "Сказание", "Тень", "Дорога", "Память",
+                            "Голос", "Последние дни", "Возвращение", "Письма", "Записки", "Свет"},
+                    new String[]{"старого сада", "северного ветра", "забытого города", "белой ночи",
+                            "последнего лета", "серебряной реки", "тихого дома", "долгой зимы",
+                            "каменного моста", "далёкого моря", "уездного города", "первой любви"},
+                    new String[]{"Война", "Мир", "Отцы", "Дети", "Преступление", "Наказание", "Море", "Небо",
+                            "Хлеб", "Соль", "Лёд", "Пламень", "Правда", "Память"},
+                    " и ",
+                    "%s. Книга %d"),
+            new Language(0.12,
+                    new String[]{"Hans", "Karl", "Friedrich", "Thomas", "Heinrich", "Hermann", "Günter", "Stefan"},
+                    new String[]{"Anna", "Greta", "Ingeborg", "Christa", "Herta", "Juli", "Marlene", "Ricarda"},
+                    new String[]{"Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Wagner", "Becker",
+                            "Hoffmann", "Schulz", "Koch", "Richter", "Zweig"},
+                    UnaryOperator.identity(),
+                    new String[]{"Das Lied", "Die Chronik", "Der Schatten", "Die Reise", "Das Haus",
+                            "Die Erinnerung", "Das Geheimnis", "Der Weg"},
+                    new String[]{"des Winters", "der Nacht", "des Meeres", "der Erinnerung", "des Nordwinds",
+                            "der alten Stadt", "des Sommers", "der Stille"},
+                    new String[]{"Krieg", "Frieden", "Schuld", "Sühne", "Feuer", "Wasser", "Brot", "Salz"},
+                    " und ",
+                    "%s – Band %d"),
+            new Language(0.10,
+                    new String[]{"Jean", "Pierre", "Louis", "Victor", "Émile", "Albert", "Marcel", "Honoré"},
+                    new String[]{"Marie", "Simone", "Colette", "George", "Marguerite", "Annie", "Françoise", "Léa"},
+                    new String[]{"Martin", "Bernard", "Dubois", "Durand", "Lefebvre", "Moreau", "Laurent",
+                            "Girard", "Roux", "Fontaine", "Mercier", "Blanc"},
+                    UnaryOperator.identity(),
+                    new String[]{"Le Chant", "La Chronique", "L'Ombre", "Le Voyage", "La Maison", "Le Secret",
+                            "Le Retour", "La Mémoire"},
+                    new String[]{"de la nuit", "du vent du nord", "de la mer", "des souvenirs", "de l'hiver",
+                            "du vieux jardin", "de la ville oubliée", "du dernier été"},
+                    new String[]{"Le Rouge", "Le Noir", "La Guerre", "La Paix", "Le Pain", "Le Sel", "Le Feu",
+                            "La Cendre"},
+                    " et ",
+                    "%s, tome %d"),
+            new Language(0.08,
+                    new String[]{"Gabriel", "Jorge", "Pablo", "Miguel", "Carlos", "Julio", "Mario", "Javier"},
+                    new String[]{"Isabel", "Laura", "Carmen", "Elena", "Rosa", "Ana", "Lucía", "Mercedes"},
+                    new String[]{"García", "Fernández", "López", "Martínez", "Sánchez", "Pérez", "Gómez",
+                            "Díaz", "Moreno", "Ruiz", "Cortázar", "Allende"},
+                    UnaryOperator.identity(),
+                    new String[]{"La Canción", "La Crónica", "La Sombra", "El Viaje", "La Casa", "El Secreto",
+                            "El Regreso", "La Memoria"},
+                    new String[]{"de la noche", "del viento del norte", "del mar", "de los recuerdos",
+                            "del invierno", "del viejo jardín", "de la ciudad olvidada", "del último verano"},
+                    new String[]{"La Guerra", "La Paz", "El Pan", "La Sal", "El Fuego", "La Ceniza", "El Oro",
+                            "La Plata"},
+                    " y ",
+                    "%s, tomo %d")
+    };
+
+    // Популярные жанры идут первыми: ранг Zipf совпадает с индексом в списке
+    private static final String[] GENRES = {
+            "Роман", "Детектив", "Фантастика", "Fantasy", "Mystery", "Thriller", "Исторический роман",
+            "Romance", "Поэзия", "Science Fiction", "Приключения", "Biography", "Horror", "Повесть",
+            "Literary Fiction", "Криминальный роман","Young Adult", "Мемуары", "Historical Fiction", "Satire",
+            "Krimi", "Roman policier", "Novela negra", "Антиутопия", "Essays", "Сказки", "Graphic Novel",
+            "Драма", "Travel", "Philosophie", "Poésie", "Ciencia ficción", "Short Stories", "Юмор",
+            "Psychological Thriller", "Научно-популярная литература", "Gothic", "Magical Realism",
+            "Публицистика", "Western", "Cyberpunk", "Space Opera", "Эпистолярный роман", "Noir",
+            "Children's Literature", "Поэма", "Cozy Mystery", "Bildungsroman", "Nouvelle", "Crónica"
+    };
+
+    private static final double VOLUME_PROBABILITY = 0.08;
+    private static final double PAIR_TITLE_PROBABILITY = 0.25;
+    private static final int MAX_VOLUME = 7;
+
+    private CatalogVocabulary() {
+    }
+
+    public static List<String> genreNames(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String base = GENRES[i % GENRES.length];
+            int round = i / GENRES.length;
+            names.add(round == 0 ? base : base + " (" + (round + 1) + ")");
+        }
+        return names;
+    }
+
+    // Полные имена уникальны: при совпадении к имени добавляется инициал, затем номер
+    public static List<Author> authors(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Set<String> used = new HashSet<>(count * 2);
+        List<Author> authors = new ArrayList<>(count);
+        while (authors.size() < count) {
+            Language language = pickLanguage(random);
+            boolean female = random.nextBoolean();
+            String firstName = pick(random, female ? language.femaleFirstNames() : language.maleFirstNames());
+            String lastName = pick(random, language.lastNames());
+            if (female) {
+                lastName = language.feminineLastName().apply(lastName);
+            }
+
+            String uniqueFirstName = firstName;
+            for (int attempt = 0; !used.add(uniqueFirstName + '\u0000' + lastName); attempt++) {
+                uniqueFirstName = attempt < 26
+                        ? firstName + " " + (char) ('A' + attempt) + "."
+                        : firstName + " " + (attempt - 25);
+            }
+            authors.add(new Author(null, lastName, uniqueFirstName, 20 + random.nextInt(70)));
+        }
+        return authors;
+    }
+
+    public static String title(SplittableRandom random) {
+        Language language = pickLanguage(random);
+        String title;
+        if (random.nextDouble() < PAIR_TITLE_PROBABILITY) {
+            String first = pick(random, language.pairNouns());
+            String second = pick(random, language.pairNouns());
+            title = first.equals(second) ? first : first + language.pairJoiner() + second;
+        } else {
+            title = pick(random, language.heads()) + " " + pick(random, language.complements());
+        }
+        if (random.nextDouble() < VOLUME_PROBABILITY) {
+            title = String.format(language.volumeFormat(), title, 2 + random.nextInt(MAX_VOLUME - 1));
+        }
+        return title;
+    }
+
+    private static Language pickLanguage(SplittableRandom random) {
+        double point = random.nextDouble();
+        for (Language language : LANGUAGES) {
+            point -= language.weight();
+            if (point < 0) {
+                return language;
+            }
+        }
+        return LANGUAGES[0];
+    }
+
+    private static String pick(SplittableRandom random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    // Иванов -> Иванова, Достоевский -> Достоевская, Толстой -> Толстая; Пастернак не меняется
+    private static String russianFeminineLastName(String lastName) {
+        if (lastName.endsWith("ов") || lastName.endsWith("ёв") || lastName.endsWith("ев") || lastName.endsWith("ин")) {
+            return lastName + "а";
+        }
+        if (lastName.endsWith("ский")) {
+            return lastName.substring(0, lastName.length() - 4) + "ская";
+        }
+        if (lastName.endsWith("ой")) {
+            return lastName.substring(0, lastName.length() - 2) + "ая";
+        }
+        return lastName;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.diasoft.spring.generator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Ранг k из [0, n) с вероятностью, пропорциональной 1 / (k + 1)^exponent.
+// Накопленные веса считаются один раз, выборка - двоичным поиском
+public final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Zipf range must be positive: " + n);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        double point = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, point);
+        return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
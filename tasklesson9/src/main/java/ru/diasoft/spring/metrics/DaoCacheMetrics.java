@@ -0,0 +1,48 @@
+package ru.diasoft.spring.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import ru.diasoft.spring.dao.cache.DaoCache;
+
+// Статистика кэшей DAO в реестре метрик: попадания, промахи, вытеснения и размер с тегом cache.
+// Значения читаются из статистики Caffeine в момент опроса, на пути чтения ничего не добавляется
+public class DaoCacheMetrics implements SmartInitializingSingleton {
+
+    public static final String GETS = "library.cache.gets";
+    public static final String EVICTIONS = "library.cache.evictions";
+    public static final String SIZE = "library.cache.size";
+
+    private final MeterRegistry registry;
+    private final ObjectProvider<DaoCache> daoCaches;
+
+    public DaoCacheMetrics(MeterRegistry registry, ObjectProvider<DaoCache> daoCaches) {
+        this.registry = registry;
+        this.daoCaches = daoCaches;
+    }
+
+    // Кэши - обычные бины, к этому моменту они уже созданы все
+    @Override
+    public void afterSingletonsInstantiated() {
+        daoCaches.orderedStream().forEach(this::bind);
+    }
+
+    private void bind(DaoCache cache) {
+        FunctionCounter.builder(GETS, cache, c -> c.stats().hitCount())
+                .tag("cache", cache.getName())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(GETS, cache, c -> c.stats().missCount())
+                .tag("cache", cache.getName())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(EVICTIONS, cache, c -> c.stats().evictionCount())
+                .tag("cache", cache.getName())
+                .register(registry);
+        Gauge.builder(SIZE, cache, DaoCache::size)
+                .tag("cache", cache.getName())
+                .register(registry);
+    }
+}
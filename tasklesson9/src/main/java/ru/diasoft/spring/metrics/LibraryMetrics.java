@@ -0,0 +1,134 @@
+package ru.diasoft.spring.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Метры на каждый метод DAO/сервиса: время вызова, число возвращённых строк и ошибки.
+// Перцентили считаются в процессе по скользящему окну; метры кэшируются по Method,
+// чтобы на горячем пути не было поиска по имени и тегам в реестре
+public class LibraryMetrics {
+
+    public static final String CALLS = "library.calls";
+    public static final String ROWS = "library.rows";
+    public static final String ERRORS = "library.errors";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final Duration percentileWindow;
+    private final ConcurrentMap<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public LibraryMetrics(MeterRegistry registry, Duration percentileWindow) {
+        this.registry = registry;
+        this.percentileWindow = percentileWindow;
+    }
+
+    public record MethodMeters(String name, Timer calls, DistributionSummary rows, Counter errors) {
+
+        // Строки считаются только для коллекций и Optional; потоки читаются позже, вне вызова
+        public void recordRows(Object result) {
+            if (result instanceof Collection<?> collection) {
+                rows.record(collection.size());
+            } else if (result instanceof Map<?, ?> map) {
+                rows.record(map.size());
+            } else if (result instanceof Optional<?> optional) {
+                rows.record(optional.isPresent() ? 1 : 0);
+            }
+        }
+    }
+
+    // rowsP95 - NaN, если метод не возвращает строк (void, Stream)
+    public record MethodStats(String name, long calls, double p50Millis, double p95Millis, double p99Millis,
+                              double maxMillis, double rowsP95, long errors) {
+    }
+
+    public MethodMeters meters(Method method) {
+        MethodMeters existing = meters.get(method);
+        if (existing != null) {
+            return existing;
+        }
+        return meters.computeIfAbsent(method, this::register);
+    }
+
+    private MethodMeters register(Method method) {
+        String className = method.getDeclaringClass().getSimpleName();
+        String methodName = method.getName();
+        Timer calls = Timer.builder(CALLS)
+                .tag("class", className)
+                .tag("method", methodName)
+                .publishPercentiles(PERCENTILES)
+                .distributionStatisticExpiry(percentileWindow)
+                .register(registry);
+        DistributionSummary rows = DistributionSummary.builder(ROWS)
+                .tag("class", className)
+                .tag("method", methodName)
+                .publishPercentiles(PERCENTILES)
+                .distributionStatisticExpiry(percentileWindow)
+                .register(registry);
+        Counter errors = Counter.builder(ERRORS)
+                .tag("class", className)
+                .tag("method", methodName)
+                .register(registry);
+        return new MethodMeters(className + "." + methodName, calls, rows, errors);
+    }
+
+    // Перегруженные методы с одним именем сводятся реестром в одни и те же метры, в отчёте они одной строкой
+    public List<MethodStats> snapshot() {
+        return meters.values().stream()
+                .collect(Collectors.toMap(MethodMeters::name, Function.identity(), (first, same) -> first, TreeMap::new))
+                .values().stream()
+                .filter(m -> m.calls().count() > 0 || m.errors().count() > 0)
+                .map(LibraryMetrics::toStats)
+                .toList();
+    }
+
+    public void reset() {
+        for (MethodMeters removed : meters.values()) {
+            registry.remove(removed.calls());
+            registry.remove(removed.rows());
+            registry.remove(removed.errors());
+        }
+        meters.clear();
+    }
+
+    private static MethodStats toStats(MethodMeters meters) {
+        HistogramSnapshot latency = meters.calls().takeSnapshot();
+        HistogramSnapshot rows = meters.rows().takeSnapshot();
+        return new MethodStats(
+                meters.name(),
+                meters.calls().count(),
+                percentile(latency, 0.5, true),
+                percentile(latency, 0.95, true),
+                percentile(latency, 0.99, true),
+                latency.max(TimeUnit.MILLISECONDS),
+                meters.rows().count() == 0 ? Double.NaN : percentile(rows, 0.95, false),
+                (long) meters.errors().count()
+        );
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile, boolean millis) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return millis ? value.value(TimeUnit.MILLISECONDS) : value.value();
+            }
+        }
+        return Double.NaN;
+    }
+}
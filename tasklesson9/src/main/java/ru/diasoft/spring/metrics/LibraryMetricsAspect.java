@@ -0,0 +1,40 @@
+package ru.diasoft.spring.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.concurrent.TimeUnit;
+
+// Внешний слой вокруг @Transactional: время сервисного метода включает commit, ошибки commit тоже считаются.
+// Async-сервисы не замеряются: их методы лишь ставят задачу, а сама работа попадает в замер обёрнутого сервиса
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class LibraryMetricsAspect {
+
+    private final LibraryMetrics metrics;
+
+    @Around("execution(public * ru.diasoft.spring.dao.impl.*Jdbc.*(..))"
+            + " || execution(public * ru.diasoft.spring.dao.impl.*Jpa.*(..))"
+            + " || (execution(public * ru.diasoft.spring.service.impl.*ServiceImpl.*(..))"
+            + " && !execution(* ru.diasoft.spring.service.impl.Async*.*(..)))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        LibraryMetrics.MethodMeters meters = metrics.meters(((MethodSignature) joinPoint.getSignature()).getMethod());
+        long started = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            meters.recordRows(result);
+            return result;
+        } catch (Throwable e) {
+            meters.errors().increment();
+            throw e;
+        } finally {
+            meters.calls().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
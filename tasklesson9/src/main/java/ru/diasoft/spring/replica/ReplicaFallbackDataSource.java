@@ -0,0 +1,40 @@
+package ru.diasoft.spring.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Соединение с реплики, а если она недоступна - с основной базы: чтение медленнее, но не ломается
+@Slf4j
+public class ReplicaFallbackDataSource extends DelegatingDataSource {
+
+    private final DataSource primary;
+
+    public ReplicaFallbackDataSource(DataSource replica, DataSource primary) {
+        super(replica);
+        this.primary = primary;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica is unavailable, reading from primary: {}", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        try {
+            return super.getConnection(username, password);
+        } catch (SQLException e) {
+            log.warn("Replica is unavailable, reading from primary: {}", e.getMessage());
+            return primary.getConnection(username, password);
+        }
+    }
+}
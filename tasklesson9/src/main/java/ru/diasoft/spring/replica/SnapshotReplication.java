@@ -0,0 +1,204 @@
+package ru.diasoft.spring.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Простейшая репликация для локальной проверки чтения с реплики на двух H2.
+// При старте реплика получает полную копию основной базы (SCRIPT: схема, данные, полнотекстовый индекс).
+// Дальше после каждой зафиксированной пишущей транзакции данные таблиц PUBLIC копируются заново:
+// основная база читается одним снимком (REPEATABLE READ), реплика перезаписывается одной транзакцией,
+// поэтому читатели реплики видят либо старое, либо новое состояние целиком.
+// Полнотекстовый индекс реплики обновляют её собственные триггеры. Копия целиком - только для маленьких баз
+@Slf4j
+public class SnapshotReplication implements TransactionExecutionListener {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    public SnapshotReplication(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    // Liquibase к этому моменту уже создал схему основной базы
+    @EventListener(ApplicationStartedEvent.class)
+    public synchronized void initialize() {
+        long started = System.nanoTime();
+        try (Connection source = primary.getConnection();
+             Connection target = replica.getConnection();
+             Statement script = source.createStatement();
+             Statement statement = target.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            try (ResultSet rs = script.executeQuery("SCRIPT")) {
+                while (rs.next()) {
+                    statement.execute(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to initialize the replica", e);
+        }
+        log.info("Replica initialized in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Копия снимается в afterCommit синхронизации, а не в afterCommit слушателя: слушатель вызывается уже после
+    // afterCompletion, где кэши DAO сбрасывают записи и увеличивают поколение данных. Тогда читатель реплики
+    // успел бы закэшировать старую строку уже после сброса. afterCommit всех синхронизаций идёт раньше любого
+    // afterCompletion, так что к сбросу кэшей реплика уже содержит новые строки
+    @Override
+    public void afterBegin(TransactionExecution transaction, @Nullable Throwable beginFailure) {
+        if (beginFailure != null || transaction.isReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                replicateAfterCommit();
+            }
+        });
+    }
+
+    // Ошибка репликации не отменяет уже зафиксированную запись: реплика догонит на следующей транзакции
+    private void replicateAfterCommit() {
+        try {
+            replicate();
+        } catch (IllegalStateException e) {
+            log.warn("Replication after commit failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void replicate() {
+        try (Connection source = primary.getConnection();
+             Connection target = replica.getConnection()) {
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            source.setAutoCommit(false);
+            target.setAutoCommit(false);
+            try {
+                List<String> tables = tablesInDependencyOrder(source);
+                try (Statement statement = target.createStatement()) {
+                    for (int i = tables.size() - 1; i >= 0; i--) {
+                        statement.executeUpdate("DELETE FROM " + quote(tables.get(i)));
+                    }
+                }
+                for (String table : tables) {
+                    copyTable(source, target, table);
+                }
+                target.commit();
+            } catch (SQLException e) {
+                target.rollback();
+                throw e;
+            } finally {
+                source.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to replicate to the replica", e);
+        }
+    }
+
+    // Таблица идёт после тех, на которые ссылается: вставка в этом порядке, удаление - в обратном
+    private static List<String> tablesInDependencyOrder(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                 SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES
+                 WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'
+                 ORDER BY TABLE_NAME
+                 """)) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        DatabaseMetaData metaData = connection.getMetaData();
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String table : tables) {
+            addWithDependencies(metaData, table, ordered, new LinkedHashSet<>());
+        }
+        return new ArrayList<>(ordered);
+    }
+
+    private static void addWithDependencies(DatabaseMetaData metaData, String table,
+                                            Set<String> ordered, Set<String> visiting) throws SQLException {
+        if (ordered.contains(table) || !visiting.add(table)) {
+            return;
+        }
+        try (ResultSet keys = metaData.getImportedKeys(null, "PUBLIC", table)) {
+            while (keys.next()) {
+                String referenced = keys.getString("PKTABLE_NAME");
+                if (!referenced.equals(table)) {
+                    addWithDependencies(metaData, referenced, ordered, visiting);
+                }
+            }
+        }
+        ordered.add(table);
+    }
+
+    // Вычисляемые колонки (GENERATED ALWAYS AS) реплика считает сама
+    private static void copyTable(Connection source, Connection target, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (PreparedStatement ps = source.prepareStatement("""
+                SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND IS_GENERATED = 'NEVER'
+                ORDER BY ORDINAL_POSITION
+                """)) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    columns.add(quote(rs.getString(1)));
+                }
+            }
+        }
+        String columnList = String.join(", ", columns);
+        String placeholders = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+
+        try (Statement select = source.createStatement();
+             ResultSet rows = select.executeQuery("SELECT " + columnList + " FROM " + quote(table));
+             PreparedStatement insert = target.prepareStatement(
+                     "INSERT INTO " + quote(table) + " (" + columnList + ") VALUES (" + placeholders + ")")) {
+            int batched = 0;
+            while (rows.next()) {
+                for (int i = 1; i <= columns.size(); i++) {
+                    insert.setObject(i, rows.getObject(i));
+                }
+                insert.addBatch();
+                if (++batched == BATCH_SIZE) {
+                    insert.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
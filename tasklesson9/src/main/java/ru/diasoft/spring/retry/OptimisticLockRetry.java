@@ -0,0 +1,73 @@
+package ru.diasoft.spring.retry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.diasoft.spring.config.RetryProperties;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Повтор операции чтение-изменение-запись при конфликте версий. Каждая попытка - отдельная транзакция:
+// повторять внутри транзакции, где произошёл конфликт, бессмысленно - она уже помечена на откат.
+// Пауза со случайной составляющей, чтобы столкнувшиеся писатели не сталкивались снова.
+// Тем же механизмом повторяются пакетные вставки, столкнувшиеся с параллельной вставкой того же уникального ключа:
+// следующая попытка находит уже зафиксированную строку и не вставляет её снова
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OptimisticLockRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final RetryProperties properties;
+
+    public <T> T execute(Supplier<T> action) {
+        return execute(action, OptimisticLockingFailureException.class);
+    }
+
+    // Вставку, начатую внутри чужой транзакции, повторять нечем: она выполняется в ней один раз,
+    // а повтор - дело того, кто эту транзакцию открыл
+    public <T> T executeOnDuplicateKey(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+        return execute(action, DuplicateKeyException.class);
+    }
+
+    private <T> T execute(Supplier<T> action, Class<? extends DataAccessException> conflict) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Optimistic lock retry must be started outside of a transaction");
+        }
+        long backoffNanos = properties.getInitialBackoff().toNanos();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (DataAccessException e) {
+                if (!conflict.isInstance(e) || attempt >= properties.getMaxAttempts()) {
+                    throw e;
+                }
+                log.debug("Write conflict, attempt {} of {}: {}", attempt, properties.getMaxAttempts(), e.getMessage());
+                pause(backoffNanos);
+                backoffNanos *= 2;
+            }
+        }
+    }
+
+    private static void pause(long maxNanos) {
+        if (maxNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(maxNanos + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.diasoft.spring.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.diasoft.spring.config.SearchProperties;
+import ru.diasoft.spring.dao.BookDao;
+
+// Индекс строится потоковым чтением каталога до запуска shell (ApplicationReadyEvent наступает только после выхода из него)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TitleIndexLoader {
+
+    private final BookDao bookDao;
+    private final TitleTrigramIndex titleIndex;
+    private final SearchProperties searchProperties;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void buildIndex() {
+        if (!searchProperties.getTrigram().isEnabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        titleIndex.rebuild(bookDao::streamAll);
+        log.info("Title trigram index built: {} books in {} ms",
+                titleIndex.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.diasoft.spring.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import ru.diasoft.spring.dao.cache.CachingBookDao;
+import ru.diasoft.spring.dao.cache.DaoCache;
+import ru.diasoft.spring.dao.cache.WriteGeneration;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Кэш результатов поиска по подстроке названия. Ключ - фрагмент в нижнем регистре: поиск и так не различает регистр.
+// Каждый результат помнит поколение данных, в котором посчитан; после любой записи (WriteGeneration)
+// старые результаты не отдаются и со временем вытесняются. Слишком большие результаты (короткие фрагменты) не кэшируются
+public class TitleSearchCache implements DaoCache {
+
+    private record Result<T>(long generation, List<T> rows) {
+    }
+
+    private final String name;
+    private final WriteGeneration generation;
+    private final int maxResultSize;
+    // Устаревший результат - промах, поэтому попадания и промахи считаются здесь, а Caffeine пишет сюда вытеснения
+    private final ConcurrentStatsCounter statsCounter = new ConcurrentStatsCounter();
+    private final Cache<String, Result<Book>> books;
+    private final Cache<String, Result<BookSummary>> summaries;
+
+    public TitleSearchCache(String name, long maximumSize, Duration ttl, int maxResultSize, WriteGeneration generation) {
+        this.name = name;
+        this.generation = generation;
+        this.maxResultSize = maxResultSize;
+        this.books = newCache(maximumSize, ttl);
+        this.summaries = newCache(maximumSize, ttl);
+    }
+
+    private <V> Cache<String, V> newCache(long maximumSize, Duration ttl) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats(() -> statsCounter);
+        if (ttl != null && !ttl.isZero()) {
+            builder.expireAfterWrite(ttl);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public List<Book> findBooks(String title, Function<String, List<Book>> search) {
+        return find(books, title, search, CachingBookDao::copy);
+    }
+
+    public List<BookSummary> findSummaries(String title, Function<String, List<BookSummary>> search) {
+        return find(summaries, title, search, UnaryOperator.identity());
+    }
+
+    private <T> List<T> find(Cache<String, Result<T>> cache, String title,
+                             Function<String, List<T>> search, UnaryOperator<T> copier) {
+        if (generation.writtenInCurrentTransaction()) {
+            return search.apply(title);
+        }
+        String key = normalize(title);
+        long current = generation.current();
+        // asMap().get не пишет статистику Caffeine: попадание считается, только если результат свежий
+        Result<T> cached = cache.asMap().get(key);
+        if (cached != null && cached.generation() == current) {
+            statsCounter.recordHits(1);
+            return cached.rows().stream().map(copier).toList();
+        }
+        statsCounter.recordMisses(1);
+        List<T> rows = search.apply(title);
+        if (rows.size() <= maxResultSize) {
+            cache.put(key, new Result<>(current, rows.stream().map(copier).toList()));
+        }
+        return rows;
+    }
+
+    static String normalize(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    @Override
+    public long size() {
+        return books.estimatedSize() + summaries.estimatedSize();
+    }
+
+    @Override
+    public void invalidateAll() {
+        books.invalidateAll();
+        summaries.invalidateAll();
+    }
+}
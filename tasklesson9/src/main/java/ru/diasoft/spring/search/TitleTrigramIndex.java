@@ -0,0 +1,296 @@
+package ru.diasoft.spring.search;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.diasoft.spring.domain.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Инвертированный индекс триграмм по названиям книг.
+// Кандидаты - пересечение списков id для всех триграмм запроса, затем точная проверка подстроки
+// по сохранённому названию, так что результат совпадает с LIKE '%x%', но без сканирования таблицы.
+@Component
+public class TitleTrigramIndex {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private Map<Long, Postings> postings = new HashMap<>();
+    private Map<Long, String> titles = new HashMap<>();
+    // Изменения, закоммиченные во время перестройки: поток мог прочитать строку до них, поэтому они
+    // доигрываются на новый индекс перед подменой. null - перестройка не идёт
+    private List<Change> pending;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean supports(String query) {
+        return ready && query != null && query.length() >= MIN_QUERY_LENGTH;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return titles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Полная перестройка: новый индекс строится в стороне и подменяет старый целиком.
+    // Поток открывается уже после начала записи изменений, чтобы между чтением и записью не было щели.
+    // Перестройки идут по одной, иначе первая подмена забрала бы изменения, нужные второй
+    public void rebuild(Supplier<Stream<Book>> source) {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<Long, Postings> newPostings = new HashMap<>();
+            Map<Long, String> newTitles = new HashMap<>();
+            try (Stream<Book> books = source.get()) {
+                books.forEach(book -> add(newPostings, newTitles, book.getId(), normalize(book.getTitle())));
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    // Повтор уже прочитанного потоком изменения безвреден: put заменяет название, remove идемпотентен
+                    pending.forEach(change -> apply(newPostings, newTitles, change));
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                titles = newTitles;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Изменения применяются после коммита, чтобы откат транзакции не оставил в индексе лишнего
+    public void put(Long id, String title) {
+        afterCommit(new Change(id, title));
+    }
+
+    public void remove(Long id) {
+        afterCommit(new Change(id, null));
+    }
+
+    // id книг, содержащих query, от лучшего совпадения к худшему:
+    // точное совпадение, начало названия, начало слова, вхождение внутри слова; затем более короткие названия
+    public List<Long> search(String query) {
+        String needle = normalize(query);
+        long[] trigrams = trigrams(needle);
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(trigrams.length);
+            for (long trigram : trigrams) {
+                Postings list = postings.get(trigram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Postings::size));
+
+            List<Match> matches = new ArrayList<>();
+            Postings smallest = lists.get(0);
+            candidates:
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                for (int j = 1; j < lists.size(); j++) {
+                    if (!lists.get(j).contains(id)) {
+                        continue candidates;
+                    }
+                }
+                String title = titles.get(id);
+                int position = title.indexOf(needle);
+                if (position >= 0) {
+                    matches.add(new Match(id, title, rank(title, needle, position)));
+                }
+            }
+
+            matches.sort(Comparator.comparingInt(Match::rank)
+                    .thenComparingInt(match -> match.title().length())
+                    .thenComparing(Match::title)
+                    .thenComparingLong(Match::id));
+            return matches.stream().map(Match::id).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int rank(String title, String needle, int position) {
+        if (title.length() == needle.length()) {
+            return 0;
+        }
+        if (position == 0) {
+            return 1;
+        }
+        int wordStart = position;
+        while (wordStart > 0) {
+            if (!Character.isLetterOrDigit(title.charAt(wordStart - 1))) {
+                return 2;
+            }
+            wordStart = title.indexOf(needle, wordStart + 1);
+        }
+        return 3;
+    }
+
+    private static void apply(Map<Long, Postings> postings, Map<Long, String> titles, Change change) {
+        remove(postings, titles, change.id());
+        if (change.title() != null) {
+            add(postings, titles, change.id(), normalize(change.title()));
+        }
+    }
+
+    private static void add(Map<Long, Postings> postings, Map<Long, String> titles, Long id, String title) {
+        titles.put(id, title);
+        for (long trigram : trigrams(title)) {
+            postings.computeIfAbsent(trigram, key -> new Postings()).add(id);
+        }
+    }
+
+    private static void remove(Map<Long, Postings> postings, Map<Long, String> titles, Long id) {
+        String title = titles.remove(id);
+        if (title == null) {
+            return;
+        }
+        for (long trigram : trigrams(title)) {
+            Postings list = postings.get(trigram);
+            if (list != null && list.remove(id) && list.size() == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private void afterCommit(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(change);
+                }
+            });
+        } else {
+            record(change);
+        }
+    }
+
+    // Во время перестройки изменение и запоминается для новой карты, и сразу применяется к текущей (если она готова).
+    // Вне перестройки неготовому индексу изменение не нужно: оно уже закоммичено, и будущая перестройка прочитает его из БД
+    private void record(Change change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            }
+            if (ready) {
+                apply(postings, titles, change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    // Три символа упаковываются в один long (по 16 бит на char), повторы убираются
+    static long[] trigrams(String text) {
+        if (text.length() < MIN_QUERY_LENGTH) {
+            return new long[0];
+        }
+        long[] result = new long[text.length() - MIN_QUERY_LENGTH + 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(result).distinct().toArray();
+    }
+
+    private record Match(long id, String title, int rank) {
+    }
+
+    // title == null - удаление
+    private record Change(Long id, String title) {
+    }
+
+    // Отсортированный по возрастанию массив id: id новых книг растут, поэтому вставка почти всегда в конец
+    static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insertAt(-position - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private void insertAt(int position, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.diasoft.spring.service;
+
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookDraft;
+import ru.diasoft.spring.domain.BookSummary;
+import ru.diasoft.spring.domain.Genre;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public interface AsyncBookService {
+    CompletableFuture<List<Book>> getAllBooks();
+    CompletableFuture<Optional<Book>> getBookById(Long id);
+    CompletableFuture<Book> createBook(String title, String authorFirstName, String authorLastName, String genreName);
+    CompletableFuture<Book> updateBook(Long id, String title, String authorFirstName, String authorLastName, String genreName);
+    CompletableFuture<Void> deleteBook(Long id);
+    CompletableFuture<List<Book>> findBooksByTitle(String title);
+    CompletableFuture<List<Book>> searchBooksFullText(String query, int limit);
+    CompletableFuture<List<Book>> findBooksByAuthor(String firstName, String lastName);
+    CompletableFuture<List<Book>> findBooksByGenre(String genreName);
+    CompletableFuture<Book> createBookWithObjects(String title, Author author, Genre genre);
+    CompletableFuture<List<Book>> getBooksPage(Long afterId, int pageSize);
+    CompletableFuture<Long> estimateBooksCount();
+    CompletableFuture<Long> forEachBook(Consumer<? super Book> action);
+    CompletableFuture<BookImportResult> importBooks(Reader csv, int chunkSize);
+    CompletableFuture<List<Book>> createBooks(List<BookDraft> drafts);
+    CompletableFuture<List<BookSummary>> getBookSummariesPage(Long afterId, int pageSize);
+    CompletableFuture<List<BookSummary>> findBookSummariesByTitle(String title);
+    CompletableFuture<List<BookSummary>> searchBookSummariesFullText(String query, int limit);
+    CompletableFuture<Long> forEachBookSummary(Consumer<? super BookSummary> action);
+}
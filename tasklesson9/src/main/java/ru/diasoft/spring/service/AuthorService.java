@@ -11,4 +11,6 @@ public interface AuthorService {
     Author updateAuthor(Long id, String firstName, String lastName, Integer age);
     void deleteAuthor(Long id);
     Optional<Author> findAuthorByFullName(String firstName, String lastName);
+    List<Author> getAuthorsPage(Long afterId, int pageSize);
+    long estimateAuthorsCount();
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package ru.diasoft.spring.service;
+
+import java.nio.file.Path;
+
+public record BackupResult(Path file, long bytes, long elapsedMillis) {
+
+    public double megabytesPerSecond() {
+        double megabytes = bytes / (1024.0 * 1024.0);
+        if (elapsedMillis == 0) {
+            return megabytes;
+        }
+        return megabytes * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.diasoft.spring.service;
+
+public record BookImportResult(long imported, long rejected, long elapsedMillis) {
+
+    public double rowsPerSecond() {
+        if (elapsedMillis == 0) {
+            return imported;
+        }
+        return imported * 1000.0 / elapsedMillis;
+    }
+}
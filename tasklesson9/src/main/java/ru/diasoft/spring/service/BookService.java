@@ -2,10 +2,14 @@ package ru.diasoft.spring.service;
 
 import ru.diasoft.spring.domain.Author;
 import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookDraft;
+import ru.diasoft.spring.domain.BookSummary;
 import ru.diasoft.spring.domain.Genre;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookService {
     List<Book> getAllBooks();
@@ -14,7 +18,17 @@ public interface BookService {
     Book updateBook(Long id, String title, String authorFirstName, String authorLastName, String genreName);
     void deleteBook(Long id);
     List<Book> findBooksByTitle(String title);
+    List<Book> searchBooksFullText(String query, int limit);
     List<Book> findBooksByAuthor(String firstName, String lastName);
     List<Book> findBooksByGenre(String genreName);
     Book createBookWithObjects(String title, Author author, Genre genre);
+    List<Book> getBooksPage(Long afterId, int pageSize);
+    long estimateBooksCount();
+    Stream<Book> streamAllBooks();
+    BookImportResult importBooks(Reader csv, int chunkSize);
+    List<Book> createBooks(List<BookDraft> drafts);
+    List<BookSummary> getBookSummariesPage(Long afterId, int pageSize);
+    List<BookSummary> findBookSummariesByTitle(String title);
+    List<BookSummary> searchBookSummariesFullText(String query, int limit);
+    Stream<BookSummary> streamAllBookSummaries();
 }
\ No newline at end of file
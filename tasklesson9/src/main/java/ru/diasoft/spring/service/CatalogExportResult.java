@@ -0,0 +1,19 @@
+package ru.diasoft.spring.service;
+
+public record CatalogExportResult(long rows, int files, long bytes, long elapsedMillis) {
+
+    public double rowsPerSecond() {
+        if (elapsedMillis == 0) {
+            return rows;
+        }
+        return rows * 1000.0 / elapsedMillis;
+    }
+
+    public double megabytesPerSecond() {
+        double megabytes = bytes / (1024.0 * 1024.0);
+        if (elapsedMillis == 0) {
+            return megabytes;
+        }
+        return megabytes * 1000.0 / elapsedMillis;
+    }
+}
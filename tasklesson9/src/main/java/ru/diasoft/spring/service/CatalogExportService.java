@@ -0,0 +1,10 @@
+package ru.diasoft.spring.service;
+
+import ru.diasoft.spring.export.CatalogFormat;
+
+import java.nio.file.Path;
+
+public interface CatalogExportService {
+    CatalogExportResult export(CatalogFormat format, Path out, boolean gzip);
+    CatalogExportResult exportByGenre(CatalogFormat format, Path directory, boolean gzip);
+}
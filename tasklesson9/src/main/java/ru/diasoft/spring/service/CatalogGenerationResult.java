@@ -0,0 +1,11 @@
+package ru.diasoft.spring.service;
+
+public record CatalogGenerationResult(int authors, int genres, long books, long elapsedMillis) {
+
+    public double booksPerSecond() {
+        if (elapsedMillis == 0) {
+            return books;
+        }
+        return books * 1000.0 / elapsedMillis;
+    }
+}
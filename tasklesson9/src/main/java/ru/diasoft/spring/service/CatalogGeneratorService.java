@@ -0,0 +1,5 @@
+package ru.diasoft.spring.service;
+
+public interface CatalogGeneratorService {
+    CatalogGenerationResult generate(int authors, int genres, long books, long seed);
+}
@@ -0,0 +1,9 @@
+package ru.diasoft.spring.service;
+
+import java.nio.file.Path;
+
+public interface DatabaseBackupService {
+    BackupResult backup(Path out);
+    // Заменяет все текущие данные содержимым резервной копии
+    BackupResult restore(Path from);
+}
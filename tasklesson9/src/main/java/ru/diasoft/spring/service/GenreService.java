@@ -11,4 +11,6 @@ public interface GenreService {
     Genre updateGenre(Long id, String name);
     void deleteGenre(Long id);
     Optional<Genre> findGenreByName(String name);
+    List<Genre> getGenresPage(Long afterId, int pageSize);
+    long estimateGenresCount();
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package ru.diasoft.spring.service.impl;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookDraft;
+import ru.diasoft.spring.domain.BookSummary;
+import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.service.AsyncBookService;
+import ru.diasoft.spring.service.BookImportResult;
+import ru.diasoft.spring.service.BookService;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Асинхронная обёртка над BookService: каждая операция выполняется в своей задаче executor-а
+// (виртуальный поток на Java 21+), а ConnectionSlots ограничивает число операций, одновременно занимающих соединение.
+// Ожидающие слота задачи паркуются на его семафоре, а не на пуле соединений
+@Service
+public class AsyncBookServiceImpl implements AsyncBookService {
+
+    private final BookService bookService;
+    private final Executor executor;
+    private final ConnectionSlots connectionSlots;
+
+    public AsyncBookServiceImpl(BookService bookService,
+                                @Qualifier("bookTaskExecutor") Executor executor,
+                                ConnectionSlots connectionSlots) {
+        this.bookService = bookService;
+        this.executor = executor;
+        this.connectionSlots = connectionSlots;
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> getAllBooks() {
+        return submit(bookService::getAllBooks);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Book>> getBookById(Long id) {
+        return submit(() -> bookService.getBookById(id));
+    }
+
+    @Override
+    public CompletableFuture<Book> createBook(String title, String authorFirstName, String authorLastName,
+                                              String genreName) {
+        return submit(() -> bookService.createBook(title, authorFirstName, authorLastName, genreName));
+    }
+
+    @Override
+    public CompletableFuture<Book> updateBook(Long id, String title, String authorFirstName, String authorLastName,
+                                              String genreName) {
+        return submit(() -> bookService.updateBook(id, title, authorFirstName, authorLastName, genreName));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteBook(Long id) {
+        return submit(() -> {
+            bookService.deleteBook(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> findBooksByTitle(String title) {
+        return submit(() -> bookService.findBooksByTitle(title));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> searchBooksFullText(String query, int limit) {
+        return submit(() -> bookService.searchBooksFullText(query, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> findBooksByAuthor(String firstName, String lastName) {
+        return submit(() -> bookService.findBooksByAuthor(firstName, lastName));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> findBooksByGenre(String genreName) {
+        return submit(() -> bookService.findBooksByGenre(genreName));
+    }
+
+    @Override
+    public CompletableFuture<Book> createBookWithObjects(String title, Author author, Genre genre) {
+        return submit(() -> bookService.createBookWithObjects(title, author, genre));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> getBooksPage(Long afterId, int pageSize) {
+        return submit(() -> bookService.getBooksPage(afterId, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<Long> estimateBooksCount() {
+        return submit(bookService::estimateBooksCount);
+    }
+
+    // Поток держит соединение, пока открыт, поэтому отдать его наружу нельзя - он читается целиком внутри задачи
+    @Override
+    public CompletableFuture<Long> forEachBook(Consumer<? super Book> action) {
+        return submit(() -> forEach(bookService.streamAllBooks(), action));
+    }
+
+    @Override
+    public CompletableFuture<BookImportResult> importBooks(Reader csv, int chunkSize) {
+        return submit(() -> bookService.importBooks(csv, chunkSize));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> createBooks(List<BookDraft> drafts) {
+        return submit(() -> bookService.createBooks(drafts));
+    }
+
+    @Override
+    public CompletableFuture<List<BookSummary>> getBookSummariesPage(Long afterId, int pageSize) {
+        return submit(() -> bookService.getBookSummariesPage(afterId, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<List<BookSummary>> findBookSummariesByTitle(String title) {
+        return submit(() -> bookService.findBookSummariesByTitle(title));
+    }
+
+    @Override
+    public CompletableFuture<List<BookSummary>> searchBookSummariesFullText(String query, int limit) {
+        return submit(() -> bookService.searchBookSummariesFullText(query, limit));
+    }
+
+    // Как и forEachBook: поток сводок читается целиком внутри задачи
+    @Override
+    public CompletableFuture<Long> forEachBookSummary(Consumer<? super BookSummary> action) {
+        return submit(() -> forEach(bookService.streamAllBookSummaries(), action));
+    }
+
+    private static <T> long forEach(Stream<T> stream, Consumer<? super T> action) {
+        long count = 0;
+        try (stream) {
+            for (T item : (Iterable<T>) stream::iterator) {
+                action.accept(item);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(() -> connectionSlots.call(operation), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Too many operations waiting for a database slot", e));
+        }
+    }
+}
@@ -17,11 +17,13 @@ public class AuthorServiceImpl implements AuthorService {
     private final AuthorDao authorDao;
     
     @Override
+    @Transactional(readOnly = true)
     public List<Author> getAllAuthors() {
         return authorDao.findAll();
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Optional<Author> getAuthorById(Long id) {
         return authorDao.findById(id);
     }
@@ -57,7 +59,30 @@ public class AuthorServiceImpl implements AuthorService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Optional<Author> findAuthorByFullName(String firstName, String lastName) {
         return authorDao.findByFullName(firstName, lastName);
     }
+
+    
+    // afterId - id последнего показанного автора, ключ страницы берётся из него
+    @Override
+    @Transactional(readOnly = true)
+    public List<Author> getAuthorsPage(Long afterId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        if (afterId == null) {
+            return authorDao.findPage(null, null, null, pageSize);
+        }
+        Author after = authorDao.findById(afterId)
+            .orElseThrow(() -> new IllegalArgumentException("Author not found with id: " + afterId));
+        return authorDao.findPage(after.getLastName(), after.getFirstName(), after.getId(), pageSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateAuthorsCount() {
+        return authorDao.estimateCount();
+    }
 }
\ No newline at end of file
@@ -1,6 +1,12 @@
 package ru.diasoft.spring.service.impl;
 
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.diasoft.spring.dao.AuthorDao;
@@ -8,11 +14,25 @@ import ru.diasoft.spring.dao.BookDao;
 import ru.diasoft.spring.dao.GenreDao;
 import ru.diasoft.spring.domain.Author;
 import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookDraft;
+import ru.diasoft.spring.domain.BookSummary;
 import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.retry.OptimisticLockRetry;
+import ru.diasoft.spring.service.BookImportResult;
+import ru.diasoft.spring.search.TitleSearchCache;
+import ru.diasoft.spring.search.TitleTrigramIndex;
 import ru.diasoft.spring.service.BookService;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,13 +41,22 @@ public class BookServiceImpl implements BookService {
     private final BookDao bookDao;
     private final AuthorDao authorDao;
     private final GenreDao genreDao;
+    private final TitleTrigramIndex titleIndex;
+    // Нет, если кэши DAO выключены (library.cache.enabled=false)
+    private final ObjectProvider<TitleSearchCache> titleSearchCache;
+    private final OptimisticLockRetry retry;
+
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_NAME_LENGTH = 100;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
         return bookDao.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Book> getBookById(Long id) {
         return bookDao.findById(id);
     }
@@ -35,23 +64,8 @@ public class BookServiceImpl implements BookService {
     @Override
     @Transactional
     public Book createBook(String title, String authorFirstName, String authorLastName, String genreName) {
-        // Find or create author
-        Author author = authorDao.findByFullName(authorFirstName, authorLastName)
-                .orElseGet(() -> {
-                    Author newAuthor = new Author();
-                    newAuthor.setFirstName(authorFirstName);
-                    newAuthor.setLastName(authorLastName);
-                    newAuthor.setAge(null);
-                    return authorDao.save(newAuthor);
-                });
-
-        // Find or create genre
-        Genre genre = genreDao.findByName(genreName)
-                .orElseGet(() -> {
-                    Genre newGenre = new Genre();
-                    newGenre.setName(genreName);
-                    return genreDao.save(newGenre);
-                });
+        Author author = findOrCreateAuthor(authorFirstName, authorLastName);
+        Genre genre = findOrCreateGenre(genreName);
 
         // Create book with Author and Genre objects
         Book book = new Book();
@@ -59,7 +73,9 @@ public class BookServiceImpl implements BookService {
         book.setAuthor(author);
         book.setGenre(genre);
 
-        return bookDao.save(book);
+        Book saved = bookDao.save(book);
+        titleIndex.put(saved.getId(), saved.getTitle());
+        return saved;
     }
 
     @Override
@@ -68,23 +84,8 @@ public class BookServiceImpl implements BookService {
         Book book = bookDao.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + id));
 
-        // Find or create author
-        Author author = authorDao.findByFullName(authorFirstName, authorLastName)
-                .orElseGet(() -> {
-                    Author newAuthor = new Author();
-                    newAuthor.setFirstName(authorFirstName);
-                    newAuthor.setLastName(authorLastName);
-                    newAuthor.setAge(null);
-                    return authorDao.save(newAuthor);
-                });
-
-        // Find or create genre
-        Genre genre = genreDao.findByName(genreName)
-                .orElseGet(() -> {
-                    Genre newGenre = new Genre();
-                    newGenre.setName(genreName);
-                    return genreDao.save(newGenre);
-                });
+        Author author = findOrCreateAuthor(authorFirstName, authorLastName);
+        Genre genre = findOrCreateGenre(genreName);
 
         // Update book
         book.setTitle(title);
@@ -92,6 +93,7 @@ public class BookServiceImpl implements BookService {
         book.setGenre(genre);
 
         bookDao.update(book);
+        titleIndex.put(book.getId(), book.getTitle());
         return book;
     }
 
@@ -99,14 +101,38 @@ public class BookServiceImpl implements BookService {
     @Transactional
     public void deleteBook(Long id) {
         bookDao.deleteById(id);
+        titleIndex.remove(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Book> findBooksByTitle(String title) {
+        TitleSearchCache cache = titleSearchCache.getIfAvailable();
+        return cache == null ? searchBooksByTitle(title) : cache.findBooks(title, this::searchBooksByTitle);
+    }
+
+    // Индекс триграмм отдаёт отранжированные id, книги читаются одним запросом; короткие запросы - через LIKE
+    private List<Book> searchBooksByTitle(String title) {
+        if (titleIndex.supports(title)) {
+            return bookDao.findAllByIds(titleIndex.search(title));
+        }
         return bookDao.findByTitle(title);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Book> searchBooksFullText(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        return bookDao.searchFullText(query.trim(), limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Book> findBooksByAuthor(String firstName, String lastName) {
         Optional<Author> author = authorDao.findByFullName(firstName, lastName);
         if (author.isEmpty()) {
@@ -116,6 +142,7 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Book> findBooksByGenre(String genreName) {
         Optional<Genre> genre = genreDao.findByName(genreName);
         if (genre.isEmpty()) {
@@ -132,6 +159,251 @@ public class BookServiceImpl implements BookService {
         book.setTitle(title);
         book.setAuthor(author);
         book.setGenre(genre);
-        return bookDao.save(book);
+        Book saved = bookDao.save(book);
+        titleIndex.put(saved.getId(), saved.getTitle());
+        return saved;
+    }
+
+    // afterId - id последней показанной книги, ключ страницы берётся из неё
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> getBooksPage(Long afterId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        if (afterId == null) {
+            return bookDao.findPage(null, null, pageSize);
+        }
+        Book after = bookDao.findById(afterId)
+                .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + afterId));
+        return bookDao.findPage(after.getTitle(), after.getId(), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateBooksCount() {
+        return bookDao.estimateCount();
+    }
+
+    // Вызывающий код обязан закрыть поток, чтобы вернуть соединение в пул.
+    // Без @Transactional: транзакция завершилась бы на выходе из метода и отдала соединение, пока поток ещё читает
+    @Override
+    public Stream<Book> streamAllBooks() {
+        return bookDao.streamAll();
+    }
+
+    // Списки и поиск для вывода: те же выборки, что и выше, но плоскими строками BookSummary
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookSummary> getBookSummariesPage(Long afterId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        if (afterId == null) {
+            return bookDao.findSummaryPage(null, null, pageSize);
+        }
+        Book after = bookDao.findById(afterId)
+                .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + afterId));
+        return bookDao.findSummaryPage(after.getTitle(), after.getId(), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookSummary> findBookSummariesByTitle(String title) {
+        TitleSearchCache cache = titleSearchCache.getIfAvailable();
+        return cache == null ? searchSummariesByTitle(title) : cache.findSummaries(title, this::searchSummariesByTitle);
+    }
+
+    private List<BookSummary> searchSummariesByTitle(String title) {
+        if (titleIndex.supports(title)) {
+            return bookDao.findSummariesByIds(titleIndex.search(title));
+        }
+        return bookDao.findSummariesByTitle(title);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookSummary> searchBookSummariesFullText(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        return bookDao.searchFullTextSummaries(query.trim(), limit);
+    }
+
+    // Вызывающий код обязан закрыть поток, чтобы вернуть соединение в пул.
+    // Без @Transactional: транзакция завершилась бы на выходе из метода и отдала соединение, пока поток ещё читает
+    @Override
+    public Stream<BookSummary> streamAllBookSummaries() {
+        return bookDao.streamAllSummaries();
+    }
+
+    // Весь набор - одна транзакция и несколько statement-ов независимо от размера: по IN-запросу на авторов и жанры,
+    // batch-вставки недостающих и один batch книг. Невалидный черновик отклоняет весь набор
+    @Override
+    @Transactional
+    public List<Book> createBooks(List<BookDraft> drafts) {
+        for (int i = 0; i < drafts.size(); i++) {
+            if (!isValid(drafts.get(i))) {
+                throw new IllegalArgumentException("Invalid book draft at position " + i + ": " + drafts.get(i));
+            }
+        }
+        if (drafts.isEmpty()) {
+            return List.of();
+        }
+        return saveDrafts(drafts);
+    }
+
+    // CSV: title;author_first_name;author_last_name;genre, первая строка - заголовок.
+    // Каждый chunk сохраняется в своей транзакции; если chunk не записался, все его строки считаются отклонёнными.
+    @Override
+    public BookImportResult importBooks(Reader csv, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        long started = System.nanoTime();
+        long imported = 0;
+        long rejected = 0;
+
+        List<BookDraft> chunk = new ArrayList<>(chunkSize);
+        try (CSVReader reader = new CSVReaderBuilder(csv)
+                .withCSVParser(new CSVParserBuilder().withSeparator(';').build())
+                .withSkipLines(1)
+                .build()) {
+            while (true) {
+                String[] row;
+                try {
+                    row = reader.readNext();
+                } catch (CsvValidationException e) {
+                    rejected++;
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+
+                BookDraft draft = toDraft(row);
+                if (draft == null) {
+                    rejected++;
+                    continue;
+                }
+                chunk.add(draft);
+                if (chunk.size() == chunkSize) {
+                    int saved = importChunk(chunk);
+                    imported += saved;
+                    rejected += chunk.size() - saved;
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                int saved = importChunk(chunk);
+                imported += saved;
+                rejected += chunk.size() - saved;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read books CSV", e);
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new BookImportResult(imported, rejected, elapsedMillis);
+    }
+
+    // Параллельный импорт может вставить того же нового автора или жанр первым: chunk повторяется
+    // и на следующей попытке находит уже зафиксированную строку, а не отклоняется целиком
+    private int importChunk(List<BookDraft> chunk) {
+        try {
+            retry.executeOnDuplicateKey(() -> saveDrafts(chunk));
+            return chunk.size();
+        } catch (DataAccessException e) {
+            return 0;
+        }
+    }
+
+    private BookDraft toDraft(String[] row) {
+        if (row.length != 4) {
+            return null;
+        }
+        BookDraft draft = new BookDraft(row[0].trim(), row[1].trim(), row[2].trim(), row[3].trim());
+        return isValid(draft) ? draft : null;
+    }
+
+    private boolean isValid(BookDraft draft) {
+        return draft != null
+                && isValidText(draft.title(), MAX_TITLE_LENGTH)
+                && isValidText(draft.authorFirstName(), MAX_NAME_LENGTH)
+                && isValidText(draft.authorLastName(), MAX_NAME_LENGTH)
+                && isValidText(draft.genreName(), MAX_NAME_LENGTH);
+    }
+
+    private boolean isValidText(String value, int maxLength) {
+        return value != null && !value.isBlank() && value.length() <= maxLength;
+    }
+
+    // Существующие автор и жанр читаются без блокировок (обычно из кэша), недостающие создаются findOrCreate:
+    // две транзакции, одновременно не нашедшие автора, получат одну и ту же строку
+    private Author findOrCreateAuthor(String firstName, String lastName) {
+        return authorDao.findByFullName(firstName, lastName)
+                .orElseGet(() -> authorDao.findOrCreate(firstName, lastName));
+    }
+
+    private Genre findOrCreateGenre(String name) {
+        return genreDao.findByName(name)
+                .orElseGet(() -> genreDao.findOrCreate(name));
+    }
+
+    // Авторы и жанры всего набора ищутся одним IN-запросом, недостающие вставляются batch-ем, затем batch книг
+    private List<Book> saveDrafts(List<BookDraft> drafts) {
+        Map<List<String>, Author> authors = resolveAuthors(drafts);
+        Map<String, Genre> genres = resolveGenres(drafts);
+
+        List<Book> books = new ArrayList<>(drafts.size());
+        for (BookDraft draft : drafts) {
+            books.add(new Book(
+                    null,
+                    draft.title(),
+                    authors.get(List.of(draft.authorFirstName(), draft.authorLastName())),
+                    genres.get(draft.genreName())
+            ));
+        }
+        List<Book> saved = bookDao.saveAll(books);
+        saved.forEach(book -> titleIndex.put(book.getId(), book.getTitle()));
+        return saved;
+    }
+
+    private Map<List<String>, Author> resolveAuthors(List<BookDraft> drafts) {
+        Map<List<String>, Author> authors = new LinkedHashMap<>();
+        for (BookDraft draft : drafts) {
+            authors.computeIfAbsent(
+                    List.of(draft.authorFirstName(), draft.authorLastName()),
+                    key -> new Author(null, draft.authorLastName(), draft.authorFirstName(), null));
+        }
+        for (Author existing : authorDao.findByFullNames(authors.values())) {
+            authors.put(List.of(existing.getFirstName(), existing.getLastName()), existing);
+        }
+        // Одинаковый порядок вставки у параллельных импортов: они ждут друг друга на первом общем ключе, а не взаимно
+        List<Author> missing = authors.values().stream()
+                .filter(author -> author.getId() == null)
+                .sorted(Comparator.comparing(Author::getLastName).thenComparing(Author::getFirstName))
+                .toList();
+        authorDao.saveAll(missing);
+        return authors;
+    }
+
+    private Map<String, Genre> resolveGenres(List<BookDraft> drafts) {
+        Map<String, Genre> genres = new LinkedHashMap<>();
+        for (BookDraft draft : drafts) {
+            genres.computeIfAbsent(draft.genreName(), name -> new Genre(null, name));
+        }
+        for (Genre existing : genreDao.findByNames(genres.keySet())) {
+            genres.put(existing.getName(), existing);
+        }
+        List<Genre> missing = genres.values().stream()
+                .filter(genre -> genre.getId() == null)
+                .sorted(Comparator.comparing(Genre::getName))
+                .toList();
+        genreDao.saveAll(missing);
+        return genres;
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package ru.diasoft.spring.service.impl;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import ru.diasoft.spring.config.ExportProperties;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.domain.BookSummary;
+import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.export.CatalogFileWriter;
+import ru.diasoft.spring.export.CatalogFormat;
+import ru.diasoft.spring.service.CatalogExportResult;
+import ru.diasoft.spring.service.CatalogExportService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Выгрузка каталога потоком из курсора прямо в файл: в памяти одна строка и буферы записи.
+// В режиме "файл на жанр" жанры выгружаются параллельно на отдельном пуле из parallelism потоков,
+// и каждый курсор занимает слот общего ConnectionSlots наравне с асинхронными операциями
+@Service
+public class CatalogExportServiceImpl implements CatalogExportService {
+
+    private static final String NO_GENRE_FILE = "no-genre";
+
+    private final BookDao bookDao;
+    private final GenreDao genreDao;
+    private final Executor executor;
+    private final ConnectionSlots connectionSlots;
+    private final int bufferSize;
+
+    public CatalogExportServiceImpl(BookDao bookDao, GenreDao genreDao,
+                                    @Qualifier("exportTaskExecutor") Executor executor,
+                                    ConnectionSlots connectionSlots,
+                                    ExportProperties properties) {
+        this.bookDao = bookDao;
+        this.genreDao = genreDao;
+        this.executor = executor;
+        this.connectionSlots = connectionSlots;
+        this.bufferSize = Math.toIntExact(properties.getBufferSize().toBytes());
+    }
+
+    @Override
+    public CatalogExportResult export(CatalogFormat format, Path out, boolean gzip) {
+        long started = System.nanoTime();
+        long rows = writeFile(out, format, gzip, bookDao::streamAllSummaries);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new CatalogExportResult(rows, 1, sizeOf(out), elapsedMillis);
+    }
+
+    // Файл genre-<id>.<формат>[.gz] на каждый жанр и no-genre.<формат> для книг без жанра
+    @Override
+    public CatalogExportResult exportByGenre(CatalogFormat format, Path directory, boolean gzip) {
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create export directory " + directory, e);
+        }
+        String suffix = "." + format.extension() + (gzip ? ".gz" : "");
+
+        List<Path> files = new ArrayList<>();
+        List<CompletableFuture<Long>> exports = new ArrayList<>();
+        for (Genre genre : genreDao.findAll()) {
+            Path file = directory.resolve("genre-" + genre.getId() + suffix);
+            files.add(file);
+            exports.add(submit(() -> writeFile(file, format, gzip,
+                    () -> bookDao.streamSummariesByGenreId(genre.getId()))));
+        }
+        Path noGenre = directory.resolve(NO_GENRE_FILE + suffix);
+        files.add(noGenre);
+        exports.add(submit(() -> writeFile(noGenre, format, gzip,
+                () -> bookDao.streamSummariesByGenreId(null))));
+
+        long rows = 0;
+        try {
+            for (CompletableFuture<Long> export : exports) {
+                rows += export.join();
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        long bytes = files.stream().mapToLong(CatalogExportServiceImpl::sizeOf).sum();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new CatalogExportResult(rows, files.size(), bytes, elapsedMillis);
+    }
+
+    private long writeFile(Path file, CatalogFormat format, boolean gzip, Supplier<Stream<BookSummary>> source) {
+        try (CatalogFileWriter writer = CatalogFileWriter.open(file, format, gzip, bufferSize);
+             Stream<BookSummary> books = source.get()) {
+            for (BookSummary book : (Iterable<BookSummary>) books::iterator) {
+                writer.write(book);
+            }
+            return writer.rows();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export catalog to " + file, e);
+        }
+    }
+
+    private CompletableFuture<Long> submit(Supplier<Long> export) {
+        return CompletableFuture.supplyAsync(() -> connectionSlots.call(export), executor);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read size of " + file, e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ru.diasoft.spring.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.generator.CatalogVocabulary;
+import ru.diasoft.spring.generator.ZipfSampler;
+import ru.diasoft.spring.retry.OptimisticLockRetry;
+import ru.diasoft.spring.search.TitleTrigramIndex;
+import ru.diasoft.spring.service.CatalogGenerationResult;
+import ru.diasoft.spring.service.CatalogGeneratorService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Синтетический каталог для нагрузочных тестов. Один и тот же seed даёт тех же авторов, жанры и книги.
+// Книги распределены по авторам и жанрам по закону Zipf: немного авторов с тысячами книг и длинный хвост
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogGeneratorServiceImpl implements CatalogGeneratorService {
+
+    private final BookDao bookDao;
+    private final AuthorDao authorDao;
+    private final GenreDao genreDao;
+    private final TransactionTemplate transactionTemplate;
+    private final TitleTrigramIndex titleIndex;
+    private final OptimisticLockRetry retry;
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final int BOOK_CHUNK_SIZE = 10_000;
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final long PROGRESS_INTERVAL = 1_000_000;
+
+    @Override
+    public CatalogGenerationResult generate(int authors, int genres, long books, long seed) {
+        if (authors <= 0) {
+            throw new IllegalArgumentException("Authors count must be positive: " + authors);
+        }
+        if (genres <= 0) {
+            throw new IllegalArgumentException("Genres count must be positive: " + genres);
+        }
+        if (books < 0) {
+            throw new IllegalArgumentException("Books count must not be negative: " + books);
+        }
+        long started = System.nanoTime();
+
+        List<Genre> savedGenres = retry.executeOnDuplicateKey(() -> resolveGenres(genres));
+        List<Author> savedAuthors = resolveAuthors(authors, seed);
+
+        // Ранг Zipf - индекс в списке: жанры упорядочены по популярности, авторы уже перемешаны генератором
+        ZipfSampler authorSampler = new ZipfSampler(savedAuthors.size(), ZIPF_EXPONENT);
+        ZipfSampler genreSampler = new ZipfSampler(savedGenres.size(), ZIPF_EXPONENT);
+        SplittableRandom random = new SplittableRandom(seed + 1);
+
+        List<Book> chunk = new ArrayList<>((int) Math.min(books, BOOK_CHUNK_SIZE));
+        for (long generated = 0; generated < books; ) {
+            chunk.clear();
+            int size = (int) Math.min(BOOK_CHUNK_SIZE, books - generated);
+            for (int i = 0; i < size; i++) {
+                chunk.add(new Book(
+                        null,
+                        CatalogVocabulary.title(random),
+                        savedAuthors.get(authorSampler.sample(random)),
+                        savedGenres.get(genreSampler.sample(random))
+                ));
+            }
+            transactionTemplate.executeWithoutResult(status -> bookDao.saveAll(chunk)
+                    .forEach(book -> titleIndex.put(book.getId(), book.getTitle())));
+
+            long before = generated;
+            generated += size;
+            if (generated / PROGRESS_INTERVAL > before / PROGRESS_INTERVAL) {
+                log.info("Catalog generation: {} of {} books", generated, books);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new CatalogGenerationResult(savedAuthors.size(), savedGenres.size(), books, elapsedMillis);
+    }
+
+    private List<Genre> resolveGenres(int count) {
+        Map<String, Genre> genres = new LinkedHashMap<>();
+        for (String name : CatalogVocabulary.genreNames(count)) {
+            genres.put(name, new Genre(null, name));
+        }
+        for (Genre existing : genreDao.findByNames(genres.keySet())) {
+            genres.put(existing.getName(), existing);
+        }
+        genreDao.saveAll(genres.values().stream()
+                .filter(genre -> genre.getId() == null)
+                .toList());
+        return new ArrayList<>(genres.values());
+    }
+
+    // Повторный запуск с тем же seed переиспользует уже созданных авторов, а не плодит однофамильцев
+    private List<Author> resolveAuthors(int count, long seed) {
+        List<Author> generated = CatalogVocabulary.authors(count, seed);
+        List<Author> resolved = new ArrayList<>(count);
+        for (int from = 0; from < generated.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Author> chunk = generated.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, generated.size()));
+            resolved.addAll(retry.executeOnDuplicateKey(() -> resolveAuthorsChunk(chunk)));
+        }
+        return resolved;
+    }
+
+    // Параллельный генератор или импорт может вставить тех же авторов первым: chunk повторяется целиком,
+    // поэтому в saveAll уходят копии - id из откатившейся попытки на следующую не переходят
+    private List<Author> resolveAuthorsChunk(List<Author> chunk) {
+        Map<List<String>, Author> authors = new LinkedHashMap<>();
+        for (Author author : chunk) {
+            authors.put(List.of(author.getFirstName(), author.getLastName()),
+                    new Author(null, author.getLastName(), author.getFirstName(), author.getAge()));
+        }
+        for (Author existing : authorDao.findByFullNames(authors.values())) {
+            authors.put(List.of(existing.getFirstName(), existing.getLastName()), existing);
+        }
+        authorDao.saveAll(authors.values().stream()
+                .filter(author -> author.getId() == null)
+                .toList());
+        return new ArrayList<>(authors.values());
+    }
+}
@@ -0,0 +1,62 @@
+package ru.diasoft.spring.service.impl;
+
+import org.springframework.stereotype.Component;
+import ru.diasoft.spring.config.AsyncProperties;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Общий бюджет соединений для фоновых задач (асинхронные операции с книгами, выгрузка каталога):
+// вместе они держат не больше max-concurrent-queries соединений, сколько бы потоков ни было у их executor-ов.
+// Ждать слота могут не больше max-waiting задач, следующей сразу отказ - одинаково на пуле потоков и на виртуальных
+// потоках, у которых своего ограничения нет
+@Component
+public class ConnectionSlots {
+
+    private final Semaphore slots;
+    // Слоты плюс места ожидания; берётся без ожидания
+    private final Semaphore admissions;
+    private final Duration acquireTimeout;
+
+    public ConnectionSlots(AsyncProperties properties) {
+        if (properties.getMaxConcurrentQueries() <= 0) {
+            throw new IllegalArgumentException(
+                    "Max concurrent queries must be positive: " + properties.getMaxConcurrentQueries());
+        }
+        if (properties.getMaxWaiting() < 0) {
+            throw new IllegalArgumentException("Max waiting must not be negative: " + properties.getMaxWaiting());
+        }
+        this.slots = new Semaphore(properties.getMaxConcurrentQueries(), true);
+        this.admissions = new Semaphore(properties.getMaxConcurrentQueries() + properties.getMaxWaiting());
+        this.acquireTimeout = properties.getAcquireTimeout();
+    }
+
+    public <T> T call(Supplier<T> operation) {
+        if (!admissions.tryAcquire()) {
+            throw new IllegalStateException("Too many operations waiting for a database slot");
+        }
+        try {
+            try {
+                if (!slots.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("No free database slot within " + acquireTimeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a database slot", e);
+            }
+            try {
+                return operation.get();
+            } finally {
+                slots.release();
+            }
+        } finally {
+            admissions.release();
+        }
+    }
+
+    int waiting() {
+        return slots.getQueueLength();
+    }
+}
@@ -0,0 +1,182 @@
+package ru.diasoft.spring.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Service;
+import ru.diasoft.spring.dao.cache.DaoCache;
+import ru.diasoft.spring.dao.cache.WriteGeneration;
+import ru.diasoft.spring.replica.SnapshotReplication;
+import ru.diasoft.spring.search.TitleIndexLoader;
+import ru.diasoft.spring.service.BackupResult;
+import ru.diasoft.spring.service.DatabaseBackupService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.zip.GZIPInputStream;
+
+// Резервная копия - SQL-скрипт H2 (SCRIPT TO ... COMPRESSION GZIP). Он читает снимок MVCC и не блокирует
+// читателей, работает и для базы в памяти, и для файловой. BACKUP TO не подходит: он копирует файл .mv.db,
+// а восстановить такой архив можно только остановив базу.
+// Скрипт H2 уже откладывает ограничения: таблицы заполняются до создания индексов, уникальных ключей и триггеров,
+// внешние ключи добавляются с NOCHECK - повторной проверки загруженных строк нет
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DatabaseBackupServiceImpl implements DatabaseBackupService {
+
+    private static final String SCRIPT_HEADER = "-- H2 ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<DaoCache> daoCaches;
+    private final TitleIndexLoader titleIndexLoader;
+    private final ObjectProvider<SnapshotReplication> replication;
+    private final ObjectProvider<WriteGeneration> writeGeneration;
+
+    @Override
+    public BackupResult backup(Path out) {
+        long started = System.nanoTime();
+        try {
+            Path parent = out.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create backup directory for " + out, e);
+        }
+        // SCRIPT для H2 - запрос, executeUpdate (JdbcTemplate.update) он не принимает
+        jdbcTemplate.execute("SCRIPT TO ? COMPRESSION GZIP", (PreparedStatementCallback<Boolean>) ps -> {
+            ps.setString(1, out.toAbsolutePath().toString());
+            return ps.execute();
+        });
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new BackupResult(out, sizeOf(out), elapsedMillis);
+    }
+
+    // Все команды идут через одно соединение. Вставки между DDL скрипта коммитятся пачкой на таблицу, а не по строке.
+    // На время загрузки база переводится в SET EXCLUSIVE 1: запросы других соединений ждут её окончания,
+    // новые соединения отклоняются - читатели не видят пустую или наполовину загруженную схему.
+    // DDL в H2 фиксируется сразу, поэтому перед загрузкой текущее состояние сохраняется во временный скрипт,
+    // и при ошибке посреди восстановления база возвращается к нему.
+    // Кэши DAO, поколение данных и индекс триграмм помнят старые данные, поэтому после загрузки они сбрасываются
+    @Override
+    public BackupResult restore(Path from) {
+        checkIsBackup(from);
+        long started = System.nanoTime();
+        Path current = createTempScript();
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET EXCLUSIVE 1");
+                    try {
+                        runScript(connection, "SCRIPT TO ? COMPRESSION GZIP", current);
+                        load(connection, from, current);
+                    } finally {
+                        statement.execute("SET EXCLUSIVE 0");
+                    }
+                }
+                return null;
+            });
+        } finally {
+            deleteQuietly(current);
+        }
+        daoCaches.forEach(DaoCache::invalidateAll);
+        writeGeneration.ifAvailable(WriteGeneration::bump);
+        titleIndexLoader.buildIndex();
+        // restore идёт мимо транзакций Spring, поэтому локальную реплику догоняем явно
+        replication.ifAvailable(SnapshotReplication::replicate);
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Database restored from {} in {} ms", from, elapsedMillis);
+        return new BackupResult(from, sizeOf(from), elapsedMillis);
+    }
+
+    private static void load(Connection connection, Path from, Path current) throws SQLException {
+        try {
+            replaceAll(connection, from);
+        } catch (SQLException e) {
+            log.warn("Restore from {} failed, reloading the previous state: {}", from, e.getMessage());
+            try {
+                replaceAll(connection, current);
+            } catch (SQLException reloadFailure) {
+                e.addSuppressed(reloadFailure);
+            }
+            throw e;
+        }
+    }
+
+    private static void replaceAll(Connection connection, Path script) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            runScript(connection, "RUNSCRIPT FROM ? COMPRESSION GZIP", script);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void runScript(Connection connection, String sql, Path script) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, script.toAbsolutePath().toString());
+            ps.execute();
+        }
+    }
+
+    private static Path createTempScript() {
+        try {
+            return Files.createTempFile("library-before-restore-", ".sql.gz");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create a temporary file for restore", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // DROP ALL OBJECTS необратим, поэтому до него проверяем, что файл - сжатый скрипт H2
+    private static void checkIsBackup(Path file) {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Backup file not found: " + file);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String firstLine = reader.readLine();
+            if (firstLine == null || !firstLine.startsWith(SCRIPT_HEADER)) {
+                throw new IllegalArgumentException("Not an H2 backup script: " + file);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a gzip-compressed H2 backup script: " + file, e);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read size of " + file, e);
+        }
+    }
+}
@@ -17,11 +17,13 @@ public class GenreServiceImpl implements GenreService {
     private final GenreDao genreDao;
     
     @Override
+    @Transactional(readOnly = true)
     public List<Genre> getAllGenres() {
         return genreDao.findAll();
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Optional<Genre> getGenreById(Long id) {
         return genreDao.findById(id);
     }
@@ -52,7 +54,30 @@ public class GenreServiceImpl implements GenreService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Optional<Genre> findGenreByName(String name) {
         return genreDao.findByName(name);
     }
+
+    
+    // afterId - id последнего показанного жанра, ключ страницы берётся из него
+    @Override
+    @Transactional(readOnly = true)
+    public List<Genre> getGenresPage(Long afterId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        if (afterId == null) {
+            return genreDao.findPage(null, null, pageSize);
+        }
+        Genre after = genreDao.findById(afterId)
+            .orElseThrow(() -> new IllegalArgumentException("Genre not found with id: " + afterId));
+        return genreDao.findPage(after.getName(), after.getId(), pageSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateGenresCount() {
+        return genreDao.estimateCount();
+    }
 }
\ No newline at end of file
@@ -1,18 +1,42 @@
 package ru.diasoft.spring.shell;
 
 import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.jline.terminal.Terminal;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
 import org.springframework.shell.standard.ShellOption;
+import ru.diasoft.spring.dao.cache.DaoCache;
 import ru.diasoft.spring.domain.Author;
 import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
 import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.export.CatalogFormat;
+import ru.diasoft.spring.metrics.LibraryMetrics;
+import ru.diasoft.spring.retry.OptimisticLockRetry;
 import ru.diasoft.spring.service.AuthorService;
+import ru.diasoft.spring.service.BackupResult;
+import ru.diasoft.spring.service.BookImportResult;
 import ru.diasoft.spring.service.BookService;
+import ru.diasoft.spring.service.CatalogExportResult;
+import ru.diasoft.spring.service.CatalogExportService;
+import ru.diasoft.spring.service.CatalogGenerationResult;
+import ru.diasoft.spring.service.CatalogGeneratorService;
+import ru.diasoft.spring.service.DatabaseBackupService;
 import ru.diasoft.spring.service.GenreService;
 
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @ShellComponent
 @RequiredArgsConstructor
@@ -21,39 +45,87 @@ public class LibraryCommands {
     private final BookService bookService;
     private final AuthorService authorService;
     private final GenreService genreService;
+    private final CatalogGeneratorService catalogGenerator;
+    private final CatalogExportService catalogExport;
+    private final DatabaseBackupService backupService;
+    private final Terminal terminal;
+    private final ObjectProvider<DaoCache> daoCaches;
+    private final ObjectProvider<LibraryMetrics> libraryMetrics;
+    private final OptimisticLockRetry optimisticLockRetry;
+
+    private static final String DEFAULT_PAGE_SIZE = "20";
+    private static final int OUTPUT_FLUSH_INTERVAL = 1000;
 
     // Book Commands (CRUD - обязательные)
 
-    @ShellMethod(value = "List all books", key = {"books", "list-books"})
-    public String listBooks() {
-        List<Book> books = bookService.getAllBooks();
+    @ShellMethod(value = "List books page by page", key = {"books", "list-books"})
+    public String listBooks(
+            @ShellOption(value = "--page-size", defaultValue = DEFAULT_PAGE_SIZE) int pageSize,
+            @ShellOption(value = "--after", defaultValue = ShellOption.NULL) Long after,
+            @ShellOption(value = "--total", defaultValue = "false") boolean total,
+            @ShellOption(value = "--all", defaultValue = "false") boolean all) {
+
+        if (all) {
+            return printAllBooks();
+        }
+
+        List<BookSummary> books;
+        try {
+            books = bookService.getBookSummariesPage(after, pageSize);
+        } catch (IllegalArgumentException e) {
+            return "Error: " + e.getMessage();
+        }
         if (books.isEmpty()) {
-            return "No books found in the library.";
+            return after == null ? "No books found in the library." : "No more books.";
         }
 
         StringBuilder sb = new StringBuilder("Books in library:\n");
         for (int i = 0; i < books.size(); i++) {
-            Book book = books.get(i);
-            sb.append(i + 1)
-                    .append(". ID: ").append(book.getId())
-                    .append(", Title: '").append(book.getTitle()).append("'");
-
-            if (book.getAuthor() != null) {
-                sb.append(", Author: ").append(book.getAuthor().getFirstName())
-                        .append(" ").append(book.getAuthor().getLastName());
-            } else {
-                sb.append(", Author: Unknown");
-            }
+            appendBookLine(sb, i + 1, books.get(i));
+            sb.append("\n");
+        }
+        appendPageFooter(sb, "books", books.size(), pageSize, books.get(books.size() - 1).id(),
+                total ? bookService.estimateBooksCount() : null);
+        return sb.toString();
+    }
 
-            if (book.getGenre() != null) {
-                sb.append(", Genre: ").append(book.getGenre().getName());
-            } else {
-                sb.append(", Genre: Unknown");
+    // Весь каталог выводится в терминал построчно по мере чтения курсора, без сборки одной большой строки
+    private String printAllBooks() {
+        PrintWriter writer = terminal.writer();
+        StringBuilder line = new StringBuilder();
+        long count = 0;
+        try (Stream<BookSummary> books = bookService.streamAllBookSummaries()) {
+            Iterator<BookSummary> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                line.setLength(0);
+                appendBookLine(line, ++count, iterator.next());
+                writer.println(line);
+                if (count % OUTPUT_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
             }
+        }
+        writer.flush();
+        return count == 0 ? "No books found in the library." : "Total books: " + count;
+    }
 
-            sb.append("\n");
+    private void appendBookLine(StringBuilder sb, long number, BookSummary book) {
+        sb.append(number)
+                .append(". ID: ").append(book.id())
+                .append(", Title: '").append(book.title()).append("'");
+
+        if (book.authorLastName() != null) {
+            sb.append(", Author: ").append(book.authorFirstName())
+                    .append(" ").append(book.authorLastName());
+        } else {
+            sb.append(", Author: Unknown");
+        }
+
+        if (book.genreName() != null) {
+            sb.append(", Genre: ").append(book.genreName());
+        } else {
+            sb.append(", Genre: Unknown");
         }
-        return sb.toString();
     }
 
     @ShellMethod(value = "Get book by ID", key = {"get-book", "book"})
@@ -119,7 +191,9 @@ public class LibraryCommands {
             @ShellOption String genre) {
 
         try {
-            Book book = bookService.updateBook(id, title, authorFirstName, authorLastName, genre);
+            // Книгу могли изменить между чтением и записью: тогда правка применяется заново к свежей версии
+            Book book = optimisticLockRetry.execute(
+                    () -> bookService.updateBook(id, title, authorFirstName, authorLastName, genre));
             return String.format(
                     "Book updated successfully:\nID: %d\nTitle: %s\nAuthor: %s %s\nGenre: %s",
                     book.getId(),
@@ -128,7 +202,7 @@ public class LibraryCommands {
                     book.getAuthor() != null ? book.getAuthor().getLastName() : authorLastName,
                     book.getGenre() != null ? book.getGenre().getName() : genre
             );
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | OptimisticLockingFailureException e) {
             return "Error: " + e.getMessage();
         }
     }
@@ -143,27 +217,147 @@ public class LibraryCommands {
         }
     }
 
-    @ShellMethod(value = "Search books by title", key = {"search-books", "find-books"})
-    public String searchBooks(@ShellOption String title) {
-        List<Book> books = bookService.findBooksByTitle(title);
+    @ShellMethod(value = "Import books from CSV file (title;author_first_name;author_last_name;genre)", key = "import-books")
+    public String importBooks(
+            @ShellOption(value = "--file") String file,
+            @ShellOption(value = "--chunk-size", defaultValue = "1000") int chunkSize) {
+
+        try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+            BookImportResult result = bookService.importBooks(reader, chunkSize);
+            return String.format(
+                    "Import finished:\nImported: %d\nRejected: %d\nTime: %.1f s\nSpeed: %.0f rows/sec",
+                    result.imported(),
+                    result.rejected(),
+                    result.elapsedMillis() / 1000.0,
+                    result.rowsPerSecond()
+            );
+        } catch (Exception e) {
+            return "Error importing books: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(value = "Generate a synthetic catalog for load testing", key = "generate-catalog")
+    public String generateCatalog(
+            @ShellOption(value = "--authors", defaultValue = "1000") int authors,
+            @ShellOption(value = "--genres", defaultValue = "50") int genres,
+            @ShellOption(value = "--books", defaultValue = "100000") long books,
+            @ShellOption(value = "--seed", defaultValue = "42") long seed) {
+
+        try {
+            CatalogGenerationResult result = catalogGenerator.generate(authors, genres, books, seed);
+            return String.format(
+                    "Catalog generated:\nAuthors: %d\nGenres: %d\nBooks: %d\nTime: %.1f s\nSpeed: %.0f books/sec",
+                    result.authors(),
+                    result.genres(),
+                    result.books(),
+                    result.elapsedMillis() / 1000.0,
+                    result.booksPerSecond()
+            );
+        } catch (Exception e) {
+            return "Error generating catalog: " + e.getMessage();
+        }
+    }
+
+    // --by-genre: --out - каталог, в него параллельно пишется по файлу на жанр
+    @ShellMethod(value = "Export the catalog to CSV or JSON Lines (--format csv|jsonl)", key = "export-catalog")
+    public String exportCatalog(
+            @ShellOption(value = "--format", defaultValue = "csv") String format,
+            @ShellOption(value = "--out") String out,
+            @ShellOption(value = "--gzip", defaultValue = "false") boolean gzip,
+            @ShellOption(value = "--by-genre", defaultValue = "false") boolean byGenre) {
+
+        try {
+            CatalogFormat catalogFormat = CatalogFormat.fromName(format);
+            CatalogExportResult result = byGenre
+                    ? catalogExport.exportByGenre(catalogFormat, Path.of(out), gzip)
+                    : catalogExport.export(catalogFormat, Path.of(out), gzip);
+            return String.format(
+                    "Catalog exported:\nRows: %d\nFiles: %d\nSize: %.1f MB\nTime: %.1f s\nSpeed: %.0f rows/sec, %.1f MB/sec",
+                    result.rows(),
+                    result.files(),
+                    result.bytes() / (1024.0 * 1024.0),
+                    result.elapsedMillis() / 1000.0,
+                    result.rowsPerSecond(),
+                    result.megabytesPerSecond()
+            );
+        } catch (Exception e) {
+            return "Error exporting catalog: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(value = "Back up the database to a gzip-compressed SQL script", key = "backup")
+    public String backup(@ShellOption(value = "--out") String out) {
+        try {
+            BackupResult result = backupService.backup(Path.of(out));
+            return String.format(
+                    "Backup finished:\nFile: %s\nSize: %.1f MB\nTime: %.1f s\nSpeed: %.1f MB/sec",
+                    result.file().toAbsolutePath(),
+                    result.bytes() / (1024.0 * 1024.0),
+                    result.elapsedMillis() / 1000.0,
+                    result.megabytesPerSecond()
+            );
+        } catch (Exception e) {
+            return "Error backing up database: " + e.getMessage();
+        }
+    }
+
+    @ShellMethod(value = "Restore the database from a backup, replacing all current data; other queries wait until it finishes", key = "restore")
+    public String restore(@ShellOption(value = "--from") String from) {
+        try {
+            BackupResult result = backupService.restore(Path.of(from));
+            return String.format(
+                    "Restore finished:\nFile: %s\nSize: %.1f MB\nTime: %.1f s\nSpeed: %.1f MB/sec",
+                    result.file().toAbsolutePath(),
+                    result.bytes() / (1024.0 * 1024.0),
+                    result.elapsedMillis() / 1000.0,
+                    result.megabytesPerSecond()
+            );
+        } catch (Exception e) {
+            return "Error restoring database: " + e.getMessage();
+        }
+    }
+
+    // like - подстрока названия (индекс триграмм/LIKE), fulltext - слова названия и имени автора по индексу H2
+    @ShellMethod(value = "Search books by title (--mode like|fulltext)", key = {"search-books", "find-books"})
+    public String searchBooks(
+            @ShellOption String title,
+            @ShellOption(value = "--mode", defaultValue = "like") String mode,
+            @ShellOption(value = "--limit", defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+
+        List<BookSummary> books;
+        switch (mode.toLowerCase()) {
+            case "like" -> books = bookService.findBookSummariesByTitle(title);
+            case "fulltext" -> {
+                try {
+                    books = bookService.searchBookSummariesFullText(title, limit);
+                } catch (IllegalArgumentException e) {
+                    return "Error: " + e.getMessage();
+                }
+            }
+            default -> {
+                return "Error: unknown search mode '" + mode + "', expected like or fulltext";
+            }
+        }
         if (books.isEmpty()) {
-            return "No books found with title containing: " + title;
+            return "fulltext".equalsIgnoreCase(mode)
+                    ? "No books found matching: " + title
+                    : "No books found with title containing: " + title;
         }
 
         StringBuilder sb = new StringBuilder("Found books:\n");
         for (int i = 0; i < books.size(); i++) {
-            Book book = books.get(i);
+            BookSummary book = books.get(i);
             sb.append(i + 1)
-                    .append(". ID: ").append(book.getId())
-                    .append(", Title: '").append(book.getTitle()).append("'");
+                    .append(". ID: ").append(book.id())
+                    .append(", Title: '").append(book.title()).append("'");
 
-            if (book.getAuthor() != null) {
-                sb.append(", Author: ").append(book.getAuthor().getFirstName())
-                        .append(" ").append(book.getAuthor().getLastName());
+            if (book.authorLastName() != null) {
+                sb.append(", Author: ").append(book.authorFirstName())
+                        .append(" ").append(book.authorLastName());
             }
 
-            if (book.getGenre() != null) {
-                sb.append(", Genre: ").append(book.getGenre().getName());
+            if (book.genreName() != null) {
+                sb.append(", Genre: ").append(book.genreName());
             }
 
             sb.append("\n");
@@ -173,11 +367,20 @@ public class LibraryCommands {
 
     // Author Commands
 
-    @ShellMethod(value = "List all authors", key = {"authors", "list-authors"})
-    public String listAuthors() {
-        List<Author> authors = authorService.getAllAuthors();
+    @ShellMethod(value = "List authors page by page", key = {"authors", "list-authors"})
+    public String listAuthors(
+            @ShellOption(value = "--page-size", defaultValue = DEFAULT_PAGE_SIZE) int pageSize,
+            @ShellOption(value = "--after", defaultValue = ShellOption.NULL) Long after,
+            @ShellOption(value = "--total", defaultValue = "false") boolean total) {
+
+        List<Author> authors;
+        try {
+            authors = authorService.getAuthorsPage(after, pageSize);
+        } catch (IllegalArgumentException e) {
+            return "Error: " + e.getMessage();
+        }
         if (authors.isEmpty()) {
-            return "No authors found.";
+            return after == null ? "No authors found." : "No more authors.";
         }
 
         StringBuilder sb = new StringBuilder("Authors:\n");
@@ -189,6 +392,8 @@ public class LibraryCommands {
               .append(", Age: ").append(author.getAge() != null ? author.getAge() : "N/A")
               .append("\n");
         }
+        appendPageFooter(sb, "authors", authors.size(), pageSize, authors.get(authors.size() - 1).getId(),
+                total ? authorService.estimateAuthorsCount() : null);
         return sb.toString();
     }
 
@@ -208,11 +413,20 @@ public class LibraryCommands {
 
     // Genre Commands
 
-    @ShellMethod(value = "List all genres", key = {"genres", "list-genres"})
-    public String listGenres() {
-        List<Genre> genres = genreService.getAllGenres();
+    @ShellMethod(value = "List genres page by page", key = {"genres", "list-genres"})
+    public String listGenres(
+            @ShellOption(value = "--page-size", defaultValue = DEFAULT_PAGE_SIZE) int pageSize,
+            @ShellOption(value = "--after", defaultValue = ShellOption.NULL) Long after,
+            @ShellOption(value = "--total", defaultValue = "false") boolean total) {
+
+        List<Genre> genres;
+        try {
+            genres = genreService.getGenresPage(after, pageSize);
+        } catch (IllegalArgumentException e) {
+            return "Error: " + e.getMessage();
+        }
         if (genres.isEmpty()) {
-            return "No genres found.";
+            return after == null ? "No genres found." : "No more genres.";
         }
 
         StringBuilder sb = new StringBuilder("Genres:\n");
@@ -223,6 +437,8 @@ public class LibraryCommands {
               .append(", Name: ").append(genre.getName())
               .append("\n");
         }
+        appendPageFooter(sb, "genres", genres.size(), pageSize, genres.get(genres.size() - 1).getId(),
+                total ? genreService.estimateGenresCount() : null);
         return sb.toString();
     }
 
@@ -231,4 +447,75 @@ public class LibraryCommands {
         Genre genre = genreService.createGenre(name);
         return String.format("Genre created successfully:\nID: %d\nName: %s", genre.getId(), genre.getName());
     }
+
+    // Cache Commands
+
+    @ShellMethod(value = "Show author/genre/book/title-search cache statistics", key = "cache-stats")
+    public String cacheStats() {
+        StringBuilder sb = new StringBuilder();
+        daoCaches.orderedStream().forEach(cache -> {
+            CacheStats stats = cache.stats();
+            sb.append(cache.getName())
+              .append(": size=").append(cache.size())
+              .append(", hits=").append(stats.hitCount())
+              .append(", misses=").append(stats.missCount())
+              .append(String.format(", hit rate=%.1f%%", stats.hitRate() * 100))
+              .append(", evictions=").append(stats.evictionCount())
+              .append("\n");
+        });
+        return sb.length() == 0 ? "DAO caches are disabled." : sb.toString();
+    }
+
+    // Перцентили по скользящему окну (library.metrics.percentile-window), счётчики - с последнего сброса
+    @ShellMethod(value = "Show DAO/service latency percentiles, rows returned, errors and cache hit ratios", key = "stats")
+    public String stats(@ShellOption(value = "--reset", defaultValue = "false") boolean reset) {
+        LibraryMetrics metrics = libraryMetrics.getIfAvailable();
+        if (metrics == null) {
+            return "Metrics are disabled.";
+        }
+        List<LibraryMetrics.MethodStats> stats = metrics.snapshot();
+        if (reset) {
+            metrics.reset();
+        }
+        if (stats.isEmpty()) {
+            return reset ? "Statistics reset." : "No calls recorded yet.";
+        }
+
+        StringBuilder sb = new StringBuilder(String.format("%-40s %8s %9s %9s %9s %9s %9s %7s%n",
+                "method", "calls", "p50 ms", "p95 ms", "p99 ms", "max ms", "rows p95", "errors"));
+        for (LibraryMetrics.MethodStats method : stats) {
+            String rows = Double.isNaN(method.rowsP95()) ? "-" : String.format("%.0f", method.rowsP95());
+            sb.append(String.format("%-40s %8d %9.3f %9.3f %9.3f %9.3f %9s %7d%n",
+                    method.name(), method.calls(), method.p50Millis(), method.p95Millis(), method.p99Millis(),
+                    method.maxMillis(), rows, method.errors()));
+        }
+        appendCacheHitRatios(sb);
+        if (reset) {
+            sb.append("Statistics reset.\n");
+        }
+        return sb.toString();
+    }
+
+    // Статистика кэшей копится с запуска, --reset её не сбрасывает; подробности - cache-stats
+    private void appendCacheHitRatios(StringBuilder sb) {
+        String ratios = daoCaches.orderedStream()
+                .map(cache -> String.format("%s %.1f%%", cache.getName(), cache.stats().hitRate() * 100))
+                .collect(Collectors.joining(", "));
+        if (!ratios.isEmpty()) {
+            sb.append("Cache hit ratio since start: ").append(ratios).append("\n");
+        }
+    }
+
+    // Подсказка для следующей страницы и, по запросу, оценка общего количества
+    private void appendPageFooter(StringBuilder sb, String command, int shown, int pageSize,
+                                  Long lastId, Long estimatedTotal) {
+        if (estimatedTotal != null) {
+            sb.append("Total (estimate): ~").append(estimatedTotal).append("\n");
+        }
+        if (shown == pageSize) {
+            sb.append("Next page: ").append(command)
+              .append(" --page-size ").append(pageSize)
+              .append(" --after ").append(lastId).append("\n");
+        }
+    }
 }
\ No newline at end of file
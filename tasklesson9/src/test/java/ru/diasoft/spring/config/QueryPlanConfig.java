@@ -0,0 +1,145 @@
+package ru.diasoft.spring.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Оборачивает DataSource и запоминает SQL и параметры каждого prepared statement,
+// чтобы потом выполнить для них EXPLAIN с теми же значениями
+@TestConfiguration
+public class QueryPlanConfig {
+
+    public record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    public static class StatementRecorder {
+        private final List<CapturedStatement> statements = new ArrayList<>();
+        private boolean recording;
+
+        public synchronized void start() {
+            statements.clear();
+            recording = true;
+        }
+
+        public synchronized List<CapturedStatement> stop() {
+            recording = false;
+            return List.copyOf(statements);
+        }
+
+        synchronized void record(CapturedStatement statement) {
+            if (recording) {
+                statements.add(statement);
+            }
+        }
+
+        // План запроса в том виде, в каком его печатает H2 (EXPLAIN)
+        public String explain(Connection connection, CapturedStatement statement) throws SQLException {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                    explain.setObject(parameter.getKey(), parameter.getValue());
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    @Bean
+    public static StatementRecorder statementRecorder() {
+        return new StatementRecorder();
+    }
+
+    @Bean
+    public static BeanPostProcessor queryPlanDataSourcePostProcessor(StatementRecorder recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)) {
+                    return new RecordingDataSource(dataSource, recorder);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class RecordingDataSource extends DelegatingDataSource {
+        private final StatementRecorder recorder;
+
+        RecordingDataSource(DataSource target, StatementRecorder recorder) {
+            super(target);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().equals("prepareStatement")) {
+                            return wrap((PreparedStatement) result, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        // Параметры копятся по мере setXxx и фиксируются при выполнении (или addBatch для пакетов)
+        private PreparedStatement wrap(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("setNull")) {
+                            parameters.put((Integer) args[0], null);
+                        } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                            parameters.put(index, args[1]);
+                        } else if (name.equals("clearParameters")) {
+                            parameters.clear();
+                        } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                            recorder.record(new CapturedStatement(sql, Collections.unmodifiableMap(new TreeMap<>(parameters))));
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.diasoft.spring.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Оборачивает DataSource и считает все statement-ы, созданные через его соединения
+@TestConfiguration
+public class StatementCountingConfig {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    public static class StatementCounter {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public void reset() {
+            count.set(0);
+        }
+
+        public int get() {
+            return count.get();
+        }
+
+        void increment() {
+            count.incrementAndGet();
+        }
+    }
+
+    @Bean
+    public static StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(StatementCounter counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+                    return new CountingDataSource(dataSource, counter);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class CountingDataSource extends DelegatingDataSource {
+        private final StatementCounter counter;
+
+        CountingDataSource(DataSource target, StatementCounter counter) {
+            super(target);
+            this.counter = counter;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (STATEMENT_METHODS.contains(method.getName())) {
+                            counter.increment();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
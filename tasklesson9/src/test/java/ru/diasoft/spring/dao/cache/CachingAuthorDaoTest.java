@@ -0,0 +1,155 @@
+package ru.diasoft.spring.dao.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.domain.Author;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование CachingAuthorDao")
+class CachingAuthorDaoTest {
+
+    @Mock
+    private AuthorDao delegate;
+
+    private EntityCache<Author> cache;
+
+    private CachingAuthorDao authorDao;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EntityCache<>("authors", 100, null,
+                Author::getId, CachingAuthorDao::fullNameKey, CachingAuthorDao::copy);
+        authorDao = new CachingAuthorDao(delegate, cache, new BookAggregateCache("books", 100, null),
+                new WriteGeneration());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Повторный findById должен браться из кэша и возвращать копию")
+    void shouldServeRepeatedFindByIdFromCache() {
+        // Given
+        when(delegate.findById(1L)).thenReturn(Optional.of(new Author(1L, "Tolstoy", "Leo", 82)));
+
+        // When
+        Author first = authorDao.findById(1L).orElseThrow();
+        Author second = authorDao.findById(1L).orElseThrow();
+
+        // Then
+        assertThat(second.getLastName()).isEqualTo("Tolstoy");
+        assertThat(second).isNotSameAs(first);
+        verify(delegate, times(1)).findById(1L);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findByFullName должен заполнять кэш по id")
+    void shouldPopulateIdCacheOnFindByFullName() {
+        // Given
+        when(delegate.findByFullName("Leo", "Tolstoy")).thenReturn(Optional.of(new Author(1L, "Tolstoy", "Leo", 82)));
+
+        // When
+        authorDao.findByFullName("Leo", "Tolstoy");
+        Optional<Author> byId = authorDao.findById(1L);
+
+        // Then
+        assertThat(byId).isPresent();
+        verify(delegate, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("findAllByIds должен загружать из базы только отсутствующие в кэше id")
+    void shouldLoadOnlyMissingIdsOnFindAllByIds() {
+        // Given
+        when(delegate.findById(1L)).thenReturn(Optional.of(new Author(1L, "Tolstoy", "Leo", 82)));
+        when(delegate.findAllByIds(List.of(2L))).thenReturn(List.of(new Author(2L, "Pushkin", "Alexander", 37)));
+        authorDao.findById(1L);
+
+        // When
+        List<Author> authors = authorDao.findAllByIds(List.of(2L, 1L));
+        Optional<Author> loaded = authorDao.findById(2L);
+
+        // Then
+        assertThat(authors).extracting(Author::getLastName).containsExactly("Pushkin", "Tolstoy");
+        assertThat(loaded).isPresent();
+        verify(delegate, never()).findById(2L);
+    }
+
+    @Test
+    @DisplayName("update должен сбрасывать запись по id и по старому имени")
+    void shouldInvalidateIdAndOldNameOnUpdate() {
+        // Given
+        when(delegate.findByFullName("Leo", "Tolstoy"))
+                .thenReturn(Optional.of(new Author(1L, "Tolstoy", "Leo", 82)))
+                .thenReturn(Optional.empty());
+        when(delegate.findById(1L)).thenReturn(Optional.of(new Author(1L, "Tolstoy", "Lev", 82)));
+        authorDao.findByFullName("Leo", "Tolstoy");
+
+        // When
+        authorDao.update(new Author(1L, "Tolstoy", "Lev", 82));
+
+        // Then
+        assertThat(authorDao.findByFullName("Leo", "Tolstoy")).isEmpty();
+        assertThat(authorDao.findById(1L).orElseThrow().getFirstName()).isEqualTo("Lev");
+        verify(delegate).findById(1L);
+    }
+
+    @Test
+    @DisplayName("deleteById должен сбрасывать запись")
+    void shouldInvalidateOnDelete() {
+        // Given
+        when(delegate.findById(1L))
+                .thenReturn(Optional.of(new Author(1L, "Tolstoy", "Leo", 82)))
+                .thenReturn(Optional.empty());
+        authorDao.findById(1L);
+
+        // When
+        authorDao.deleteById(1L);
+
+        // Then
+        assertThat(authorDao.findById(1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Автор, записанный в незавершённой транзакции, не должен попадать в кэш")
+    void shouldNotCacheRowsWrittenByActiveTransaction() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        Author saved = new Author(7L, "Author", "New", null);
+        when(delegate.save(any(Author.class))).thenReturn(saved);
+        when(delegate.findByFullName("New", "Author")).thenReturn(Optional.of(saved));
+
+        // When
+        authorDao.save(new Author(null, "Author", "New", null));
+        authorDao.findByFullName("New", "Author");
+        authorDao.findByFullName("New", "Author");
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertThat(cache.size()).isZero();
+        verify(delegate, times(2)).findByFullName("New", "Author");
+    }
+}
@@ -0,0 +1,212 @@
+package ru.diasoft.spring.dao.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.Genre;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование CachingBookDao")
+class CachingBookDaoTest {
+
+    private static final Author TOLSTOY = new Author(1L, "Tolstoy", "Leo", 82, 0L);
+    private static final Author PUSHKIN = new Author(2L, "Pushkin", "Alexander", 37, 0L);
+    private static final Genre NOVEL = new Genre(10L, "Novel", 0L);
+    private static final Genre POETRY = new Genre(11L, "Poetry", 0L);
+
+    @Mock
+    private BookDao delegate;
+
+    @Mock
+    private AuthorDao authorDelegate;
+
+    @Mock
+    private GenreDao genreDelegate;
+
+    private BookAggregateCache cache;
+
+    private final WriteGeneration writeGeneration = new WriteGeneration();
+
+    private CachingBookDao bookDao;
+
+    private CachingAuthorDao authorDao;
+
+    private CachingGenreDao genreDao;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BookAggregateCache("books", 100, null);
+        bookDao = new CachingBookDao(delegate, cache, writeGeneration);
+        authorDao = new CachingAuthorDao(authorDelegate, new EntityCache<>("authors", 100, null,
+                Author::getId, CachingAuthorDao::fullNameKey, CachingAuthorDao::copy), cache, writeGeneration);
+        genreDao = new CachingGenreDao(genreDelegate, new EntityCache<>("genres", 100, null,
+                Genre::getId, Genre::getName, CachingGenreDao::copy), cache, writeGeneration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Повторный findById должен отдавать книгу с автором и жанром из кэша, копией")
+    void shouldServeRepeatedFindByIdFromCache() {
+        // Given
+        when(delegate.findById(100L)).thenReturn(Optional.of(book(100L, "War and Peace", TOLSTOY, NOVEL)));
+
+        // When
+        Book first = bookDao.findById(100L).orElseThrow();
+        first.getAuthor().setLastName("Changed");
+        Book second = bookDao.findById(100L).orElseThrow();
+
+        // Then
+        assertThat(second.getTitle()).isEqualTo("War and Peace");
+        assertThat(second.getAuthor().getLastName()).isEqualTo("Tolstoy");
+        assertThat(second.getGenre().getName()).isEqualTo("Novel");
+        verify(delegate, times(1)).findById(100L);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("update и deleteById книги должны сбрасывать только эту книгу")
+    void shouldInvalidateOnlyChangedBook() {
+        // Given
+        when(delegate.findById(100L)).thenReturn(Optional.of(book(100L, "War and Peace", TOLSTOY, NOVEL)));
+        when(delegate.findById(101L)).thenReturn(Optional.of(book(101L, "Anna Karenina", TOLSTOY, NOVEL)));
+        bookDao.findById(100L);
+        bookDao.findById(101L);
+
+        // When
+        bookDao.update(book(100L, "War and Peace", TOLSTOY, POETRY));
+        bookDao.findById(100L);
+        bookDao.findById(101L);
+        bookDao.deleteById(101L);
+        bookDao.findById(101L);
+
+        // Then
+        verify(delegate, times(2)).findById(100L);
+        verify(delegate, times(2)).findById(101L);
+    }
+
+    @Test
+    @DisplayName("Изменение автора должно сбрасывать только книги этого автора")
+    void shouldInvalidateBooksOfChangedAuthor() {
+        // Given
+        when(delegate.findById(100L)).thenReturn(Optional.of(book(100L, "War and Peace", TOLSTOY, NOVEL)));
+        when(delegate.findById(200L)).thenReturn(Optional.of(book(200L, "Ruslan and Ludmila", PUSHKIN, NOVEL)));
+        bookDao.findById(100L);
+        bookDao.findById(200L);
+
+        // When
+        authorDao.update(new Author(1L, "Tolstoy", "Lev", 82, 0L));
+        bookDao.findById(100L);
+        bookDao.findById(200L);
+
+        // Then
+        verify(delegate, times(2)).findById(100L);
+        verify(delegate, times(1)).findById(200L);
+    }
+
+    @Test
+    @DisplayName("Изменение или удаление жанра должно сбрасывать только книги этого жанра")
+    void shouldInvalidateBooksOfChangedGenre() {
+        // Given
+        when(delegate.findById(100L)).thenReturn(Optional.of(book(100L, "War and Peace", TOLSTOY, NOVEL)));
+        when(delegate.findById(200L)).thenReturn(Optional.of(book(200L, "Ruslan and Ludmila", PUSHKIN, POETRY)));
+        bookDao.findById(100L);
+        bookDao.findById(200L);
+
+        // When
+        genreDao.deleteById(11L);
+        bookDao.findById(100L);
+        bookDao.findById(200L);
+
+        // Then
+        verify(delegate, times(1)).findById(100L);
+        verify(delegate, times(2)).findById(200L);
+    }
+
+    @Test
+    @DisplayName("Книга, вытесненная по размеру, не должна оставаться в индексах автора и жанра")
+    void shouldKeepIndexesInSyncWithEviction() {
+        // Given
+        cache = new BookAggregateCache("books", 1, null);
+        bookDao = new CachingBookDao(delegate, cache, writeGeneration);
+        for (long id = 1; id <= 50; id++) {
+            when(delegate.findById(id)).thenReturn(Optional.of(book(id, "Book " + id, TOLSTOY, NOVEL)));
+        }
+
+        // When
+        for (long id = 1; id <= 50; id++) {
+            bookDao.findById(id);
+        }
+        cache.authorChanged(TOLSTOY.getId());
+
+        // Then
+        assertThat(cache.stats().evictionCount()).isPositive();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Книга автора, изменённого в незавершённой транзакции, не должна попадать в кэш")
+    void shouldNotCacheBooksOfAuthorChangedInActiveTransaction() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        when(delegate.findById(100L)).thenReturn(Optional.of(book(100L, "War and Peace", TOLSTOY, NOVEL)));
+
+        // When
+        authorDao.update(new Author(1L, "Tolstoy", "Lev", 82, 0L));
+        bookDao.findById(100L);
+        bookDao.findById(100L);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertThat(cache.size()).isZero();
+        verify(delegate, times(2)).findById(100L);
+    }
+
+    @Test
+    @DisplayName("Запись книги и изменение автора должны увеличивать поколение данных, чтение - нет")
+    void shouldBumpWriteGenerationOnWrites() {
+        // Given
+        when(delegate.findById(100L)).thenReturn(Optional.of(book(100L, "War and Peace", TOLSTOY, NOVEL)));
+        long before = writeGeneration.current();
+
+        // When
+        bookDao.findById(100L);
+        long afterRead = writeGeneration.current();
+        bookDao.update(book(100L, "War and Peace", TOLSTOY, POETRY));
+        authorDao.update(new Author(1L, "Tolstoy", "Lev", 82, 0L));
+
+        // Then
+        assertThat(afterRead).isEqualTo(before);
+        assertThat(writeGeneration.current()).isEqualTo(before + 2);
+    }
+
+    private static Book book(Long id, String title, Author author, Genre genre) {
+        return new Book(id, title, author, genre, 0L);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.diasoft.spring.dao.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.domain.Genre;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование CachingGenreDao")
+class CachingGenreDaoTest {
+
+    @Mock
+    private GenreDao delegate;
+
+    private EntityCache<Genre> cache;
+
+    private WriteGeneration writeGeneration;
+
+    private CachingGenreDao genreDao;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EntityCache<>("genres", 100, null, Genre::getId, Genre::getName, CachingGenreDao::copy);
+        writeGeneration = new WriteGeneration();
+        genreDao = new CachingGenreDao(delegate, cache, new BookAggregateCache("books", 100, null), writeGeneration);
+    }
+
+    @Test
+    @DisplayName("findByName должен заполнять кэш по id, повторные чтения - браться из кэша копией")
+    void shouldServeFindByIdFromCacheAfterFindByName() {
+        // Given
+        when(delegate.findByName("Novel")).thenReturn(Optional.of(new Genre(1L, "Novel", 0L)));
+
+        // When
+        Genre byName = genreDao.findByName("Novel").orElseThrow();
+        Genre byId = genreDao.findById(1L).orElseThrow();
+
+        // Then
+        assertThat(byId.getName()).isEqualTo("Novel");
+        assertThat(byId).isNotSameAs(byName);
+        verify(delegate, never()).findById(1L);
+    }
+
+    @Test
+    @DisplayName("update должен сбрасывать запись по id и по старому названию и увеличивать поколение данных")
+    void shouldInvalidateIdAndOldNameOnUpdate() {
+        // Given
+        when(delegate.findByName("Novel"))
+                .thenReturn(Optional.of(new Genre(1L, "Novel", 0L)))
+                .thenReturn(Optional.empty());
+        when(delegate.findById(1L)).thenReturn(Optional.of(new Genre(1L, "Epic", 1L)));
+        genreDao.findByName("Novel");
+        long generation = writeGeneration.current();
+
+        // When
+        genreDao.update(new Genre(1L, "Epic", 0L));
+
+        // Then
+        assertThat(genreDao.findByName("Novel")).isEmpty();
+        assertThat(genreDao.findById(1L).orElseThrow().getName()).isEqualTo("Epic");
+        assertThat(writeGeneration.current()).isGreaterThan(generation);
+    }
+
+    @Test
+    @DisplayName("Жанр, прочитанный до параллельного изменения, не должен оставаться в кэше")
+    void shouldNotCacheRowLoadedBeforeConcurrentUpdate() {
+        // Given - пока идёт чтение, другой поток переименовывает жанр
+        when(delegate.findById(1L))
+                .thenAnswer(invocation -> {
+                    genreDao.update(new Genre(1L, "Epic", 0L));
+                    return Optional.of(new Genre(1L, "Novel", 0L));
+                })
+                .thenReturn(Optional.of(new Genre(1L, "Epic", 1L)));
+
+        // When
+        genreDao.findById(1L);
+        Genre reloaded = genreDao.findById(1L).orElseThrow();
+
+        // Then
+        assertThat(reloaded.getName()).isEqualTo("Epic");
+        assertThat(reloaded.getVersion()).isEqualTo(1L);
+        verify(delegate, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("deleteById должен сбрасывать запись и по id, и по названию")
+    void shouldInvalidateIdAndNameOnDelete() {
+        // Given
+        when(delegate.findById(1L))
+                .thenReturn(Optional.of(new Genre(1L, "Novel", 0L)))
+                .thenReturn(Optional.empty());
+        when(delegate.findByName("Novel")).thenReturn(Optional.empty());
+        genreDao.findById(1L);
+
+        // When
+        genreDao.deleteById(1L);
+
+        // Then
+        assertThat(genreDao.findById(1L)).isEmpty();
+        assertThat(genreDao.findByName("Novel")).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+}
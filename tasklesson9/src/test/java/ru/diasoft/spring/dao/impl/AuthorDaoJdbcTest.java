@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -20,6 +22,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -52,7 +55,7 @@ class AuthorDaoJdbcTest {
         assertThat(authors).hasSize(1);
         assertThat(authors.get(0)).isEqualTo(expectedAuthor);
 
-        verify(jdbcTemplate).query(eq("SELECT id, last_name, first_name, age FROM author ORDER BY last_name, first_name"),
+        verify(jdbcTemplate).query(eq("SELECT id, last_name, first_name, age, version FROM author ORDER BY last_name, first_name"),
                 any(RowMapper.class));
     }
 
@@ -88,6 +91,34 @@ class AuthorDaoJdbcTest {
         assertThat(author).isEmpty();
     }
 
+    @Test
+    @DisplayName("findAllByIds должен возвращать авторов в порядке запрошенных id, пропуская отсутствующие")
+    void shouldFindAuthorsByIdsInRequestedOrder() {
+        // Given
+        Author tolstoy = new Author(1L, "Tolstoy", "Leo", 82);
+        Author pushkin = new Author(2L, "Pushkin", "Alexander", 37);
+        when(jdbcTemplate.query(anyString(), any(Map.class), any(RowMapper.class)))
+                .thenReturn(List.of(tolstoy, pushkin));
+
+        // When
+        List<Author> authors = authorDao.findAllByIds(List.of(2L, 999L, 1L));
+
+        // Then
+        assertThat(authors).containsExactly(pushkin, tolstoy);
+        verify(jdbcTemplate, times(1)).query(anyString(), any(Map.class), any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("findAllByIds с пустым набором id не должен обращаться к базе")
+    void shouldNotQueryForEmptyIds() {
+        // When
+        List<Author> authors = authorDao.findAllByIds(List.of());
+
+        // Then
+        assertThat(authors).isEmpty();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
     @Test
     @DisplayName("Должен сохранить нового автора")
     void shouldSaveNewAuthor() {
@@ -116,14 +147,30 @@ class AuthorDaoJdbcTest {
     @DisplayName("Должен обновить существующего автора")
     void shouldUpdateExistingAuthor() {
         // Given
-        Author authorToUpdate = new Author(1L, "Tolstoy", "Leo", 83);
+        Author authorToUpdate = new Author(1L, "Tolstoy", "Leo", 83, 4L);
         when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(1);
 
         // When
         authorDao.update(authorToUpdate);
 
         // Then
-        verify(jdbcTemplate).update(anyString(), any(MapSqlParameterSource.class));
+        verify(jdbcTemplate).update(contains("WHERE id = :id AND version = :version"),
+                argThat((MapSqlParameterSource params) -> Long.valueOf(4L).equals(params.getValue("version"))));
+        assertThat(authorToUpdate.getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("Обновление устаревшей версии автора должно завершаться конфликтом")
+    void shouldFailToUpdateStaleAuthor() {
+        // Given
+        Author staleAuthor = new Author(1L, "Tolstoy", "Leo", 83, 4L);
+        when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(0);
+
+        // When / Then
+        assertThatThrownBy(() -> authorDao.update(staleAuthor))
+                .isInstanceOf(OptimisticLockingFailureException.class)
+                .hasMessageContaining("version 4 is stale");
+        assertThat(staleAuthor.getVersion()).isEqualTo(4L);
     }
 
     @Test
@@ -159,6 +206,44 @@ class AuthorDaoJdbcTest {
         assertThat(author.get()).isEqualTo(expectedAuthor);
     }
 
+    @Test
+    @DisplayName("findOrCreate должен вставлять автора только при его отсутствии и перечитывать строку")
+    void shouldInsertIfAbsentAndReadAuthor() {
+        // Given
+        Author expectedAuthor = new Author(1L, "Tolstoy", "Leo", 82);
+        when(jdbcTemplate.queryForObject(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(expectedAuthor);
+
+        // When
+        Author author = authorDao.findOrCreate("Leo", "Tolstoy");
+
+        // Then
+        assertThat(author).isEqualTo(expectedAuthor);
+        verify(jdbcTemplate).update(
+                contains("WHERE NOT EXISTS (SELECT 1 FROM author WHERE first_name = :first_name AND last_name = :last_name)"),
+                argThat((MapSqlParameterSource params) -> "Leo".equals(params.getValue("first_name"))
+                        && "Tolstoy".equals(params.getValue("last_name"))));
+        verify(jdbcTemplate).queryForObject(contains("FROM author"), any(MapSqlParameterSource.class), any(RowMapper.class));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("findOrCreate должен читать строку параллельной транзакции, если вставка упёрлась в уникальный ключ")
+    void shouldReadConcurrentlyInsertedAuthorOnDuplicateKey() {
+        // Given
+        Author expectedAuthor = new Author(1L, "Tolstoy", "Leo", 82);
+        when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class)))
+                .thenThrow(new DuplicateKeyException("uq_author_name"));
+        when(jdbcTemplate.queryForObject(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(expectedAuthor);
+
+        // When
+        Author author = authorDao.findOrCreate("Leo", "Tolstoy");
+
+        // Then
+        assertThat(author).isEqualTo(expectedAuthor);
+    }
+
     @Test
     @DisplayName("RowMapper должен корректно маппить ResultSet в Author")
     void rowMapperShouldMapResultSetToAuthor() throws SQLException {
@@ -169,6 +254,7 @@ class AuthorDaoJdbcTest {
         when(rs.getString("first_name")).thenReturn("Leo");
         when(rs.getInt("age")).thenReturn(82);
         when(rs.wasNull()).thenReturn(false);
+        when(rs.getLong("version")).thenReturn(3L);
 
         AuthorDaoJdbc.AuthorRowMapper rowMapper = new AuthorDaoJdbc.AuthorRowMapper();
 
@@ -180,6 +266,7 @@ class AuthorDaoJdbcTest {
         assertThat(author.getLastName()).isEqualTo("Tolstoy");
         assertThat(author.getFirstName()).isEqualTo("Leo");
         assertThat(author.getAge()).isEqualTo(82);
+        assertThat(author.getVersion()).isEqualTo(3L);
     }
 
     @Test
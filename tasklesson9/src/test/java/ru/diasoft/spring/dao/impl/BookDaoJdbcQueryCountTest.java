@@ -0,0 +1,75 @@
+package ru.diasoft.spring.dao.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.diasoft.spring.config.StatementCountingConfig;
+import ru.diasoft.spring.config.StatementCountingConfig.StatementCounter;
+import ru.diasoft.spring.domain.Book;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCountingConfig.class)
+@DisplayName("Количество запросов BookDaoJdbc")
+class BookDaoJdbcQueryCountTest {
+
+    // Сам JDBC DAO, а не @Primary CachingBookDao: попадание в кэш прошло бы и без единого запроса
+    @Autowired
+    private BookDaoJdbc bookDao;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @BeforeEach
+    void setUp() {
+        statementCounter.reset();
+    }
+
+    @Test
+    @DisplayName("findAll должен выполнять ровно один запрос")
+    void findAllShouldRunSingleQuery() {
+        List<Book> books = bookDao.findAll();
+
+        assertThat(books).hasSize(3);
+        assertThat(books.get(0).getAuthor().getLastName()).isEqualTo("Author1");
+        assertThat(books.get(0).getAuthor().getAge()).isEqualTo(30);
+        assertThat(books.get(0).getGenre().getName()).isEqualTo("Test Genre 1");
+        assertThat(statementCounter.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findById должен выполнять ровно один запрос")
+    void findByIdShouldRunSingleQuery() {
+        assertThat(bookDao.findById(101L)).isPresent();
+        assertThat(statementCounter.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findByTitle должен выполнять ровно один запрос")
+    void findByTitleShouldRunSingleQuery() {
+        assertThat(bookDao.findByTitle("Test Book")).hasSize(3);
+        assertThat(statementCounter.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findByAuthorId должен выполнять ровно один запрос")
+    void findByAuthorIdShouldRunSingleQuery() {
+        assertThat(bookDao.findByAuthorId(100L)).hasSize(1);
+        assertThat(statementCounter.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findByGenreId должен выполнять ровно один запрос")
+    void findByGenreIdShouldRunSingleQuery() {
+        assertThat(bookDao.findByGenreId(100L)).hasSize(1);
+        assertThat(statementCounter.get()).isEqualTo(1);
+    }
+}
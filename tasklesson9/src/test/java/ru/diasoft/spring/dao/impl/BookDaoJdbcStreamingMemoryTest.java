@@ -0,0 +1,146 @@
+package ru.diasoft.spring.dao.impl;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import ru.diasoft.spring.config.StreamingProperties;
+import ru.diasoft.spring.domain.Book;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запускается отдельным execution surefire с маленьким -Xmx (см. pom.xml):
+// полный каталог в памяти туда не помещается, поток - помещается
+@DisplayName("Потоковое чтение каталога BookDaoJdbc в ограниченной памяти")
+class BookDaoJdbcStreamingMemoryTest {
+
+    private static final int BOOKS = 1_000_000;
+    // У каждой книги свой автор: карта авторов на весь курсор в такую кучу не поместилась бы
+    private static final int AUTHORS = BOOKS;
+    private static final int GENRES = 50;
+    private static final int INSERT_CHUNK = 100_000;
+    private static final Path DB_DIR = Path.of("target", "streaming-memory-test");
+
+    private static HikariDataSource dataSource;
+    private static NamedParameterJdbcTemplate jdbcTemplate;
+    private static BookDaoJdbc bookDao;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(DB_DIR);
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:file:./" + DB_DIR.resolve("library") + ";LAZY_QUERY_EXECUTION=TRUE;CACHE_SIZE=8192");
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(1000);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+
+        StreamingProperties properties = new StreamingProperties();
+        properties.setFetchSize(500);
+        bookDao = new BookDaoJdbc(jdbcTemplate, properties);
+
+        createCatalog();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        dataSource.close();
+        FileSystemUtils.deleteRecursively(DB_DIR);
+    }
+
+    private static void createCatalog() {
+        jdbcTemplate.getJdbcOperations().execute("""
+            CREATE TABLE author (id BIGINT PRIMARY KEY, last_name VARCHAR(100) NOT NULL,
+                                 first_name VARCHAR(100) NOT NULL, age INT,
+                                 version BIGINT DEFAULT 0 NOT NULL)
+            """);
+        jdbcTemplate.getJdbcOperations().execute("""
+            CREATE TABLE genre (id BIGINT PRIMARY KEY, name VARCHAR(100) NOT NULL UNIQUE,
+                                version BIGINT DEFAULT 0 NOT NULL)
+            """);
+        jdbcTemplate.getJdbcOperations().execute("""
+            CREATE TABLE book (id BIGINT AUTO_INCREMENT PRIMARY KEY, title VARCHAR(255) NOT NULL,
+                               author_id BIGINT NOT NULL REFERENCES author(id),
+                               genre_id BIGINT NOT NULL REFERENCES genre(id),
+                               version BIGINT DEFAULT 0 NOT NULL)
+            """);
+        for (int from = 1; from <= AUTHORS; from += INSERT_CHUNK) {
+            jdbcTemplate.update("""
+                INSERT INTO author (id, last_name, first_name, age)
+                SELECT X, 'Last' || X, 'First' || X, 20 + MOD(X, 60) FROM SYSTEM_RANGE(:from, :to)
+                """, Map.of("from", from, "to", Math.min(from + INSERT_CHUNK - 1, AUTHORS)));
+        }
+        jdbcTemplate.update("""
+            INSERT INTO genre (id, name) SELECT X, 'Genre ' || X FROM SYSTEM_RANGE(1, :count)
+            """, Map.of("count", GENRES));
+        for (int from = 1; from <= BOOKS; from += INSERT_CHUNK) {
+            jdbcTemplate.update("""
+                INSERT INTO book (title, author_id, genre_id)
+                SELECT 'Generated catalog book title number ' || X, MOD(X, :authors) + 1, MOD(X, :genres) + 1
+                FROM SYSTEM_RANGE(:from, :to)
+                """, Map.of("authors", AUTHORS, "genres", GENRES, "from", from, "to", from + INSERT_CHUNK - 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Должен прочитать 1M книг потоком без OutOfMemoryError")
+    void shouldStreamWholeCatalogInBoundedMemory() {
+        // When
+        AtomicLong count = new AtomicLong();
+        AtomicLong lastId = new AtomicLong();
+        try (Stream<Book> books = bookDao.streamAll()) {
+            books.forEach(book -> {
+                assertThat(book.getId()).isGreaterThan(lastId.get());
+                assertThat(book.getAuthor()).isNotNull();
+                assertThat(book.getGenre()).isNotNull();
+                lastId.set(book.getId());
+                count.incrementAndGet();
+            });
+        }
+
+        // Then
+        assertThat(count.get()).isEqualTo(BOOKS);
+        assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+    }
+
+    @Test
+    @DisplayName("Должен прочитать потоком каталог, где у каждой книги свой автор")
+    void shouldStreamCatalogWithDistinctAuthorsInBoundedMemory() {
+        // When
+        AtomicLong count = new AtomicLong();
+        try (Stream<Book> books = bookDao.streamAll()) {
+            books.forEach(book -> {
+                assertThat(book.getAuthor().getId()).isEqualTo(book.getId() % AUTHORS + 1);
+                assertThat(book.getAuthor().getLastName()).isEqualTo("Last" + book.getAuthor().getId());
+                count.incrementAndGet();
+            });
+        }
+
+        // Then
+        assertThat(count.get()).isEqualTo(BOOKS);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть соединение в пул при досрочной остановке чтения")
+    void shouldReleaseConnectionWhenConsumerStopsEarly() {
+        // When
+        try (Stream<Book> books = bookDao.streamAll()) {
+            assertThat(books.limit(10).count()).isEqualTo(10);
+        }
+
+        // Then - в пуле одно соединение, и оно снова доступно
+        assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+        assertThat(bookDao.findById(1L)).isPresent();
+    }
+}
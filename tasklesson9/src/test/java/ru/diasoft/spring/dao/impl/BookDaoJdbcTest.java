@@ -0,0 +1,72 @@
+package ru.diasoft.spring.dao.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.diasoft.spring.domain.Book;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование BookDaoJdbc")
+class BookDaoJdbcTest {
+
+    @Test
+    @DisplayName("RowMapper должен переиспользовать одного автора и жанр в пределах выборки")
+    void rowMapperShouldShareAuthorAndGenreWithinQuery() throws SQLException {
+        // Given
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L, 2L);
+        when(rs.getString("title")).thenReturn("War and Peace", "Anna Karenina");
+        when(rs.getLong("author_id")).thenReturn(1L);
+        when(rs.getLong("genre_id")).thenReturn(1L);
+        when(rs.getString("author_first_name")).thenReturn("Leo");
+        when(rs.getString("author_last_name")).thenReturn("Tolstoy");
+        when(rs.getInt("author_age")).thenReturn(82);
+        when(rs.getString("genre_name")).thenReturn("Novel");
+        when(rs.wasNull()).thenReturn(false);
+
+        BookDaoJdbc.BookRowMapper rowMapper = new BookDaoJdbc.BookRowMapper();
+
+        // When
+        Book first = rowMapper.mapRow(rs, 1);
+        Book second = rowMapper.mapRow(rs, 2);
+
+        // Then
+        assertThat(first.getAuthor().getFirstName()).isEqualTo("Leo");
+        assertThat(first.getAuthor().getLastName()).isEqualTo("Tolstoy");
+        assertThat(first.getAuthor().getAge()).isEqualTo(82);
+        assertThat(first.getGenre().getName()).isEqualTo("Novel");
+        assertThat(second.getTitle()).isEqualTo("Anna Karenina");
+        assertThat(second.getAuthor()).isSameAs(first.getAuthor());
+        assertThat(second.getGenre()).isSameAs(first.getGenre());
+    }
+
+    @Test
+    @DisplayName("Потоковый RowMapper не должен накапливать авторов и жанры между строками")
+    void streamingRowMapperShouldNotRetainAuthorsAndGenres() throws SQLException {
+        // Given
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L, 2L);
+        when(rs.getString("title")).thenReturn("War and Peace", "Anna Karenina");
+        when(rs.getLong("author_id")).thenReturn(1L);
+        when(rs.getLong("genre_id")).thenReturn(1L);
+        when(rs.getString("author_first_name")).thenReturn("Leo");
+        when(rs.getString("author_last_name")).thenReturn("Tolstoy");
+        when(rs.getString("genre_name")).thenReturn("Novel");
+        when(rs.wasNull()).thenReturn(false);
+
+        // When
+        Book first = BookDaoJdbc.BookRowMapper.STREAMING.mapRow(rs, 1);
+        Book second = BookDaoJdbc.BookRowMapper.STREAMING.mapRow(rs, 2);
+
+        // Then
+        assertThat(second.getAuthor().getLastName()).isEqualTo("Tolstoy");
+        assertThat(second.getAuthor()).isNotSameAs(first.getAuthor());
+        assertThat(second.getGenre().getName()).isEqualTo("Novel");
+        assertThat(second.getGenre()).isNotSameAs(first.getGenre());
+    }
+}
@@ -0,0 +1,216 @@
+package ru.diasoft.spring.dao.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.diasoft.spring.config.QueryPlanConfig;
+import ru.diasoft.spring.config.QueryPlanConfig.CapturedStatement;
+import ru.diasoft.spring.config.QueryPlanConfig.StatementRecorder;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.domain.Author;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+import ru.diasoft.spring.domain.Genre;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Import(QueryPlanConfig.class)
+@DisplayName("Планы запросов DAO: выборки идут по индексам")
+class DaoQueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(BOOK|AUTHOR|GENRE)\\.tableScan");
+    // Доступ по индексу без условия (/* PUBLIC.IDX */) - тот же полный проход, только в порядке индекса
+    private static final Pattern INDEX_WALK = Pattern.compile("/\\* PUBLIC\\.\\w+ \\*/");
+
+    // Методы, которым по смыслу нужна вся таблица - для них полный проход не регрессия
+    private static final Map<String, String> FULL_READS = Map.of(
+            "BookDao.findAll", "выгружает весь каталог",
+            "BookDao.streamAll", "потоково читает весь каталог",
+            "BookDao.findByTitle", "подстрока с ведущим %, индекс не применим; запросы от 3 символов идут через индекс триграмм",
+            "BookDao.streamAllSummaries", "потоково читает весь каталог",
+            "BookDao.findSummariesByTitle", "та же подстрока с ведущим %, что и findByTitle",
+            "AuthorDao.findAll", "выгружает всех авторов",
+            "GenreDao.findAll", "выгружает все жанры"
+    );
+
+    @Autowired
+    private BookDaoJdbc bookDao;
+    @Autowired
+    private AuthorDaoJdbc authorDao;
+    @Autowired
+    private GenreDaoJdbc genreDao;
+    @Autowired
+    private StatementRecorder recorder;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("Запросы BookDaoJdbc не сканируют таблицы целиком")
+    void bookDaoQueriesShouldUseIndexes() throws SQLException {
+        Author author = new Author(100L, "Author1", "Test", 30);
+        Genre genre = new Genre(100L, "Test Genre 1");
+
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findAll", bookDao::findAll);
+        calls.put("findById", () -> bookDao.findById(101L));
+        calls.put("save", () -> bookDao.save(new Book(null, "Plan Book", author, genre)));
+        calls.put("update", () -> bookDao.update(new Book(101L, "Plan Book Updated", author, genre, 0L)));
+        calls.put("deleteById", () -> bookDao.deleteById(102L));
+        calls.put("findByTitle", () -> bookDao.findByTitle("Book"));
+        calls.put("findByAuthorId", () -> bookDao.findByAuthorId(100L));
+        calls.put("findByGenreId", () -> bookDao.findByGenreId(100L));
+        calls.put("findPage", () -> {
+            bookDao.findPage(null, null, 2);
+            bookDao.findPage("Test Book 1", 100L, 2);
+        });
+        calls.put("estimateCount", bookDao::estimateCount);
+        calls.put("streamAll", () -> {
+            try (Stream<Book> books = bookDao.streamAll()) {
+                books.findFirst();
+            }
+        });
+        calls.put("saveAll", () -> bookDao.saveAll(List.of(new Book(null, "Plan Batch", author, genre))));
+        calls.put("findAllByIds", () -> bookDao.findAllByIds(List.of(100L, 101L)));
+        calls.put("searchFullText", () -> bookDao.searchFullText("author1", 10));
+        calls.put("findSummaryPage", () -> {
+            bookDao.findSummaryPage(null, null, 2);
+            bookDao.findSummaryPage("Test Book 1", 100L, 2);
+        });
+        calls.put("findSummariesByTitle", () -> bookDao.findSummariesByTitle("Book"));
+        calls.put("findSummariesByIds", () -> bookDao.findSummariesByIds(List.of(100L, 101L)));
+        calls.put("searchFullTextSummaries", () -> bookDao.searchFullTextSummaries("author1", 10));
+        calls.put("streamAllSummaries", () -> {
+            try (Stream<BookSummary> books = bookDao.streamAllSummaries()) {
+                books.findFirst();
+            }
+        });
+        calls.put("streamSummariesByGenreId", () -> {
+            try (Stream<BookSummary> books = bookDao.streamSummariesByGenreId(100L)) {
+                books.findFirst();
+            }
+            try (Stream<BookSummary> books = bookDao.streamSummariesByGenreId(null)) {
+                books.findFirst();
+            }
+        });
+
+        assertNoTableScans(BookDao.class, calls);
+    }
+
+    @Test
+    @DisplayName("Запросы AuthorDaoJdbc не сканируют таблицы целиком")
+    void authorDaoQueriesShouldUseIndexes() throws SQLException {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findAll", authorDao::findAll);
+        calls.put("findById", () -> authorDao.findById(100L));
+        calls.put("save", () -> authorDao.save(new Author(null, "Author", "Plan", 40)));
+        calls.put("update", () -> authorDao.update(new Author(100L, "Author1", "Test", 31, 0L)));
+        calls.put("deleteById", () -> authorDao.deleteById(-1L));
+        calls.put("findByFullName", () -> authorDao.findByFullName("Test", "Author1"));
+        calls.put("findPage", () -> {
+            authorDao.findPage(null, null, null, 2);
+            authorDao.findPage("Author1", "Test", 100L, 2);
+        });
+        calls.put("estimateCount", authorDao::estimateCount);
+        calls.put("findByFullNames", () -> authorDao.findByFullNames(List.of(
+                new Author(null, "Author1", "Test", null),
+                new Author(null, "Author2", "Test", null))));
+        calls.put("saveAll", () -> authorDao.saveAll(List.of(new Author(null, "Batch", "Plan", null))));
+        calls.put("findOrCreate", () -> {
+            authorDao.findOrCreate("Test", "Author1");
+            authorDao.findOrCreate("Plan", "Merged");
+        });
+        calls.put("findAllByIds", () -> authorDao.findAllByIds(List.of(101L, 100L)));
+
+        assertNoTableScans(AuthorDao.class, calls);
+    }
+
+    @Test
+    @DisplayName("Запросы GenreDaoJdbc не сканируют таблицы целиком")
+    void genreDaoQueriesShouldUseIndexes() throws SQLException {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findAll", genreDao::findAll);
+        calls.put("findById", () -> genreDao.findById(100L));
+        calls.put("save", () -> genreDao.save(new Genre(null, "Plan Genre")));
+        calls.put("update", () -> genreDao.update(new Genre(100L, "Test Genre 1", 0L)));
+        calls.put("deleteById", () -> genreDao.deleteById(-1L));
+        calls.put("findByName", () -> genreDao.findByName("Test Genre 1"));
+        calls.put("findPage", () -> {
+            genreDao.findPage(null, null, 2);
+            genreDao.findPage("Test Genre 1", 100L, 2);
+        });
+        calls.put("estimateCount", genreDao::estimateCount);
+        calls.put("findByNames", () -> genreDao.findByNames(List.of("Test Genre 1", "Test Genre 2")));
+        calls.put("saveAll", () -> genreDao.saveAll(List.of(new Genre(null, "Plan Batch Genre"))));
+        calls.put("findOrCreate", () -> {
+            genreDao.findOrCreate("Test Genre 1");
+            genreDao.findOrCreate("Plan Merged Genre");
+        });
+        calls.put("findAllByIds", () -> genreDao.findAllByIds(List.of(101L, 100L)));
+
+        assertNoTableScans(GenreDao.class, calls);
+    }
+
+    // Каждый метод интерфейса должен быть вызван: новый запрос без проверки плана ломает тест
+    private void assertNoTableScans(Class<?> daoInterface, Map<String, Runnable> calls) throws SQLException {
+        Set<String> declared = Arrays.stream(daoInterface.getDeclaredMethods())
+                .map(Method::getName)
+                .collect(Collectors.toSet());
+        assertThat(calls.keySet()).as("методы %s без проверки плана", daoInterface.getSimpleName())
+                .containsExactlyInAnyOrderElementsOf(declared);
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            for (Map.Entry<String, Runnable> call : calls.entrySet()) {
+                String method = daoInterface.getSimpleName() + "." + call.getKey();
+                recorder.start();
+                call.getValue().run();
+                List<CapturedStatement> statements = recorder.stop();
+
+                assertThat(statements).as("%s не выполнил ни одного запроса", method).isNotEmpty();
+                if (FULL_READS.containsKey(method)) {
+                    continue;
+                }
+                for (CapturedStatement statement : statements) {
+                    String plan = recorder.explain(connection, statement);
+                    assertThat(scansWholeTable(plan))
+                            .as("%s сканирует таблицу целиком:%n%s", method, plan)
+                            .isFalse();
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // Проход индекса с начала допустим только для первой страницы: без WHERE и с FETCH FIRST
+    private static boolean scansWholeTable(String plan) {
+        if (TABLE_SCAN.matcher(plan).find()) {
+            return true;
+        }
+        boolean topN = plan.contains("FETCH FIRST") && !plan.contains("WHERE");
+        return INDEX_WALK.matcher(plan).find() && !topN;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.diasoft.spring.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.diasoft.spring.domain.BookSummary;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Тестирование CatalogFormat")
+class CatalogFormatTest {
+
+    @Test
+    @DisplayName("CSV должен брать в кавычки только поля с разделителем, кавычками, переводом строки или пробелами по краям")
+    void shouldQuoteCsvFieldsOnlyWhenNeeded() {
+        // Given
+        BookSummary book = new BookSummary(1L, "War; and \"Peace\"", "Leo", " Tolstoy", null);
+        StringBuilder line = new StringBuilder();
+
+        // When
+        CatalogFormat.CSV.appendRow(line, book);
+
+        // Then
+        assertThat(line).hasToString("\"War; and \"\"Peace\"\"\";Leo;\" Tolstoy\";\n");
+    }
+
+    @Test
+    @DisplayName("JSON Lines должен экранировать строки и писать null для отсутствующих полей")
+    void shouldEscapeJsonStrings() {
+        // Given
+        BookSummary book = new BookSummary(7L, "Line\nbreak \"quoted\" \\ \u0001", "Анна", "Ахматова", null);
+        StringBuilder line = new StringBuilder();
+
+        // When
+        CatalogFormat.JSONL.appendRow(line, book);
+
+        // Then
+        assertThat(line).hasToString("{\"id\":7,\"title\":\"Line\\nbreak \\\"quoted\\\" \\\\ \\u0001\","
+                + "\"authorFirstName\":\"Анна\",\"authorLastName\":\"Ахматова\",\"genre\":null}\n");
+    }
+
+    @Test
+    @DisplayName("Неизвестный формат должен отклоняться")
+    void shouldRejectUnknownFormat() {
+        assertThat(CatalogFormat.fromName("JSONL")).isEqualTo(CatalogFormat.JSONL);
+        assertThatThrownBy(() -> CatalogFormat.fromName("xml"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("xml");
+    }
+}
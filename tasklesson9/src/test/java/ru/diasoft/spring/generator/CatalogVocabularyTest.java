@@ -0,0 +1,66 @@
+package ru.diasoft.spring.generator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.diasoft.spring.domain.Author;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Тестирование CatalogVocabulary")
+class CatalogVocabularyTest {
+
+    @Test
+    @DisplayName("Имена авторов должны быть уникальны и повторяться для того же seed")
+    void shouldGenerateUniqueDeterministicAuthors() {
+        // When
+        List<Author> authors = CatalogVocabulary.authors(20_000, 42);
+        List<Author> again = CatalogVocabulary.authors(20_000, 42);
+
+        // Then
+        List<String> fullNames = authors.stream()
+                .map(author -> author.getFirstName() + " " + author.getLastName())
+                .toList();
+        assertThat(fullNames).doesNotHaveDuplicates();
+        assertThat(again).map(author -> author.getFirstName() + " " + author.getLastName())
+                .containsExactlyElementsOf(fullNames);
+        assertThat(authors).allSatisfy(author -> {
+            assertThat(author.getId()).isNull();
+            assertThat(author.getFirstName().length()).isLessThanOrEqualTo(100);
+            assertThat(author.getAge()).isBetween(20, 89);
+        });
+    }
+
+    @Test
+    @DisplayName("Названия должны быть на нескольких языках и укладываться в колонку title")
+    void shouldGenerateMultilingualTitles() {
+        // Given
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> titles = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            titles.add(CatalogVocabulary.title(random));
+        }
+
+        // Then
+        assertThat(titles).allSatisfy(title -> assertThat(title).isNotBlank().hasSizeLessThanOrEqualTo(255));
+        assertThat(titles).anyMatch(title -> title.matches(".*[а-яё].*"));
+        assertThat(titles).anyMatch(title -> title.startsWith("The "));
+        assertThat(titles).anyMatch(title -> title.matches(".*[äöüéèíóúñ].*"));
+        assertThat(titles.stream().distinct().count()).isGreaterThan(1000);
+    }
+
+    @Test
+    @DisplayName("Жанров может быть больше, чем в словаре, имена остаются уникальными")
+    void shouldGenerateUniqueGenreNamesBeyondVocabulary() {
+        List<String> genres = CatalogVocabulary.genreNames(120);
+
+        assertThat(genres).hasSize(120).doesNotHaveDuplicates();
+        assertThat(genres.get(0)).isEqualTo("Роман");
+        assertThat(genres).contains("Роман (2)", "Роман (3)");
+    }
+}
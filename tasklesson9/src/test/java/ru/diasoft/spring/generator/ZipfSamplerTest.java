@@ -0,0 +1,53 @@
+package ru.diasoft.spring.generator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Тестирование ZipfSampler")
+class ZipfSamplerTest {
+
+    @Test
+    @DisplayName("Частота ранга должна убывать примерно как 1/k")
+    void shouldSkewTowardsLowRanks() {
+        // Given
+        ZipfSampler sampler = new ZipfSampler(100, 1.0);
+        SplittableRandom random = new SplittableRandom(7);
+        int[] counts = new int[sampler.size()];
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        // Then - H(100) ~ 5.19: ранг 0 получает ~19%, ранг 1 - вдвое меньше, ранг 9 - вдесятеро
+        assertThat(counts[0] / 200_000.0).isBetween(0.18, 0.205);
+        assertThat((double) counts[0] / counts[1]).isBetween(1.85, 2.15);
+        assertThat((double) counts[0] / counts[9]).isBetween(9.0, 11.0);
+        assertThat(counts[99]).isPositive();
+    }
+
+    @Test
+    @DisplayName("Одинаковый seed должен давать одинаковую последовательность")
+    void shouldBeDeterministicForSeed() {
+        ZipfSampler sampler = new ZipfSampler(1000, 1.0);
+        SplittableRandom first = new SplittableRandom(42);
+        SplittableRandom second = new SplittableRandom(42);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(sampler.sample(first)).isEqualTo(sampler.sample(second));
+        }
+    }
+
+    @Test
+    @DisplayName("Пустой диапазон должен отклоняться")
+    void shouldRejectEmptyRange() {
+        assertThatThrownBy(() -> new ZipfSampler(0, 1.0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Zipf range must be positive: 0");
+    }
+}
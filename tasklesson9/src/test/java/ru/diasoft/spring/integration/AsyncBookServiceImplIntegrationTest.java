@@ -0,0 +1,60 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.service.impl.AsyncBookServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без @Transactional: операции выполняются в потоках executor-а, вне транзакции теста, поэтому только чтение
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Интеграционные тесты для AsyncBookServiceImpl")
+class AsyncBookServiceImplIntegrationTest {
+
+    @Autowired
+    private AsyncBookServiceImpl asyncBookService;
+
+    @Test
+    @DisplayName("Сотни одновременных запросов должны выполняться через ограниченное число соединений")
+    void shouldServeManyConcurrentReads() throws Exception {
+        // When
+        List<CompletableFuture<Optional<Book>>> byId = new ArrayList<>();
+        List<CompletableFuture<List<Book>>> byGenre = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            byId.add(asyncBookService.getBookById(100L + i % 3));
+            byGenre.add(asyncBookService.findBooksByGenre("Test Genre 1"));
+        }
+        CompletableFuture.allOf(byId.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        CompletableFuture.allOf(byGenre.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(byId).allSatisfy(future -> assertThat(future.join()).isPresent());
+        assertThat(byGenre).allSatisfy(future -> assertThat(future.join())
+                .extracting(Book::getTitle).containsExactly("Test Book 1"));
+    }
+
+    @Test
+    @DisplayName("Должен выполнять операции в потоках book-async")
+    void shouldRunOnBookExecutor() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        long count = asyncBookService.forEachBook(book -> threads.add(Thread.currentThread().getName()))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(threads).singleElement().asString().startsWith("book-async-");
+    }
+}
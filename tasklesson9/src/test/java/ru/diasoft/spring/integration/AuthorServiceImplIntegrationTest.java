@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.StorageDao;
 import ru.diasoft.spring.domain.Author;
 import ru.diasoft.spring.service.impl.AuthorServiceImpl;
 
@@ -22,6 +24,10 @@ class AuthorServiceImplIntegrationTest {
     
     @Autowired
     private AuthorServiceImpl authorService;
+
+    @Autowired
+    @StorageDao
+    private AuthorDao storageAuthorDao;
     
     @Test
     @DisplayName("Должен найти всех авторов из тестовых данных")
@@ -111,6 +117,24 @@ class AuthorServiceImplIntegrationTest {
         assertThat(authorService.getAuthorById(authorId)).isEmpty();
     }
     
+    @Test
+    @DisplayName("findOrCreate должен только читать существующего автора, не увеличивая версию")
+    void shouldFindExistingAuthorWithoutWritingIt() {
+        // Given
+        Author existing = authorService.getAuthorById(100L).orElseThrow();
+
+        // When
+        Author found = storageAuthorDao.findOrCreate("Test", "Author1");
+        Author created = storageAuthorDao.findOrCreate("Created", "ByFindOrCreate");
+
+        // Then
+        assertThat(found.getId()).isEqualTo(100L);
+        assertThat(found.getVersion()).isEqualTo(existing.getVersion());
+        assertThat(found.getAge()).isEqualTo(30);
+        assertThat(created.getId()).isNotNull();
+        assertThat(storageAuthorDao.findOrCreate("Created", "ByFindOrCreate").getId()).isEqualTo(created.getId());
+    }
+
     @Test
     @DisplayName("Должен найти автора по имени и фамилии")
     void shouldFindAuthorByFullName() {
@@ -125,4 +149,16 @@ class AuthorServiceImplIntegrationTest {
         assertThat(author.get().getFirstName()).isEqualTo("Find");
         assertThat(author.get().getLastName()).isEqualTo("Me");
     }
+
+    @Test
+    @DisplayName("Должен листать авторов страницами по ключу (last_name, first_name, id)")
+    void shouldPageThroughAuthorsByKeyset() {
+        // When
+        List<Author> firstPage = authorService.getAuthorsPage(null, 2);
+        List<Author> secondPage = authorService.getAuthorsPage(firstPage.get(1).getId(), 2);
+        
+        // Then
+        assertThat(firstPage).extracting(Author::getLastName).containsExactly("Author1", "Author2");
+        assertThat(secondPage).extracting(Author::getLastName).containsExactly("Author3");
+    }
 }
\ No newline at end of file
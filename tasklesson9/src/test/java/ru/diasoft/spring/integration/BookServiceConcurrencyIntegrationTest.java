@@ -0,0 +1,145 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.GenreDao;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.service.BookImportResult;
+import ru.diasoft.spring.service.impl.BookServiceImpl;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без @Transactional: каждая книга создаётся в собственной транзакции сервиса из разных потоков,
+// поэтому созданные строки удаляются вручную
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Параллельное создание книг через BookServiceImpl")
+class BookServiceConcurrencyIntegrationTest {
+
+    private static final int THREADS = 64;
+    private static final int BOOKS_PER_THREAD = 20;
+    private static final int AUTHORS = 16;
+    private static final int GENRES = 4;
+
+    @Autowired
+    private BookServiceImpl bookService;
+    @Autowired
+    private AuthorDao authorDao;
+    @Autowired
+    private GenreDao genreDao;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final List<Book> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(book -> bookService.deleteBook(book.getId()));
+        jdbcTemplate.queryForList("SELECT id FROM book WHERE title LIKE 'Imported Book %'", Map.of(), Long.class)
+                .forEach(bookService::deleteBook);
+        jdbcTemplate.queryForList("SELECT id FROM author WHERE first_name IN ('Stress', 'Import')", Map.of(), Long.class)
+                .forEach(authorDao::deleteById);
+        jdbcTemplate.queryForList("SELECT id FROM genre WHERE name LIKE 'Stress Genre %' OR name LIKE 'Import Genre %'",
+                Map.of(), Long.class).forEach(genreDao::deleteById);
+    }
+
+    @Test
+    @DisplayName("64 потока с пересекающимися новыми авторами и жанрами не должны создавать дубликатов")
+    void shouldNotDuplicateAuthorsAndGenresUnderConcurrentCreates() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Book>>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                start.await();
+                List<Book> books = new ArrayList<>();
+                for (int i = 0; i < BOOKS_PER_THREAD; i++) {
+                    // Потоки начинают с разных авторов и быстро сходятся на одних и тех же
+                    int author = (thread + i) % AUTHORS;
+                    books.add(bookService.createBook("Stress Book " + thread + "-" + i,
+                            "Stress", "Author" + author, "Stress Genre " + (thread + i) % GENRES));
+                }
+                return books;
+            }));
+        }
+
+        // When
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        for (Future<List<Book>> result : results) {
+            created.addAll(result.get());
+        }
+
+        // Then
+        assertThat(created).hasSize(THREADS * BOOKS_PER_THREAD);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM author WHERE first_name = 'Stress'", Map.of(), Long.class))
+                .isEqualTo(AUTHORS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM genre WHERE name LIKE 'Stress Genre %'", Map.of(), Long.class))
+                .isEqualTo(GENRES);
+        assertThat(created.stream().map(book -> book.getAuthor().getId()).distinct()).hasSize(AUTHORS);
+        assertThat(created.stream().map(book -> book.getGenre().getId()).distinct()).hasSize(GENRES);
+    }
+
+    @Test
+    @DisplayName("Параллельные импорты с одними и теми же новыми авторами и жанрами не должны отклонять chunk-и")
+    void shouldNotRejectChunksUnderConcurrentImportsOfSameAuthors() throws Exception {
+        // Given - все потоки импортируют одних и тех же новых авторов и жанры, каждый в своём порядке строк
+        int imports = 8;
+        int rows = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(imports);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookImportResult>> results = new ArrayList<>();
+        for (int t = 0; t < imports; t++) {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                lines.add("Imported Book " + t + "-" + i + ";Import;Author" + i % AUTHORS + ";Import Genre " + i % GENRES);
+            }
+            Collections.shuffle(lines, new Random(t));
+            String csv = "title;author_first_name;author_last_name;genre\n" + String.join("\n", lines);
+            results.add(executor.submit(() -> {
+                start.await();
+                return bookService.importBooks(new StringReader(csv), 50);
+            }));
+        }
+
+        // When
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        for (Future<BookImportResult> result : results) {
+            assertThat(result.get().rejected()).isZero();
+            assertThat(result.get().imported()).isEqualTo(rows);
+        }
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM author WHERE first_name = 'Import'", Map.of(), Long.class))
+                .isEqualTo(AUTHORS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM genre WHERE name LIKE 'Import Genre %'", Map.of(), Long.class))
+                .isEqualTo(GENRES);
+    }
+}
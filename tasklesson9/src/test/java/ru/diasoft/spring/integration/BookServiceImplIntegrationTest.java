@@ -4,19 +4,32 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.diasoft.spring.dao.AuthorDao;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.GenreDao;
 import ru.diasoft.spring.domain.Author;
 import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookDraft;
+import ru.diasoft.spring.domain.BookSummary;
 import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.service.BookImportResult;
 import ru.diasoft.spring.service.impl.AuthorServiceImpl;
 import ru.diasoft.spring.service.impl.BookServiceImpl;
 import ru.diasoft.spring.service.impl.GenreServiceImpl;
 
+import java.io.StringReader;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -30,6 +43,14 @@ class BookServiceImplIntegrationTest {
     private AuthorServiceImpl authorService;
     @Autowired
     private GenreServiceImpl genreService;
+    @Autowired
+    private BookDao bookDao;
+    @Autowired
+    private AuthorDao authorDao;
+    @Autowired
+    private GenreDao genreDao;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
 
     @Test
     @DisplayName("Должен найти все книги из тестовых данных")
@@ -68,6 +89,45 @@ class BookServiceImplIntegrationTest {
         assertThat(book.get().getGenre().getName()).isEqualTo("Test Genre 2");
     }
 
+    @Test
+    @DisplayName("Изменение автора и жанра должно быть видно в уже закэшированной книге")
+    void shouldNotServeCachedBookAfterAuthorOrGenreChange() {
+        // Given
+        Book cached = bookService.getBookById(100L).orElseThrow();
+        bookService.getBookById(100L);
+
+        // When
+        authorService.updateAuthor(cached.getAuthor().getId(), "Renamed", "Author1", null);
+        genreService.updateGenre(cached.getGenre().getId(), "Renamed Genre");
+        Optional<Book> book = bookService.getBookById(100L);
+
+        // Then
+        assertThat(book).isPresent();
+        assertThat(book.get().getAuthor().getFirstName()).isEqualTo("Renamed");
+        assertThat(book.get().getGenre().getName()).isEqualTo("Renamed Genre");
+    }
+
+    // Вне транзакции теста: индекс триграмм видит книгу только после коммита
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Повторный поиск по названию после создания книги должен находить и её")
+    void shouldRefreshCachedTitleSearchAfterWrite() {
+        // Given
+        assertThat(bookService.findBookSummariesByTitle("Test Book")).hasSize(3);
+        assertThat(bookService.findBooksByTitle("Test Book")).hasSize(3);
+
+        // When
+        Book created = bookService.createBook("Test Book 4", "Test", "Author1", "Test Genre 1");
+        try {
+            // Then
+            assertThat(bookService.findBookSummariesByTitle("test book")).hasSize(4);
+            assertThat(bookService.findBooksByTitle("TEST BOOK")).hasSize(4);
+        } finally {
+            bookService.deleteBook(created.getId());
+        }
+        assertThat(bookService.findBookSummariesByTitle("Test Book")).hasSize(3);
+    }
+
     @Test
     @DisplayName("Должен вернуть пустой Optional для несуществующего ID")
     void shouldReturnEmptyOptionalForNonExistingId() {
@@ -137,6 +197,88 @@ class BookServiceImplIntegrationTest {
         );
     }
 
+    @Test
+    @DisplayName("Должен найти книги полнотекстовым поиском по слову из названия")
+    void shouldFindBooksFullTextByTitleWord() {
+        // When
+        List<Book> books = bookService.searchBooksFullText("book", 10);
+
+        // Then
+        assertThat(books).extracting(Book::getTitle)
+                .containsExactly("Test Book 1", "Test Book 2", "Test Book 3");
+        assertThat(books.get(0).getAuthor().getLastName()).isEqualTo("Author1");
+        assertThat(books.get(0).getGenre().getName()).isEqualTo("Test Genre 1");
+    }
+
+    @Test
+    @DisplayName("Должен ставить совпадение в названии выше совпадения по автору")
+    void shouldRankTitleMatchAboveAuthorMatch() {
+        // Given
+        bookService.createBook("Author2 Memoirs", "Test", "Author1", "Test Genre 1");
+
+        // When
+        List<Book> books = bookService.searchBooksFullText("Author2", 10);
+
+        // Then
+        assertThat(books).extracting(Book::getTitle)
+                .containsExactly("Author2 Memoirs", "Test Book 2");
+    }
+
+    @Test
+    @DisplayName("Должен ограничивать число результатов полнотекстового поиска")
+    void shouldLimitFullTextResults() {
+        // When
+        List<Book> books = bookService.searchBooksFullText("test", 2);
+
+        // Then
+        assertThat(books).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Страницы BookSummary должны совпадать со страницами полных книг")
+    void shouldPageBookSummariesLikeBooks() {
+        // When
+        List<BookSummary> firstPage = bookService.getBookSummariesPage(null, 2);
+        List<BookSummary> secondPage = bookService.getBookSummariesPage(firstPage.get(1).id(), 2);
+
+        // Then
+        assertThat(firstPage).containsExactly(
+                new BookSummary(100L, "Test Book 1", "Test", "Author1", "Test Genre 1"),
+                new BookSummary(101L, "Test Book 2", "Test", "Author2", "Test Genre 2"));
+        assertThat(secondPage).extracting(BookSummary::id)
+                .containsExactlyElementsOf(bookService.getBooksPage(101L, 2).stream().map(Book::getId).toList());
+    }
+
+    @Test
+    @DisplayName("% и _ в запросе должны искаться буквально, как в индексе триграмм")
+    void shouldTreatLikeWildcardsLiterally() {
+        // Given
+        bookService.createBook("100% Pure_Gold", "Test", "Author1", "Test Genre 1");
+
+        // When - короткие запросы идут мимо индекса, через LIKE
+        List<Book> percent = bookService.findBooksByTitle("%");
+        List<BookSummary> underscore = bookService.findBookSummariesByTitle("_");
+
+        // Then
+        assertThat(percent).extracting(Book::getTitle).containsExactly("100% Pure_Gold");
+        assertThat(underscore).extracting(BookSummary::title).containsExactly("100% Pure_Gold");
+    }
+
+    @Test
+    @DisplayName("Поиск BookSummary по подстроке и полнотекстовый должны находить те же книги")
+    void shouldSearchBookSummaries() {
+        // When
+        List<BookSummary> byTitle = bookService.findBookSummariesByTitle("Book 2");
+        List<BookSummary> shortQuery = bookService.findBookSummariesByTitle("3");
+        List<BookSummary> fullText = bookService.searchBookSummariesFullText("Author2", 10);
+
+        // Then
+        assertThat(byTitle).containsExactly(new BookSummary(101L, "Test Book 2", "Test", "Author2", "Test Genre 2"));
+        assertThat(shortQuery).extracting(BookSummary::title).containsExactly("Test Book 3");
+        assertThat(fullText).extracting(BookSummary::id)
+                .containsExactlyElementsOf(bookService.searchBooksFullText("Author2", 10).stream().map(Book::getId).toList());
+    }
+
     @Test
     @DisplayName("Должен найти книги по автору")
     void shouldFindBooksByAuthor() {
@@ -204,6 +346,26 @@ class BookServiceImplIntegrationTest {
         assertThat(foundBook.get().getTitle()).isEqualTo("Updated Title");
     }
 
+    @Test
+    @DisplayName("Обновление должно увеличивать версию, запись устаревшей копии - завершаться конфликтом")
+    void shouldRejectStaleBookUpdate() {
+        // Given
+        Book stale = bookService.getBookById(101L).orElseThrow();
+        long version = stale.getVersion();
+
+        // When
+        Book updated = bookService.updateBook(101L, "Fresh Title", "Test", "Author2", "Test Genre 2");
+        stale.setTitle("Stale Title");
+
+        // Then
+        assertThat(updated.getVersion()).isEqualTo(version + 1);
+        assertThat(bookService.getBookById(101L)).get().extracting(Book::getVersion).isEqualTo(version + 1);
+        assertThatThrownBy(() -> bookDao.update(stale))
+                .isInstanceOf(OptimisticLockingFailureException.class)
+                .hasMessageContaining("Book 101");
+        assertThat(bookService.getBookById(101L)).get().extracting(Book::getTitle).isEqualTo("Fresh Title");
+    }
+
     @Test
     @DisplayName("Должен удалить книгу")
     void shouldDeleteBook() {
@@ -247,4 +409,140 @@ class BookServiceImplIntegrationTest {
         assertThat(createdBook.getAuthor().getAge()).isEqualTo(35);
         assertThat(createdBook.getGenre().getName()).isEqualTo("Object Genre");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Должен листать книги страницами по ключу (title, id)")
+    void shouldPageThroughBooksByKeyset() {
+        // When
+        List<Book> firstPage = bookService.getBooksPage(null, 2);
+        List<Book> secondPage = bookService.getBooksPage(firstPage.get(1).getId(), 2);
+
+        // Then
+        assertThat(firstPage).extracting(Book::getTitle).containsExactly("Test Book 1", "Test Book 2");
+        assertThat(secondPage).extracting(Book::getTitle).containsExactly("Test Book 3");
+        assertThat(secondPage.get(0).getAuthor().getLastName()).isEqualTo("Author3");
+    }
+
+    @Test
+    @DisplayName("Страница должна учитывать книги с одинаковым названием по id")
+    void shouldPageBooksWithSameTitleById() {
+        // Given
+        Book duplicate = bookService.createBook("Test Book 1", "Test", "Author1", "Test Genre 1");
+
+        // When
+        List<Book> firstPage = bookService.getBooksPage(null, 1);
+        List<Book> secondPage = bookService.getBooksPage(firstPage.get(0).getId(), 1);
+
+        // Then
+        assertThat(firstPage.get(0).getTitle()).isEqualTo("Test Book 1");
+        assertThat(secondPage.get(0).getTitle()).isEqualTo("Test Book 1");
+        assertThat(List.of(firstPage.get(0).getId(), secondPage.get(0).getId()))
+                .containsExactlyInAnyOrder(100L, duplicate.getId())
+                .isSorted();
+    }
+
+    // Без ANALYZE: он коммитит открытую транзакцию в H2, а оценка MVStore и так учитывает строки
+    // текущей транзакции - вставленное откатывается вместе с тестом
+    @Test
+    @DisplayName("Оценка количества книг должна быть близка к реальному числу строк")
+    void shouldEstimateBooksCount() {
+        // Given - к трём книгам тестовых данных добавляется тысяча
+        jdbcTemplate.update("""
+                INSERT INTO book (title, author_id, genre_id)
+                SELECT 'Estimated Book ' || X, 100, 100 FROM SYSTEM_RANGE(1, 1000)
+                """, Map.of());
+
+        // When
+        long estimate = bookService.estimateBooksCount();
+
+        // Then
+        assertThat(estimate).isCloseTo(1003L, withinPercentage(10));
+    }
+
+    @Test
+    @DisplayName("Должен импортировать книги из CSV chunk-ами и отклонить некорректные строки")
+    void shouldImportBooksFromCsv() {
+        // Given
+        String csv = """
+                title;author_first_name;author_last_name;genre
+                Imported Book 1;Test;Author1;Test Genre 1
+                Imported Book 2;Import;Author;Imported Genre
+                broken row;without genre
+                Imported Book 3;Import;Author;Imported Genre
+                ;Import;Author;Imported Genre
+                """;
+
+        // When
+        BookImportResult result = bookService.importBooks(new StringReader(csv), 2);
+
+        // Then
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.rejected()).isEqualTo(2);
+        assertThat(bookService.findBooksByAuthor("Test", "Author1"))
+                .extracting(Book::getTitle)
+                .containsExactly("Imported Book 1", "Test Book 1");
+        List<Book> importedBooks = bookService.findBooksByAuthor("Import", "Author");
+        assertThat(importedBooks).extracting(Book::getTitle).containsExactly("Imported Book 2", "Imported Book 3");
+        assertThat(importedBooks).extracting(book -> book.getGenre().getName()).containsOnly("Imported Genre");
+        assertThat(authorService.getAllAuthors()).filteredOn(author -> author.getLastName().equals("Author")
+                && author.getFirstName().equals("Import")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Должен создать набор книг, переиспользуя существующих авторов и жанры")
+    void shouldCreateBooksBatch() {
+        // Given
+        List<BookDraft> drafts = List.of(
+                new BookDraft("Batch Book 1", "Test", "Author1", "Test Genre 1"),
+                new BookDraft("Batch Book 2", "Batch", "Author", "Batch Genre"),
+                new BookDraft("Batch Book 3", "Batch", "Author", "Batch Genre")
+        );
+
+        // When
+        List<Book> created = bookService.createBooks(drafts);
+
+        // Then
+        assertThat(created).extracting(Book::getTitle)
+                .containsExactly("Batch Book 1", "Batch Book 2", "Batch Book 3");
+        assertThat(created).allSatisfy(book -> assertThat(book.getId()).isNotNull());
+        assertThat(created.get(0).getAuthor().getId()).isEqualTo(100L);
+        assertThat(created.get(0).getGenre().getId()).isEqualTo(100L);
+        assertThat(created.get(1).getAuthor().getId()).isEqualTo(created.get(2).getAuthor().getId());
+        assertThat(bookService.getBookById(created.get(2).getId()))
+                .map(book -> book.getGenre().getName()).contains("Batch Genre");
+    }
+
+    @Test
+    @DisplayName("Некорректный черновик должен отклонять весь набор")
+    void shouldRejectWholeBatchWithInvalidDraft() {
+        // Given
+        List<BookDraft> drafts = List.of(
+                new BookDraft("Batch Book 1", "Batch", "Author", "Batch Genre"),
+                new BookDraft(" ", "Batch", "Author", "Batch Genre")
+        );
+
+        // When / Then
+        assertThatThrownBy(() -> bookService.createBooks(drafts))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid book draft at position 1");
+        assertThat(bookService.getAllBooks()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("findAllByIds должен сохранять порядок запрошенных id и пропускать отсутствующие")
+    void shouldFindAllByIdsInRequestedOrder() {
+        // Given
+        List<Long> ids = List.of(102L, 999L, 100L, 101L);
+
+        // When
+        List<Book> books = bookDao.findAllByIds(ids);
+        List<Author> authors = authorDao.findAllByIds(ids);
+        List<Genre> genres = genreDao.findAllByIds(ids);
+
+        // Then
+        assertThat(books).extracting(Book::getId).containsExactly(102L, 100L, 101L);
+        assertThat(authors).extracting(Author::getId).containsExactly(102L, 100L, 101L);
+        assertThat(genres).extracting(Genre::getId).containsExactly(102L, 100L, 101L);
+        assertThat(genres).extracting(Genre::getName).containsExactly("Test Genre 3", "Test Genre 1", "Test Genre 2");
+    }
+}
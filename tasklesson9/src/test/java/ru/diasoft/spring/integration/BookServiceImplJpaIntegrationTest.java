@@ -0,0 +1,59 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.diasoft.spring.dao.BookDao;
+import ru.diasoft.spring.dao.StorageDao;
+import ru.diasoft.spring.dao.impl.BookDaoJpa;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+import ru.diasoft.spring.service.BookService;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Все сценарии BookServiceImplIntegrationTest заново, но поверх JPA-реализаций DAO
+@ActiveProfiles("jpa")
+@DisplayName("Интеграционные тесты для BookServiceImpl с DAO на JPA")
+class BookServiceImplJpaIntegrationTest extends BookServiceImplIntegrationTest {
+
+    @Autowired
+    @StorageDao
+    private BookDao storageBookDao;
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    @DisplayName("В профиле jpa кэши оборачивают JPA-реализацию")
+    void shouldUseJpaDaoInJpaProfile() {
+        // Then
+        assertThat(storageBookDao).isInstanceOf(BookDaoJpa.class);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Поток книг вне транзакции читается до конца и закрывается")
+    void shouldStreamBooksOutsideTransaction() {
+        // When
+        List<Book> books;
+        try (Stream<Book> stream = bookService.streamAllBooks()) {
+            books = stream.toList();
+        }
+        List<BookSummary> summaries;
+        try (Stream<BookSummary> stream = bookService.streamAllBookSummaries()) {
+            summaries = stream.toList();
+        }
+
+        // Then
+        assertThat(books).extracting(Book::getId).containsExactly(100L, 101L, 102L);
+        assertThat(books.get(0).getAuthor().getLastName()).isEqualTo("Author1");
+        assertThat(books.get(0).getGenre().getName()).isEqualTo("Test Genre 1");
+        assertThat(summaries).extracting(BookSummary::id).containsExactly(100L, 101L, 102L);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.diasoft.spring.integration;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import ru.diasoft.spring.export.CatalogFormat;
+import ru.diasoft.spring.service.CatalogExportResult;
+import ru.diasoft.spring.service.impl.CatalogExportServiceImpl;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без @Transactional: выгрузка по жанрам читает в других потоках и видит только закоммиченные данные
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Интеграционные тесты для CatalogExportServiceImpl")
+class CatalogExportServiceImplIntegrationTest {
+
+    @Autowired
+    private CatalogExportServiceImpl catalogExport;
+
+    @Autowired
+    @Qualifier("exportTaskExecutor")
+    private ThreadPoolTaskExecutor exportTaskExecutor;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @DisplayName("CSV должен читаться тем же парсером, что и import-books")
+    void shouldExportCsvReadableByImport() throws Exception {
+        // Given
+        Path out = tempDir.resolve("catalog.csv");
+
+        // When
+        CatalogExportResult result = catalogExport.export(CatalogFormat.CSV, out, false);
+
+        // Then
+        assertThat(result.rows()).isEqualTo(3);
+        assertThat(result.files()).isEqualTo(1);
+        assertThat(result.bytes()).isEqualTo(Files.size(out));
+        try (CSVReader reader = new CSVReaderBuilder(Files.newBufferedReader(out, StandardCharsets.UTF_8))
+                .withCSVParser(new CSVParserBuilder().withSeparator(';').build())
+                .withSkipLines(1)
+                .build()) {
+            assertThat(reader.readAll()).containsExactly(
+                    new String[]{"Test Book 1", "Test", "Author1", "Test Genre 1"},
+                    new String[]{"Test Book 2", "Test", "Author2", "Test Genre 2"},
+                    new String[]{"Test Book 3", "Test", "Author3", "Test Genre 3"});
+        }
+    }
+
+    @Test
+    @DisplayName("JSON Lines с gzip должен распаковываться в строку на книгу")
+    void shouldExportGzippedJsonLines() throws Exception {
+        // Given
+        Path out = tempDir.resolve("catalog.jsonl.gz");
+
+        // When
+        CatalogExportResult result = catalogExport.export(CatalogFormat.JSONL, out, true);
+
+        // Then
+        assertThat(result.rows()).isEqualTo(3);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(out)), StandardCharsets.UTF_8))) {
+            assertThat(reader.lines().toList()).containsExactly(
+                    "{\"id\":100,\"title\":\"Test Book 1\",\"authorFirstName\":\"Test\",\"authorLastName\":\"Author1\",\"genre\":\"Test Genre 1\"}",
+                    "{\"id\":101,\"title\":\"Test Book 2\",\"authorFirstName\":\"Test\",\"authorLastName\":\"Author2\",\"genre\":\"Test Genre 2\"}",
+                    "{\"id\":102,\"title\":\"Test Book 3\",\"authorFirstName\":\"Test\",\"authorLastName\":\"Author3\",\"genre\":\"Test Genre 3\"}");
+        }
+    }
+
+    @Test
+    @DisplayName("Выгрузка по жанрам должна создать файл на каждый жанр и файл для книг без жанра")
+    void shouldExportOneFilePerGenre() throws Exception {
+        // Given
+        Path directory = tempDir.resolve("by-genre");
+
+        // When
+        CatalogExportResult result = catalogExport.exportByGenre(CatalogFormat.JSONL, directory, false);
+
+        // Then
+        assertThat(result.rows()).isEqualTo(3);
+        assertThat(result.files()).isEqualTo(4);
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()).sorted().toList()).containsExactly(
+                    "genre-100.jsonl", "genre-101.jsonl", "genre-102.jsonl", "no-genre.jsonl");
+        }
+        List<String> secondGenre = Files.readAllLines(directory.resolve("genre-101.jsonl"));
+        assertThat(secondGenre).singleElement().asString().contains("\"title\":\"Test Book 2\"");
+        assertThat(Files.size(directory.resolve("no-genre.jsonl"))).isZero();
+    }
+
+    @Test
+    @DisplayName("Выгрузка по жанрам должна идти на своём пуле, не занимая потоки асинхронных операций")
+    void shouldExportByGenreOnOwnExecutor() throws Exception {
+        // Given
+        long exportTasks = exportTaskExecutor.getThreadPoolExecutor().getTaskCount();
+
+        // When
+        CatalogExportResult result = catalogExport.exportByGenre(CatalogFormat.CSV, tempDir.resolve("own-pool"), false);
+
+        // Then
+        assertThat(exportTaskExecutor.getThreadPoolExecutor().getTaskCount() - exportTasks).isEqualTo(result.files());
+        assertThat(exportTaskExecutor.getMaxPoolSize()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.service.CatalogGenerationResult;
+import ru.diasoft.spring.service.impl.AuthorServiceImpl;
+import ru.diasoft.spring.service.impl.BookServiceImpl;
+import ru.diasoft.spring.service.impl.CatalogGeneratorServiceImpl;
+import ru.diasoft.spring.service.impl.GenreServiceImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Интеграционные тесты для CatalogGeneratorServiceImpl")
+class CatalogGeneratorServiceImplIntegrationTest {
+
+    @Autowired
+    private CatalogGeneratorServiceImpl catalogGenerator;
+    @Autowired
+    private BookServiceImpl bookService;
+    @Autowired
+    private AuthorServiceImpl authorService;
+    @Autowired
+    private GenreServiceImpl genreService;
+
+    @Test
+    @DisplayName("Должен создать авторов, жанры и книги с перекосом по авторам")
+    void shouldGenerateSkewedCatalog() {
+        // Given
+        int authorsBefore = authorService.getAllAuthors().size();
+        int genresBefore = genreService.getAllGenres().size();
+
+        // When
+        CatalogGenerationResult result = catalogGenerator.generate(50, 10, 12_000, 42);
+
+        // Then
+        assertThat(result.authors()).isEqualTo(50);
+        assertThat(result.genres()).isEqualTo(10);
+        assertThat(result.books()).isEqualTo(12_000);
+        assertThat(authorService.getAllAuthors()).hasSize(authorsBefore + 50);
+        assertThat(genreService.getAllGenres()).hasSize(genresBefore + 10);
+
+        List<Book> books = bookService.getAllBooks();
+        assertThat(books).hasSize(3 + 12_000);
+        Map<Long, Long> booksPerAuthor = books.stream()
+                .filter(book -> book.getId() > 102)
+                .collect(Collectors.groupingBy(book -> book.getAuthor().getId(), Collectors.counting()));
+        long mostProlific = booksPerAuthor.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+        long leastProlific = booksPerAuthor.values().stream().mapToLong(Long::longValue).min().orElseThrow();
+        assertThat(mostProlific).isGreaterThan(20 * leastProlific);
+    }
+
+    @Test
+    @DisplayName("Повторный запуск с тем же seed должен переиспользовать авторов и жанры")
+    void shouldReuseAuthorsAndGenresOnRerun() {
+        // Given
+        catalogGenerator.generate(30, 5, 100, 7);
+        int authorsAfterFirstRun = authorService.getAllAuthors().size();
+        int genresAfterFirstRun = genreService.getAllGenres().size();
+
+        // When
+        catalogGenerator.generate(30, 5, 100, 7);
+
+        // Then
+        assertThat(authorService.getAllAuthors()).hasSize(authorsAfterFirstRun);
+        assertThat(genreService.getAllGenres()).hasSize(genresAfterFirstRun);
+        Map<String, Long> titles = bookService.getAllBooks().stream()
+                .filter(book -> book.getId() > 102)
+                .collect(Collectors.groupingBy(Book::getTitle, Collectors.counting()));
+        assertThat(titles.values()).allSatisfy(count -> assertThat(count % 2).isZero());
+    }
+
+    @Test
+    @DisplayName("Должен отклонять неположительное число авторов")
+    void shouldRejectInvalidAuthorsCount() {
+        assertThatThrownBy(() -> catalogGenerator.generate(0, 10, 100, 42))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Authors count must be positive: 0");
+    }
+}
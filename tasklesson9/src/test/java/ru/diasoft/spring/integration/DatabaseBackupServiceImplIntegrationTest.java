@@ -0,0 +1,118 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.diasoft.spring.dao.cache.WriteGeneration;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.service.BackupResult;
+import ru.diasoft.spring.service.impl.BookServiceImpl;
+import ru.diasoft.spring.service.impl.DatabaseBackupServiceImpl;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Восстановление пересоздаёт всю схему, поэтому контекст после класса не переиспользуется
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+@DisplayName("Интеграционные тесты для DatabaseBackupServiceImpl")
+class DatabaseBackupServiceImplIntegrationTest {
+
+    @Autowired
+    private DatabaseBackupServiceImpl backupService;
+    @Autowired
+    private BookServiceImpl bookService;
+    @Autowired
+    private WriteGeneration writeGeneration;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @DisplayName("Восстановление должно вернуть данные на момент резервной копии")
+    void shouldRestoreDataAsOfBackup() {
+        // Given
+        Path file = tempDir.resolve("backups/library.sql.gz");
+        BackupResult backup = backupService.backup(file);
+        Book addedAfterBackup = bookService.createBook("After Backup", "Backup", "Author", "Backup Genre");
+        bookService.getBookById(100L);
+        long generation = writeGeneration.current();
+
+        // When
+        BackupResult restore = backupService.restore(file);
+
+        // Then
+        assertThat(backup.bytes()).isPositive().isEqualTo(restore.bytes());
+        assertThat(writeGeneration.current()).isGreaterThan(generation);
+        assertThat(bookService.getBookById(addedAfterBackup.getId())).isEmpty();
+        assertThat(bookService.getAllBooks()).extracting(Book::getTitle)
+                .containsExactlyInAnyOrder("Test Book 1", "Test Book 2", "Test Book 3");
+        assertThat(bookService.findBooksByTitle("After Backup")).isEmpty();
+        assertThat(bookService.searchBooksFullText("Author1", 10)).extracting(Book::getId).containsExactly(100L);
+
+        Book created = bookService.createBook("After Restore", "Test", "Author1", "Test Genre 1");
+        assertThat(created.getId()).isGreaterThan(102L);
+        assertThat(bookService.findBooksByTitle("After Restore")).extracting(Book::getId)
+                .containsExactly(created.getId());
+        assertThat(bookService.searchBooksFullText("Restore", 10)).extracting(Book::getId)
+                .containsExactly(created.getId());
+        bookService.deleteBook(created.getId());
+    }
+
+    @Test
+    @DisplayName("Файл, не являющийся резервной копией, должен отклоняться до удаления данных")
+    void shouldRejectNonBackupFileWithoutTouchingData() throws Exception {
+        // Given
+        Path file = tempDir.resolve("not-a-backup.sql.gz");
+        Files.writeString(file, "DROP ALL OBJECTS;");
+
+        // When / Then
+        assertThatThrownBy(() -> backupService.restore(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not-a-backup.sql.gz");
+        assertThatThrownBy(() -> backupService.restore(tempDir.resolve("missing.sql.gz")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Backup file not found");
+        List<Book> books = bookService.getAllBooks();
+        assertThat(books).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Ошибка посреди скрипта должна возвращать базу к состоянию до восстановления")
+    void shouldReloadPreviousStateWhenScriptFailsMidway() throws Exception {
+        // Given - заголовок скрипта H2, первая команда проходит, вторая - нет
+        Path file = tempDir.resolve("broken.sql.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write("""
+                -- H2 2.2.220;
+                CREATE TABLE "PUBLIC"."HALF_RESTORED"("ID" INTEGER);
+                NOT A SQL STATEMENT;
+                """.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> backupService.restore(file)).isInstanceOf(DataAccessException.class);
+        assertThat(bookService.getAllBooks()).extracting(Book::getTitle)
+                .containsExactlyInAnyOrder("Test Book 1", "Test Book 2", "Test Book 3");
+        assertThat(bookService.searchBooksFullText("Author1", 10)).extracting(Book::getId).containsExactly(100L);
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'HALF_RESTORED'
+                """, Long.class)).isZero();
+    }
+}
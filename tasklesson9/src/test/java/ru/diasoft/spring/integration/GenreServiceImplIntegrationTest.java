@@ -82,4 +82,16 @@ class GenreServiceImplIntegrationTest {
         assertThat(genre).isPresent();
         assertThat(genre.get().getName()).isEqualTo("Find Me Genre");
     }
+
+    @Test
+    @DisplayName("Должен листать жанры страницами по ключу (name, id)")
+    void shouldPageThroughGenresByKeyset() {
+        // When
+        List<Genre> firstPage = genreService.getGenresPage(null, 2);
+        List<Genre> secondPage = genreService.getGenresPage(firstPage.get(1).getId(), 2);
+        
+        // Then
+        assertThat(firstPage).extracting(Genre::getName).containsExactly("Test Genre 1", "Test Genre 2");
+        assertThat(secondPage).extracting(Genre::getName).containsExactly("Test Genre 3");
+    }
 }
\ No newline at end of file
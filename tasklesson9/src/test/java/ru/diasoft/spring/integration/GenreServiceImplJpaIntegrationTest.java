@@ -0,0 +1,10 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.test.context.ActiveProfiles;
+
+// Все сценарии GenreServiceImplIntegrationTest заново, но поверх JPA-реализаций DAO
+@ActiveProfiles("jpa")
+@DisplayName("Интеграционные тесты для GenreServiceImpl с DAO на JPA")
+class GenreServiceImplJpaIntegrationTest extends GenreServiceImplIntegrationTest {
+}
@@ -0,0 +1,125 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.diasoft.spring.dao.cache.BookAggregateCache;
+import ru.diasoft.spring.metrics.DaoCacheMetrics;
+import ru.diasoft.spring.metrics.LibraryMetrics;
+import ru.diasoft.spring.metrics.LibraryMetrics.MethodStats;
+import ru.diasoft.spring.service.impl.BookServiceImpl;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Интеграционные тесты метрик DAO и сервисов")
+class LibraryMetricsIntegrationTest {
+
+    @Autowired
+    private BookServiceImpl bookService;
+    @Autowired
+    private LibraryMetrics metrics;
+    @Autowired
+    private BookAggregateCache bookCache;
+    @Autowired
+    private MeterRegistry registry;
+
+    // Контекст общий с другими тестами: книга могла остаться в кэше, тогда findById не дойдёт до BookDaoJdbc
+    @BeforeEach
+    void setUp() {
+        metrics.reset();
+        bookCache.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Должен замерять сервисный метод и вызванные им DAO, считая строки")
+    void shouldRecordServiceAndDaoCalls() {
+        // When
+        bookService.getAllBooks();
+        bookService.getAllBooks();
+        bookService.getBookById(100L);
+
+        // Then
+        Map<String, MethodStats> stats = statsByName();
+        assertThat(stats.get("BookServiceImpl.getAllBooks").calls()).isEqualTo(2);
+        assertThat(stats.get("BookDaoJdbc.findAll").calls()).isEqualTo(2);
+        assertThat(stats.get("BookDaoJdbc.findAll").rowsP95()).isEqualTo(3.0);
+        assertThat(stats.get("BookDaoJdbc.findById").rowsP95()).isEqualTo(1.0);
+
+        MethodStats findAll = stats.get("BookServiceImpl.getAllBooks");
+        assertThat(findAll.p50Millis()).isPositive();
+        assertThat(findAll.p99Millis()).isGreaterThanOrEqualTo(findAll.p50Millis());
+        assertThat(findAll.maxMillis()).isGreaterThanOrEqualTo(findAll.p50Millis());
+        assertThat(findAll.errors()).isZero();
+    }
+
+    @Test
+    @DisplayName("Должен считать ошибки, а методы без результата - без строк")
+    void shouldCountErrors() {
+        // When
+        assertThatThrownBy(() -> bookService.getBooksPage(-1L, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        bookService.deleteBook(102L);
+
+        // Then
+        Map<String, MethodStats> stats = statsByName();
+        assertThat(stats.get("BookServiceImpl.getBooksPage").errors()).isEqualTo(1);
+        assertThat(stats.get("BookServiceImpl.getBooksPage").calls()).isEqualTo(1);
+        assertThat(stats.get("BookDaoJdbc.deleteById").rowsP95()).isNaN();
+    }
+
+    @Test
+    @DisplayName("Сброс должен обнулять статистику")
+    void shouldResetStatistics() {
+        // Given
+        bookService.getAllBooks();
+        assertThat(metrics.snapshot()).isNotEmpty();
+
+        // When
+        metrics.reset();
+
+        // Then
+        assertThat(metrics.snapshot()).isEmpty();
+        bookService.getAllBooks();
+        assertThat(statsByName().get("BookServiceImpl.getAllBooks").calls()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Должен публиковать попадания и промахи кэша книг")
+    void shouldPublishBookCacheHitsAndMisses() {
+        // Given
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        // When
+        bookService.getBookById(100L);
+        bookService.getBookById(100L);
+        bookService.getBookById(100L);
+
+        // Then
+        assertThat(cacheGets("hit") - hits).isEqualTo(2.0);
+        assertThat(cacheGets("miss") - misses).isEqualTo(1.0);
+        assertThat(registry.get(DaoCacheMetrics.SIZE).tag("cache", "books").gauge().value()).isEqualTo(1.0);
+        assertThat(statsByName().get("BookDaoJdbc.findById").calls()).isEqualTo(1);
+    }
+
+    private double cacheGets(String result) {
+        return registry.get(DaoCacheMetrics.GETS).tag("cache", "books").tag("result", result).functionCounter().count();
+    }
+
+    private Map<String, MethodStats> statsByName() {
+        return metrics.snapshot().stream().collect(Collectors.toMap(MethodStats::name, Function.identity()));
+    }
+}
@@ -0,0 +1,64 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.diasoft.spring.Tasklesson9Application;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.service.BookService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Профиль persistent: файловая H2 и тёплый старт")
+class PersistentProfileIntegrationTest {
+
+    private static final String CHANGELOG_STATE =
+            "SELECT COUNT(*) AS applied, MAX(DATEEXECUTED) AS last_executed FROM DATABASECHANGELOG";
+
+    @TempDir
+    Path storage;
+
+    @Test
+    @DisplayName("Данные переживают перезапуск, а Liquibase на тёплом старте ничего не выполняет")
+    void shouldKeepDataAndSkipLiquibaseOnWarmStart() {
+        // Given - холодный старт создаёт схему и загружает начальные данные
+        Map<String, Object> coldState;
+        Long bookId;
+        try (ConfigurableApplicationContext context = start()) {
+            coldState = context.getBean(JdbcTemplate.class).queryForMap(CHANGELOG_STATE);
+            bookId = context.getBean(BookService.class)
+                    .createBook("Persistent Book", "Persistent", "Author", "Persistent Genre").getId();
+        }
+        assertThat(Files.exists(storage.resolve("library.mv.db"))).isTrue();
+
+        // When
+        try (ConfigurableApplicationContext context = start()) {
+            // Then
+            Map<String, Object> warmState = context.getBean(JdbcTemplate.class).queryForMap(CHANGELOG_STATE);
+            assertThat(warmState).isEqualTo(coldState);
+
+            BookService bookService = context.getBean(BookService.class);
+            assertThat(bookService.getBookById(bookId)).map(Book::getTitle).contains("Persistent Book");
+            List<Book> found = bookService.findBooksByTitle("Persistent");
+            assertThat(found).extracting(Book::getId).containsExactly(bookId);
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(Tasklesson9Application.class)
+                .web(WebApplicationType.NONE)
+                .profiles("persistent")
+                .run("--library.storage.path=" + storage.resolve("library"),
+                        "--spring.shell.interactive.enabled=false",
+                        "--spring.main.banner-mode=off");
+    }
+}
@@ -0,0 +1,122 @@
+package ru.diasoft.spring.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.service.BookService;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "library.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles({"test", "replica"})
+@DirtiesContext
+@DisplayName("Профиль replica: чтение с реплики, запись в основную базу")
+class ReplicaRoutingIntegrationTest {
+
+    private static final long REPLICA_ONLY_BOOK_ID = 900_001L;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    @DisplayName("При старте реплика получает копию основной базы")
+    void shouldCopyPrimaryToReplicaOnStartup() {
+        // When
+        Long onPrimary = countBooks(primaryDataSource);
+        Long onReplica = countBooks(replicaDataSource);
+
+        // Then
+        assertThat(onReplica).isEqualTo(onPrimary).isPositive();
+    }
+
+    @Test
+    @DisplayName("Транзакция readOnly должна читать с реплики")
+    void shouldReadFromReplicaInReadOnlyTransaction() {
+        // Given - строка есть только на реплике
+        new JdbcTemplate(replicaDataSource).update(
+                "INSERT INTO book (id, title, author_id, genre_id) VALUES (?, 'Replica Only', 100, 100)",
+                REPLICA_ONLY_BOOK_ID);
+
+        // When
+        var found = bookService.getBookById(REPLICA_ONLY_BOOK_ID);
+
+        // Then
+        assertThat(found).map(Book::getTitle).contains("Replica Only");
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT COUNT(*) FROM book WHERE id = ?", Long.class, REPLICA_ONLY_BOOK_ID)).isZero();
+    }
+
+    @Test
+    @DisplayName("Запись идёт в основную базу и после коммита видна на реплике")
+    void shouldWriteToPrimaryAndReplicateAfterCommit() {
+        // When
+        Book created = bookService.createBook("Replicated Book", "Replica", "Author", "Replica Genre");
+
+        // Then
+        String sql = "SELECT title FROM book WHERE id = ?";
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(sql, String.class, created.getId()))
+                .isEqualTo("Replicated Book");
+        assertThat(new JdbcTemplate(replicaDataSource).queryForObject(sql, String.class, created.getId()))
+                .isEqualTo("Replicated Book");
+        assertThat(bookService.findBooksByTitle("Replicated")).extracting(Book::getId).containsExactly(created.getId());
+    }
+
+    @Test
+    @DisplayName("Чтение с реплики сразу после коммита не должно оставлять в кэшах старую версию книги")
+    void shouldNotCacheStaleReplicaRowsAfterCommit() {
+        // Given - книга и результат поиска уже в кэшах
+        Book book = bookService.createBook("Before Window Update", "Window", "Author", "Window Genre");
+        assertThat(bookService.getBookById(book.getId())).map(Book::getTitle).contains("Before Window Update");
+        assertThat(bookService.findBooksByTitle("Window Update")).hasSize(1);
+
+        // When - как только запись зафиксирована и кэши сброшены, другой поток читает книгу и поиск с реплики
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookService.updateBook(book.getId(), "After Window Update", "Window", "Author", "Window Genre");
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    CompletableFuture.runAsync(() -> {
+                        bookService.getBookById(book.getId());
+                        bookService.findBooksByTitle("Window Update");
+                    }).join();
+                }
+            });
+        });
+
+        // Then
+        assertThat(bookService.getBookById(book.getId())).map(Book::getTitle).contains("After Window Update");
+        assertThat(bookService.findBooksByTitle("Window Update")).extracting(Book::getTitle)
+                .containsExactly("After Window Update");
+    }
+
+    private static Long countBooks(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM book", Long.class);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.diasoft.spring.replica;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование ReplicaFallbackDataSource")
+class ReplicaFallbackDataSourceTest {
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private DataSource primary;
+
+    private ReplicaFallbackDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReplicaFallbackDataSource(replica, primary);
+    }
+
+    @Test
+    @DisplayName("Должен отдавать соединение реплики, пока она доступна")
+    void shouldUseReplicaWhenAvailable() throws SQLException {
+        // Given
+        Connection replicaConnection = mock(Connection.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // When
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertThat(connection).isSameAs(replicaConnection);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    @DisplayName("Должен читать из основной базы, если реплика недоступна")
+    void shouldFallBackToPrimaryWhenReplicaUnavailable() throws SQLException {
+        // Given
+        Connection primaryConnection = mock(Connection.class);
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica - Connection is not available"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertThat(connection).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Должен пробрасывать ошибку, если недоступны обе базы")
+    void shouldFailWhenBothUnavailable() throws SQLException {
+        // Given
+        when(replica.getConnection()).thenThrow(new SQLException("replica is down"));
+        when(primary.getConnection()).thenThrow(new SQLException("primary is down"));
+
+        // When / Then
+        assertThatThrownBy(() -> dataSource.getConnection())
+                .isInstanceOf(SQLException.class)
+                .hasMessage("primary is down");
+    }
+}
@@ -0,0 +1,107 @@
+package ru.diasoft.spring.retry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.diasoft.spring.config.RetryProperties;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование OptimisticLockRetry")
+class OptimisticLockRetryTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OptimisticLockRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        RetryProperties properties = new RetryProperties();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        retry = new OptimisticLockRetry(new TransactionTemplate(transactionManager), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Должен повторять операцию в новой транзакции после конфликта версий")
+    void shouldRetryAfterConflict() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = retry.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "saved";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("saved");
+        assertThat(calls).hasValue(3);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Должен пробросить конфликт, когда попытки закончились")
+    void shouldGiveUpAfterMaxAttempts() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When / Then
+        assertThatThrownBy(() -> retry.execute(() -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Не должен повторять другие ошибки")
+    void shouldNotRetryOtherErrors() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When / Then
+        assertThatThrownBy(() -> retry.execute(() -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Book not found with id: 1");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Должен отказываться работать внутри уже открытой транзакции")
+    void shouldRejectCallInsideTransaction() {
+        // Given
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When / Then
+        assertThatThrownBy(() -> retry.execute(() -> "saved"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("outside of a transaction");
+    }
+}
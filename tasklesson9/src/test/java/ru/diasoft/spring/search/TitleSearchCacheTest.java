@@ -0,0 +1,122 @@
+package ru.diasoft.spring.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.diasoft.spring.dao.cache.WriteGeneration;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Тестирование TitleSearchCache")
+class TitleSearchCacheTest {
+
+    private WriteGeneration generation;
+
+    private TitleSearchCache cache;
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    private final Function<String, List<BookSummary>> search = title -> {
+        searches.incrementAndGet();
+        return List.of(new BookSummary(1L, "War and Peace", "Leo", "Tolstoy", "Novel"));
+    };
+
+    @BeforeEach
+    void setUp() {
+        generation = new WriteGeneration();
+        cache = new TitleSearchCache("title-search", 100, null, 2, generation);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Повторный поиск того же фрагмента в любом регистре должен браться из кэша")
+    void shouldServeRepeatedFragmentFromCache() {
+        // When
+        cache.findSummaries("Peace", search);
+        List<BookSummary> second = cache.findSummaries("PEACE", search);
+
+        // Then
+        assertThat(second).extracting(BookSummary::title).containsExactly("War and Peace");
+        assertThat(searches).hasValue(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("После записи все результаты прошлого поколения должны считаться промахом")
+    void shouldMissAfterWriteGenerationBump() {
+        // Given
+        cache.findSummaries("Peace", search);
+        cache.findSummaries("War", search);
+
+        // When
+        generation.bump();
+        cache.findSummaries("Peace", search);
+        cache.findSummaries("War", search);
+
+        // Then
+        assertThat(searches).hasValue(4);
+        assertThat(cache.stats().hitRate()).isZero();
+    }
+
+    @Test
+    @DisplayName("Книги должны отдаваться копиями, а слишком большие результаты - не кэшироваться")
+    void shouldCopyBooksAndSkipLargeResults() {
+        // Given
+        Function<String, List<Book>> oneBook = title -> List.of(new Book(1L, "War and Peace", null, null, 0L));
+        Function<String, List<Book>> threeBooks = title -> {
+            searches.incrementAndGet();
+            return List.of(new Book(1L, "A", null, null, 0L), new Book(2L, "B", null, null, 0L),
+                    new Book(3L, "C", null, null, 0L));
+        };
+        cache.findBooks("war", oneBook).get(0).setTitle("Changed");
+
+        // When
+        List<Book> cached = cache.findBooks("war", oneBook);
+        cache.findBooks("a", threeBooks);
+        cache.findBooks("a", threeBooks);
+
+        // Then
+        assertThat(cached).extracting(Book::getTitle).containsExactly("War and Peace");
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Пишущая транзакция должна искать мимо кэша, а после её завершения старые результаты устаревают")
+    void shouldBypassCacheInWritingTransaction() {
+        // Given
+        cache.findSummaries("Peace", search);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        generation.bump();
+        cache.findSummaries("Peace", search);
+        cache.findSummaries("Peace", search);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        long beforeCompletion = generation.current();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        cache.findSummaries("Peace", search);
+        cache.findSummaries("Peace", search);
+
+        // Then
+        assertThat(generation.current()).isEqualTo(beforeCompletion + 1);
+        assertThat(searches).hasValue(4);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.diasoft.spring.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.diasoft.spring.domain.Book;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Тестирование TitleTrigramIndex")
+class TitleTrigramIndexTest {
+
+    private TitleTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TitleTrigramIndex();
+        index.rebuild(() -> Stream.of(
+                new Book(1L, "War and Peace", null, null),
+                new Book(2L, "Peace", null, null),
+                new Book(3L, "The Warden", null, null),
+                new Book(4L, "Peaceful Warrior", null, null),
+                new Book(5L, "Anna Karenina", null, null)
+        ));
+    }
+
+    @Test
+    @DisplayName("Должен находить подстроку без учёта регистра, как LIKE")
+    void shouldFindSubstringIgnoringCase() {
+        assertThat(index.search("WAR")).containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(index.search("karen")).containsExactly(5L);
+        assertThat(index.search("xyz")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Не должен возвращать кандидатов, у которых есть все триграммы, но нет подстроки")
+    void shouldRejectTrigramFalsePositives() {
+        index.rebuild(() -> Stream.of(new Book(1L, "abcd bcde", null, null)));
+
+        assertThat(index.search("abcde")).isEmpty();
+        assertThat(index.search("bcde")).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Должен ранжировать: точное совпадение, начало названия, начало слова, середина слова")
+    void shouldRankByMatchQuality() {
+        assertThat(index.search("peace")).containsExactly(2L, 4L, 1L);
+        assertThat(index.search("war")).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Должен учитывать изменение и удаление названия")
+    void shouldApplyUpdatesAndRemovals() {
+        // When
+        index.put(2L, "Resurrection");
+        index.remove(5L);
+        index.put(6L, "Peace Treaty");
+
+        // Then
+        assertThat(index.search("peace")).containsExactly(6L, 4L, 1L);
+        assertThat(index.search("resurrect")).containsExactly(2L);
+        assertThat(index.search("anna")).isEmpty();
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Короткие запросы и неготовый индекс не поддерживаются")
+    void shouldNotSupportShortQueriesOrUnbuiltIndex() {
+        assertThat(index.supports("wa")).isFalse();
+        assertThat(index.supports("war")).isTrue();
+        assertThat(new TitleTrigramIndex().supports("war")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Изменения, закоммиченные во время перестройки, должны попасть в новый индекс")
+    void shouldReplayChangesCommittedDuringRebuild() {
+        // When - поток перестройки уже прочитал книги 1 и 2, когда их изменили
+        index.rebuild(() -> Stream.of(
+                new Book(1L, "War and Peace", null, null),
+                new Book(2L, "Peace", null, null),
+                new Book(3L, "The Warden", null, null)
+        ).peek(book -> {
+            if (book.getId() == 3L) {
+                index.put(1L, "Resurrection");
+                index.remove(2L);
+                index.put(7L, "Peace Treaty");
+            }
+        }));
+
+        // Then
+        assertThat(index.search("resurrect")).containsExactly(1L);
+        assertThat(index.search("peace")).containsExactly(7L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Изменения во время первой сборки не должны теряться, пока индекс ещё не готов")
+    void shouldKeepChangesWhileFirstBuildIsRunning() {
+        // Given
+        TitleTrigramIndex fresh = new TitleTrigramIndex();
+
+        // When
+        fresh.rebuild(() -> Stream.of(new Book(1L, "War and Peace", null, null))
+                .peek(book -> fresh.put(2L, "Peaceful Warrior")));
+
+        // Then
+        assertThat(fresh.search("peace")).containsExactly(2L, 1L);
+    }
+}
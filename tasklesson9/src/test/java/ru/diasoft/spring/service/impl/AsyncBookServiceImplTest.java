@@ -0,0 +1,268 @@
+package ru.diasoft.spring.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import ru.diasoft.spring.config.AsyncConfig;
+import ru.diasoft.spring.config.AsyncProperties;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookSummary;
+import ru.diasoft.spring.service.BookService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование AsyncBookServiceImpl")
+class AsyncBookServiceImplTest {
+
+    @Mock
+    private BookService bookService;
+
+    private ExecutorService executor;
+    private AsyncBookServiceImpl asyncBookService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        asyncBookService = new AsyncBookServiceImpl(bookService, executor, slots(2, Duration.ofSeconds(5)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Должен выполнять операцию в другом потоке и возвращать её результат")
+    void shouldCompleteWithServiceResult() throws Exception {
+        // Given
+        Book book = new Book(1L, "War and Peace", null, null);
+        when(bookService.getBookById(1L)).thenAnswer(invocation -> {
+            assertThat(Thread.currentThread().getName()).doesNotStartWith("main");
+            return Optional.of(book);
+        });
+
+        // When
+        Optional<Book> result = asyncBookService.getBookById(1L).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(result).contains(book);
+    }
+
+    @Test
+    @DisplayName("Не должен выполнять одновременно больше операций, чем слотов БД")
+    void shouldLimitConcurrentOperations() throws Exception {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch allSubmitted = new CountDownLatch(1);
+        when(bookService.estimateBooksCount()).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            allSubmitted.await(5, TimeUnit.SECONDS);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return 42L;
+        });
+
+        // When
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(asyncBookService.estimateBooksCount());
+        }
+        allSubmitted.countDown();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(futures).allSatisfy(future -> assertThat(future.join()).isEqualTo(42L));
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Ошибка сервиса должна завершать future исключением")
+    void shouldCompleteExceptionallyOnServiceError() {
+        // Given
+        when(bookService.getBooksPage(null, 0))
+                .thenThrow(new IllegalArgumentException("Page size must be positive: 0"));
+
+        // When / Then
+        assertThatThrownBy(() -> asyncBookService.getBooksPage(null, 0).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .hasRootCauseMessage("Page size must be positive: 0");
+    }
+
+    @Test
+    @DisplayName("Должен дочитывать поток книг внутри задачи и закрывать его")
+    void shouldConsumeAndCloseStream() throws Exception {
+        // Given
+        AtomicInteger closed = new AtomicInteger();
+        when(bookService.streamAllBooks()).thenReturn(Stream.of(
+                new Book(1L, "A", null, null),
+                new Book(2L, "B", null, null)
+        ).onClose(closed::incrementAndGet));
+        List<String> titles = new ArrayList<>();
+
+        // When
+        long count = asyncBookService.forEachBook(book -> titles.add(book.getTitle())).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        assertThat(titles).containsExactly("A", "B");
+        assertThat(closed).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Должен дочитывать поток сводок книг внутри задачи и закрывать его")
+    void shouldConsumeAndCloseSummaryStream() throws Exception {
+        // Given
+        AtomicInteger closed = new AtomicInteger();
+        when(bookService.streamAllBookSummaries()).thenReturn(Stream.of(
+                new BookSummary(1L, "A", "Leo", "Tolstoy", "Novel"),
+                new BookSummary(2L, "B", "Leo", "Tolstoy", "Novel")
+        ).onClose(closed::incrementAndGet));
+        List<String> titles = new ArrayList<>();
+
+        // When
+        long count = asyncBookService.forEachBookSummary(summary -> titles.add(summary.title()))
+                .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        assertThat(titles).containsExactly("A", "B");
+        assertThat(closed).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Должен завершаться ошибкой, если слот БД не освободился за отведённое время")
+    void shouldFailWhenNoSlotWithinTimeout() throws Exception {
+        // Given
+        asyncBookService = new AsyncBookServiceImpl(bookService, executor, slots(1, Duration.ofMillis(50)));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookService.estimateBooksCount()).thenAnswer(invocation -> {
+            holding.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+        CompletableFuture<Long> holder = asyncBookService.estimateBooksCount();
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When / Then
+        try {
+            assertThatThrownBy(() -> asyncBookService.getAllBooks().get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("No free database slot within PT0.05S");
+        } finally {
+            release.countDown();
+        }
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Пул платформенных потоков не должен держать задачи в очереди мимо таймаута ожидания слота")
+    void shouldTimeOutAndRejectOnPlatformThreadPool() throws Exception {
+        // Given - один слот и одно место для ожидающей задачи
+        AsyncProperties properties = properties(1, Duration.ofMillis(50));
+        properties.setMaxWaiting(1);
+        ThreadPoolTaskExecutor pool = AsyncConfig.platformThreadExecutor(properties);
+        pool.initialize();
+        asyncBookService = new AsyncBookServiceImpl(bookService, pool, new ConnectionSlots(properties));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookService.estimateBooksCount()).thenAnswer(invocation -> {
+            holding.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+        CompletableFuture<Long> holder = asyncBookService.estimateBooksCount();
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<List<Book>> waiting = asyncBookService.getAllBooks();
+        CompletableFuture<List<Book>> rejected = asyncBookService.getAllBooks();
+
+        // Then
+        try {
+            assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Too many operations waiting for a database slot");
+            assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("No free database slot within PT0.05S");
+        } finally {
+            release.countDown();
+        }
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Сверх max-waiting ожидающих задач должен быть сразу отказ и на executor-е без ограничений")
+    void shouldRejectBeyondMaxWaitingOnUnboundedExecutor() throws Exception {
+        // Given - неограниченный executor, как виртуальные потоки на Java 21+: один слот и одно место ожидания
+        AsyncProperties properties = properties(1, Duration.ofSeconds(5));
+        properties.setMaxWaiting(1);
+        ConnectionSlots connectionSlots = new ConnectionSlots(properties);
+        asyncBookService = new AsyncBookServiceImpl(bookService, executor, connectionSlots);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookService.estimateBooksCount()).thenAnswer(invocation -> {
+            holding.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+        when(bookService.getAllBooks()).thenReturn(List.of());
+        CompletableFuture<Long> holder = asyncBookService.estimateBooksCount();
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<List<Book>> waiting = asyncBookService.getAllBooks();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (connectionSlots.waiting() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        CompletableFuture<List<Book>> rejected = asyncBookService.getAllBooks();
+
+        // Then
+        try {
+            assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("Too many operations waiting for a database slot");
+        } finally {
+            release.countDown();
+        }
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEmpty();
+    }
+
+    private static ConnectionSlots slots(int maxConcurrentQueries, Duration acquireTimeout) {
+        return new ConnectionSlots(properties(maxConcurrentQueries, acquireTimeout));
+    }
+
+    private static AsyncProperties properties(int maxConcurrentQueries, Duration acquireTimeout) {
+        AsyncProperties properties = new AsyncProperties();
+        properties.setMaxConcurrentQueries(maxConcurrentQueries);
+        properties.setAcquireTimeout(acquireTimeout);
+        return properties;
+    }
+}
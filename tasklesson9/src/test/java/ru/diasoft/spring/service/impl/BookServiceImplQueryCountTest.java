@@ -0,0 +1,53 @@
+package ru.diasoft.spring.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.diasoft.spring.config.StatementCountingConfig;
+import ru.diasoft.spring.config.StatementCountingConfig.StatementCounter;
+import ru.diasoft.spring.domain.Book;
+import ru.diasoft.spring.domain.BookDraft;
+import ru.diasoft.spring.service.BookService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Import(StatementCountingConfig.class)
+@DisplayName("Количество запросов BookServiceImpl")
+class BookServiceImplQueryCountTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    @DisplayName("createBooks для 1000 книг должен выполнять пять statement-ов")
+    void createBooksShouldRunConstantNumberOfStatements() {
+        // Given - 100 новых авторов, 10 новых жанров и существующие автор и жанр из тестовых данных
+        List<BookDraft> drafts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            drafts.add(i % 100 == 0
+                    ? new BookDraft("Count Book " + i, "Test", "Author1", "Test Genre 1")
+                    : new BookDraft("Count Book " + i, "Count", "Author" + i % 100, "Count Genre " + i % 10));
+        }
+        statementCounter.reset();
+
+        // When
+        List<Book> created = bookService.createBooks(drafts);
+
+        // Then - поиск авторов, вставка авторов, поиск жанров, вставка жанров, вставка книг
+        assertThat(created).hasSize(1000);
+        assertThat(statementCounter.get()).isEqualTo(5);
+    }
+}
@@ -6,12 +6,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.diasoft.spring.config.RetryProperties;
 import ru.diasoft.spring.dao.AuthorDao;
 import ru.diasoft.spring.dao.BookDao;
 import ru.diasoft.spring.dao.GenreDao;
 import ru.diasoft.spring.domain.Author;
 import ru.diasoft.spring.domain.Book;
 import ru.diasoft.spring.domain.Genre;
+import ru.diasoft.spring.retry.OptimisticLockRetry;
+import ru.diasoft.spring.search.TitleSearchCache;
+import ru.diasoft.spring.search.TitleTrigramIndex;
 
 import java.util.Collections;
 import java.util.List;
@@ -20,6 +27,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +43,12 @@ class BookServiceImplTest {
     @Mock
     private GenreDao genreDao;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<TitleSearchCache> titleSearchCache;
+
     private BookServiceImpl bookService;
 
     private Author testAuthor;
@@ -43,7 +57,9 @@ class BookServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        bookService = new BookServiceImpl(bookDao, authorDao, genreDao);
+        bookService = new BookServiceImpl(bookDao, authorDao, genreDao,
+                new TitleTrigramIndex(), titleSearchCache,
+                new OptimisticLockRetry(new TransactionTemplate(transactionManager), new RetryProperties()));
 
         testAuthor = new Author(1L, "Leo", "Tolstoy", 82);
         testGenre = new Genre(1L, "Novel");
@@ -104,8 +120,8 @@ class BookServiceImplTest {
         verify(authorDao).findByFullName(authorFirstName, authorLastName);
         verify(genreDao).findByName(genreName);
         verify(bookDao).save(any(Book.class));
-        verify(authorDao, never()).save(any(Author.class));
-        verify(genreDao, never()).save(any(Genre.class));
+        verify(authorDao, never()).findOrCreate(anyString(), anyString());
+        verify(genreDao, never()).findOrCreate(anyString());
     }
 
     @Test
@@ -123,7 +139,7 @@ class BookServiceImplTest {
 
         when(authorDao.findByFullName(authorFirstName, authorLastName))
                 .thenReturn(Optional.empty());
-        when(authorDao.save(any(Author.class))).thenReturn(savedAuthor);
+        when(authorDao.findOrCreate(authorFirstName, authorLastName)).thenReturn(savedAuthor);
         when(genreDao.findByName(genreName))
                 .thenReturn(Optional.of(testGenre));
         when(bookDao.save(any(Book.class))).thenReturn(expectedBook);
@@ -134,7 +150,7 @@ class BookServiceImplTest {
         // Then
         assertThat(createdBook).isEqualTo(expectedBook);
         verify(authorDao).findByFullName(authorFirstName, authorLastName);
-        verify(authorDao).save(any(Author.class));
+        verify(authorDao).findOrCreate(authorFirstName, authorLastName);
         verify(genreDao).findByName(genreName);
         verify(genreDao, never()).save(any(Genre.class));
     }
@@ -156,7 +172,7 @@ class BookServiceImplTest {
                 .thenReturn(Optional.of(testAuthor));
         when(genreDao.findByName(genreName))
                 .thenReturn(Optional.empty());
-        when(genreDao.save(any(Genre.class))).thenReturn(savedGenre);
+        when(genreDao.findOrCreate(genreName)).thenReturn(savedGenre);
         when(bookDao.save(any(Book.class))).thenReturn(expectedBook);
 
         // When
@@ -167,7 +183,7 @@ class BookServiceImplTest {
         verify(authorDao).findByFullName(authorFirstName, authorLastName);
         verify(authorDao, never()).save(any(Author.class));
         verify(genreDao).findByName(genreName);
-        verify(genreDao).save(any(Genre.class));
+        verify(genreDao).findOrCreate(genreName);
     }
 
     @Test
@@ -243,6 +259,29 @@ class BookServiceImplTest {
         verify(bookDao).findByTitle(title);
     }
 
+    @Test
+    @DisplayName("Должен искать книги через полнотекстовый индекс")
+    void shouldSearchBooksFullText() {
+        // Given
+        when(bookDao.searchFullText("war", 20)).thenReturn(List.of(testBook));
+
+        // When
+        List<Book> books = bookService.searchBooksFullText("  war ", 20);
+
+        // Then
+        assertThat(books).containsExactly(testBook);
+        verify(bookDao).searchFullText("war", 20);
+    }
+
+    @Test
+    @DisplayName("Должен отклонить пустой полнотекстовый запрос")
+    void shouldRejectBlankFullTextQuery() {
+        assertThatThrownBy(() -> bookService.searchBooksFullText(" ", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must not be empty");
+        verifyNoInteractions(bookDao);
+    }
+
     @Test
     @DisplayName("Должен найти книги по автору")
     void shouldFindBooksByAuthor() {